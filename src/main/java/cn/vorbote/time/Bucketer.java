@@ -0,0 +1,415 @@
+package cn.vorbote.time;
+
+import java.util.Objects;
+
+/**
+ * {@code Bucketer} maps unix timestamps to the buckets of a unit of local
+ * time, such as 5 minutes, a day or a month in a time zone. A bucket is
+ * identified by a {@code long} id which grows with the time, so the ids
+ * can key a map or index an array of a rollup, and {@link #Start(long)}
+ * turns an id back into a timestamp.
+ * <p>
+ * The buckets of less than a day are counted in seconds since the epoch,
+ * shifted by the part of the offset which is not a whole number of
+ * buckets, such as the half hour of {@code Asia/Kolkata} for hours. So the
+ * hour which occurs twice when the clocks go back is 2 buckets, while the
+ * buckets still start on the local boundaries. The buckets of a day or
+ * longer are counted in local time.
+ * <p>
+ * The bulk methods, {@link #Bucket(long[], int, int)} and
+ * {@link #Floor(long[], int, int)}, replace the timestamps of an array in
+ * place. They remember the range of timestamps which have the same
+ * bucket and the same offset, so clustered or sorted timestamps are
+ * mapped by a compare in most cases, and a zone of fixed offset such as
+ * {@code UTC} is mapped by plain division.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class Bucketer {
+
+    /**
+     * The bucketers of the units in the default time zone.
+     */
+    private static final Bucketer[] DEFAULTS = new Bucketer[DateTimeUnit.values().length];
+
+    /**
+     * The epoch day of 1970-01-05, a Monday, from which the weeks are
+     * counted.
+     */
+    private static final long FIRST_MONDAY = 4L;
+
+    private final DateTimeZone zone;
+
+    /**
+     * The length of a bucket in seconds, or 0 if the buckets are counted
+     * in months.
+     */
+    private final long span;
+
+    /**
+     * The local time at which the bucket 0 starts.
+     */
+    private final long origin;
+
+    /**
+     * The length of a bucket in months.
+     */
+    private final int months;
+
+    /**
+     * Whether the buckets are counted in seconds since the epoch, which is
+     * the case for a span of less than a day.
+     */
+    private final boolean absolute;
+
+    private Bucketer(DateTimeZone zone, long span, long origin, int months) {
+        this.zone = zone;
+        this.span = span;
+        this.origin = origin;
+        this.months = months;
+        this.absolute = span != 0 && span < CivilCalendar.SECONDS_PER_DAY;
+    }
+
+    /**
+     * Get a bucketer of the unit in the default time zone.
+     *
+     * @param unit The unit.
+     * @return A bucketer.
+     */
+    public static Bucketer Of(DateTimeUnit unit) {
+        var bucketer = DEFAULTS[unit.ordinal()];
+        var zone = CivilCalendar.defaultZone();
+        if (bucketer == null || bucketer.zone != zone) {
+            bucketer = Of(unit, zone);
+            DEFAULTS[unit.ordinal()] = bucketer;
+        }
+        return bucketer;
+    }
+
+    /**
+     * Get a bucketer of the unit in the time zone.
+     *
+     * @param unit The unit.
+     * @param zone The time zone.
+     * @return A bucketer.
+     */
+    public static Bucketer Of(DateTimeUnit unit, DateTimeZone zone) {
+        Objects.requireNonNull(zone);
+        if (unit.months != 0) {
+            return new Bucketer(zone, 0L, 0L, unit.months);
+        }
+        var origin = unit == DateTimeUnit.WEEK ? FIRST_MONDAY * CivilCalendar.SECONDS_PER_DAY : 0L;
+        return new Bucketer(zone, unit.seconds, origin, 0);
+    }
+
+    /**
+     * Get a bucketer of the fixed span in the default time zone, the
+     * buckets are aligned to midnight of 1970-01-01 in local time.
+     *
+     * @param span The span, should be a positive count of seconds.
+     * @return A bucketer.
+     */
+    public static Bucketer Of(TimeSpan span) {
+        return Of(span, CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get a bucketer of the fixed span in the time zone, the buckets are
+     * aligned to midnight of 1970-01-01 in local time. Use
+     * {@link DateTimeZone#UTC} to align the buckets to the unix epoch.
+     *
+     * @param span The span, should be a positive count of seconds.
+     * @param zone The time zone.
+     * @return A bucketer.
+     */
+    public static Bucketer Of(TimeSpan span, DateTimeZone zone) {
+        Objects.requireNonNull(zone);
+        var seconds = span.TotalSeconds();
+        if (seconds <= 0 || span.getTicks() % TimeSpan.TICKS_PER_SECOND != 0) {
+            throw new IllegalArgumentException("The span should be a positive count of seconds: " + span);
+        }
+        return new Bucketer(zone, seconds, 0L, 0);
+    }
+
+    /**
+     * Get the time zone of this bucketer.
+     *
+     * @return The time zone.
+     */
+    public DateTimeZone Zone() {
+        return zone;
+    }
+
+    /**
+     * Get the part of the offset which is not a whole number of spans, by
+     * which a bucket of less than a day is shifted.
+     */
+    private long alignment(int offset) {
+        return Math.floorMod(offset, span);
+    }
+
+    /**
+     * Get the start of the bucket of less than a day which contains the
+     * timestamp. A bucket which the shift changes in is cut at the
+     * change.
+     */
+    private long floorAbsolute(long timestamp, int offset) {
+        var alignment = alignment(offset);
+        var start = timestamp - Math.floorMod(timestamp + alignment, span);
+        if (alignment(CivilCalendar.offset(zone, start)) != alignment) {
+            start = Math.max(start, zone.periodStart(timestamp));
+        }
+        return start;
+    }
+
+    /**
+     * Get the bucket of the local time.
+     */
+    private long bucketOfLocal(long local) {
+        if (span != 0) {
+            return Math.floorDiv(local - origin, span);
+        }
+        var date = CivilCalendar.toDate(Math.floorDiv(local, CivilCalendar.SECONDS_PER_DAY));
+        return Math.floorDiv(CivilCalendar.year(date) * 12 + CivilCalendar.month(date) - 1, months);
+    }
+
+    /**
+     * Get the local time at which the bucket starts.
+     */
+    private long startOfLocal(long bucket) {
+        if (span != 0) {
+            return bucket * span + origin;
+        }
+        var month = bucket * months;
+        return CivilCalendar.toEpochDay(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, 1)
+                * CivilCalendar.SECONDS_PER_DAY;
+    }
+
+    /**
+     * Convert the local time to a timestamp, the offset is preferred if
+     * the local time occurs at that offset.
+     */
+    private long toTimestamp(long local, int offset) {
+        var timestamp = local - offset;
+        if (CivilCalendar.offset(zone, timestamp) != offset) {
+            // The local time is at another offset.
+            timestamp = CivilCalendar.toTimestamp(zone, local);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Get the id of the bucket of the timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The id of the bucket.
+     */
+    public long Bucket(long timestamp) {
+        var offset = CivilCalendar.offset(zone, timestamp);
+        if (absolute) {
+            return Math.floorDiv(timestamp + alignment(offset), span);
+        }
+        return bucketOfLocal(timestamp + offset);
+    }
+
+    /**
+     * Get the timestamp at which the bucket starts.
+     *
+     * @param bucket The id of the bucket.
+     * @return Unix timestamp.
+     */
+    public long Start(long bucket) {
+        if (absolute) {
+            // The shift is read at the start of the bucket, which is then
+            // moved if the shift there is another one.
+            var start = bucket * span;
+            var timestamp = start - alignment(CivilCalendar.offset(zone, start));
+            var offset = CivilCalendar.offset(zone, timestamp);
+            if (Bucket(timestamp) != bucket) {
+                timestamp = start - alignment(offset);
+                offset = CivilCalendar.offset(zone, timestamp);
+            }
+            return floorAbsolute(timestamp, offset);
+        }
+        return CivilCalendar.toTimestamp(zone, startOfLocal(bucket));
+    }
+
+    /**
+     * Truncate the timestamp to the start of its bucket. If the local
+     * start of the bucket occurs twice, the one at the offset of the
+     * timestamp is returned.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The start of the bucket.
+     */
+    public long Floor(long timestamp) {
+        var offset = CivilCalendar.offset(zone, timestamp);
+        if (absolute) {
+            return floorAbsolute(timestamp, offset);
+        }
+        return toTimestamp(startOfLocal(bucketOfLocal(timestamp + offset)), offset);
+    }
+
+    /**
+     * Get the start of the bucket after the bucket of the timestamp.
+     */
+    private long next(long timestamp) {
+        var offset = CivilCalendar.offset(zone, timestamp);
+        if (absolute) {
+            var alignment = alignment(offset);
+            var bucket = Math.floorDiv(timestamp + alignment, span);
+            var end = (bucket + 1) * span - alignment;
+            if (alignment(CivilCalendar.offset(zone, end)) == alignment) {
+                return end;
+            }
+
+            // The shift changes before the end, so the next bucket starts at
+            // the change or at a boundary of the new shift.
+            var next = zone.periodEnd(timestamp);
+            while (Bucket(next) <= bucket) {
+                alignment = alignment(CivilCalendar.offset(zone, next));
+                end = (Math.floorDiv(next + alignment, span) + 1) * span - alignment;
+                next = Math.min(end, zone.periodEnd(next));
+            }
+            return next;
+        }
+        return toTimestamp(startOfLocal(bucketOfLocal(timestamp + offset) + 1), offset);
+    }
+
+    /**
+     * Round the timestamp up to the start of a bucket, a timestamp which
+     * is the start of its bucket is returned as is. If the local start of
+     * the next bucket occurs twice, the one at the offset of the
+     * timestamp is returned.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The start of the bucket or the next bucket.
+     */
+    public long Ceil(long timestamp) {
+        if (Floor(timestamp) == timestamp) {
+            return timestamp;
+        }
+        return next(timestamp);
+    }
+
+    /**
+     * Round the timestamp to the nearest start of a bucket, a timestamp
+     * in the middle of a bucket is rounded up.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The start of the bucket or the next bucket.
+     */
+    public long Round(long timestamp) {
+        var floor = Floor(timestamp);
+        if (floor == timestamp) {
+            return timestamp;
+        }
+        var ceil = next(timestamp);
+        return timestamp - floor < ceil - timestamp ? floor : ceil;
+    }
+
+    /**
+     * Replace every timestamp of the array by the id of its bucket.
+     *
+     * @param values The unix timestamps.
+     */
+    public void Bucket(long[] values) {
+        Bucket(values, 0, values.length);
+    }
+
+    /**
+     * Replace every timestamp of the range of the array by the id of its
+     * bucket.
+     *
+     * @param values The unix timestamps.
+     * @param from   The first index, inclusive.
+     * @param to     The last index, exclusive.
+     */
+    public void Bucket(long[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        if (span != 0 && zone.isFixed()) {
+            var shift = absolute ? alignment(zone.Offset(0L)) : zone.Offset(0L) - origin;
+            var span = this.span;
+            for (var i = from; i < to; i++) {
+                values[i] = Math.floorDiv(values[i] + shift, span);
+            }
+            return;
+        }
+        bulk(values, from, to, false);
+    }
+
+    /**
+     * Truncate every timestamp of the array to the start of its bucket.
+     *
+     * @param values The unix timestamps.
+     * @see #Floor(long)
+     */
+    public void Floor(long[] values) {
+        Floor(values, 0, values.length);
+    }
+
+    /**
+     * Truncate every timestamp of the range of the array to the start of
+     * its bucket.
+     *
+     * @param values The unix timestamps.
+     * @param from   The first index, inclusive.
+     * @param to     The last index, exclusive.
+     * @see #Floor(long)
+     */
+    public void Floor(long[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        if (span != 0 && zone.isFixed()) {
+            var shift = zone.Offset(0L) - origin;
+            var span = this.span;
+            for (var i = from; i < to; i++) {
+                var value = values[i];
+                values[i] = value - Math.floorMod(value + shift, span);
+            }
+            return;
+        }
+        bulk(values, from, to, true);
+    }
+
+    private void bulk(long[] values, int from, int to, boolean floor) {
+        // Every timestamp in [low, high) has the same offset and bucket,
+        // which are mapped to the result.
+        long low = 0, high = 0, result = 0;
+        for (var i = from; i < to; i++) {
+            var timestamp = values[i];
+            if (timestamp < low || timestamp >= high) {
+                var offset = CivilCalendar.offset(zone, timestamp);
+                if (absolute) {
+                    var alignment = alignment(offset);
+                    var start = timestamp - Math.floorMod(timestamp + alignment, span);
+                    low = Math.max(start, zone.periodStart(timestamp));
+                    high = Math.min(start + span, zone.periodEnd(timestamp));
+                    result = floor ? floorAbsolute(timestamp, offset) : Math.floorDiv(timestamp + alignment, span);
+                    values[i] = result;
+                    continue;
+                }
+                var bucket = bucketOfLocal(timestamp + offset);
+                var start = startOfLocal(bucket);
+                low = Math.max(start - offset, zone.periodStart(timestamp));
+                high = Math.min(startOfLocal(bucket + 1) - offset, zone.periodEnd(timestamp));
+                result = floor ? toTimestamp(start, offset) : bucket;
+            }
+            values[i] = result;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Bucketer that = (Bucketer) o;
+        return span == that.span && origin == that.origin && months == that.months && zone.equals(that.zone);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(zone, span, origin, months);
+    }
+}
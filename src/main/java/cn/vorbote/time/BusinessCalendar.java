@@ -0,0 +1,579 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * {@code BusinessCalendar} tells the business days of a market for a
+ * range of years, such as the settlement days of an exchange.
+ * <p>
+ * The calendar stores a bit for every day of its years, indexed by the
+ * count of days since the first day, which is set for a business day. So
+ * a lookup is a bit test, and {@link #AddBusinessDays(DateTime, int)} and
+ * {@link #BusinessDaysBetween(DateTime, DateTime)} count 64 days at once
+ * by {@link Long#bitCount(long)}, a calendar of 100 years takes less than
+ * 5 KB. The holidays of a market are only known for the years of its
+ * calendar, so a day out of the years is rejected instead of guessed.
+ * <p>
+ * A calendar is immutable and thread safe. Build one by
+ * {@link #builder(int, int)}, or load one from a file by
+ * {@link #Load(Path)}.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class BusinessCalendar {
+
+    private static final String[] DAYS_OF_WEEK = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final DateTimeZone zone;
+
+    /**
+     * The epoch day of the first bit.
+     */
+    private final long firstDay;
+
+    /**
+     * The count of days, the bits after are clear.
+     */
+    private final int days;
+
+    private final long[] words;
+
+    private BusinessCalendar(DateTimeZone zone, long firstDay, int days, long[] words) {
+        this.zone = zone;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.words = words;
+    }
+
+    /**
+     * Get a builder of a calendar from the first day of the first year to
+     * the last day of the last year, the weekend is Saturday and Sunday
+     * by default.
+     *
+     * @param fromYear The first year.
+     * @param toYear   The last year, inclusive.
+     * @return A builder.
+     */
+    public static Builder builder(int fromYear, int toYear) {
+        return new Builder(fromYear, toYear);
+    }
+
+    /**
+     * Load a calendar from a file in UTF-8.
+     *
+     * @param path The path of the file.
+     * @return A calendar.
+     * @throws IOException              If the file could not be read.
+     * @throws IllegalArgumentException If the file is malformed.
+     * @see #Load(Reader)
+     */
+    public static BusinessCalendar Load(Path path) throws IOException {
+        try (var reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return Load(reader);
+        }
+    }
+
+    /**
+     * Load a calendar from text of lines. A line holds a directive, the
+     * text after {@code #} is a comment, for example:
+     * <pre>{@code
+     * # Shanghai Stock Exchange
+     * years 2022 2023
+     * zone Asia/Shanghai
+     * weekend SAT SUN
+     * holiday 2022-01-03
+     * holiday 2022-01-31 2022-02-04
+     * workday 2022-01-29
+     * }</pre>
+     * The {@code years} directive is required and goes first. The
+     * {@code zone} and {@code weekend} directives are optional. A
+     * {@code holiday} or {@code workday} directive takes a day or a range
+     * of days, a workday is a day of the weekend on which the market
+     * works.
+     *
+     * @param reader The reader of the text, which is not closed.
+     * @return A calendar.
+     * @throws IOException              If the text could not be read.
+     * @throws IllegalArgumentException If the text is malformed.
+     */
+    public static BusinessCalendar Load(Reader reader) throws IOException {
+        var lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Builder builder = null;
+        var number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            var comment = line.indexOf('#');
+            var words = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+            try {
+                if (builder == null) {
+                    if (!"years".equals(words[0]) || words.length != 3) {
+                        throw new IllegalArgumentException("Expected: years <from> <to>");
+                    }
+                    builder = builder(Integer.parseInt(words[1]), Integer.parseInt(words[2]));
+                    continue;
+                }
+                switch (words[0]) {
+                    case "zone":
+                        builder.Zone(DateTimeZone.Of(words[1]));
+                        break;
+                    case "weekend":
+                        var weekend = new int[words.length - 1];
+                        for (var i = 1; i < words.length; i++) {
+                            weekend[i - 1] = dayOfWeek(words[i]);
+                        }
+                        builder.Weekend(weekend);
+                        break;
+                    case "holiday":
+                    case "workday":
+                        if (words.length != 2 && words.length != 3) {
+                            throw new IllegalArgumentException("Expected: " + words[0] + " <day> [<last day>]");
+                        }
+                        var from = parseDay(words[1]);
+                        var to = words.length == 3 ? parseDay(words[2]) : from;
+                        if ("holiday".equals(words[0])) {
+                            builder.holidays(from, to);
+                        } else {
+                            builder.workdays(from, to);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown directive: " + words[0]);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(e.getMessage() + " in the line " + number, e);
+            }
+        }
+        if (builder == null) {
+            throw new IllegalArgumentException("Missing the years of the calendar.");
+        }
+        return builder.Build();
+    }
+
+    private static int dayOfWeek(String name) {
+        for (var i = 0; i < DAYS_OF_WEEK.length; i++) {
+            if (DAYS_OF_WEEK[i].equalsIgnoreCase(name)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unknown day of week: " + name);
+    }
+
+    /**
+     * Parse a day in {@code yyyy-MM-dd} to an epoch day.
+     */
+    private static long parseDay(String text) {
+        var parts = text.split("-", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Unparseable day: " + text);
+        }
+        var year = Integer.parseInt(parts[0]);
+        var month = Integer.parseInt(parts[1]);
+        var day = Integer.parseInt(parts[2]);
+        DateTime.check(year, month, day, 0, 0, 0);
+        return CivilCalendar.toEpochDay(year, month, day);
+    }
+
+    /**
+     * Get the time zone in which the days of the calendar are.
+     *
+     * @return The time zone.
+     */
+    public DateTimeZone Zone() {
+        return zone;
+    }
+
+    /**
+     * Returns an indication whether the day of the time is a business day.
+     *
+     * @param time The time.
+     * @return {@code true} if the day is a business day.
+     * @throws TimeOutRangeException If the day is out of the years of the
+     *                               calendar.
+     */
+    public boolean IsBusinessDay(DateTime time) {
+        return bit(index(time));
+    }
+
+    /**
+     * Returns an indication whether the day is a business day.
+     *
+     * @param year  The year.
+     * @param month The month (1 through 12).
+     * @param day   The day of month.
+     * @return {@code true} if the day is a business day.
+     * @throws TimeOutRangeException If the day is out of the years of the
+     *                               calendar.
+     */
+    public boolean IsBusinessDay(int year, int month, int day) {
+        DateTime.check(year, month, day, 0, 0, 0);
+        return bit(index(CivilCalendar.toEpochDay(year, month, day)));
+    }
+
+    /**
+     * Add business days to the time, keeping the time of day. The result
+     * is the {@code days}-th business day after the day of the time, or
+     * before it if the count is negative, so adding a business day to a
+     * holiday gets the next business day. If the day of the time is a
+     * business day, {@code BusinessDaysBetween(time, result) == days}.
+     *
+     * @param time The time.
+     * @param days The count of business days, could be negative.
+     * @return A new time.
+     * @throws TimeOutRangeException If the day of the time or the result
+     *                               is out of the years of the calendar.
+     */
+    public DateTime AddBusinessDays(DateTime time, int days) {
+        var index = index(time);
+        int target;
+        if (days > 0) {
+            target = forward(index + 1, days);
+        } else if (days < 0) {
+            target = backward(index - 1, -(long) days);
+        } else {
+            target = index;
+        }
+        return new DateTime(CivilCalendar.plusDays(zone, time.Unix(), target - index));
+    }
+
+    /**
+     * Count the business days after the day of the start until the day of
+     * the end, including the day of the end. The count is negative if the
+     * end is before the start.
+     *
+     * @param start The start.
+     * @param end   The end.
+     * @return The count of business days.
+     * @throws TimeOutRangeException If a day is out of the years of the
+     *                               calendar.
+     */
+    public int BusinessDaysBetween(DateTime start, DateTime end) {
+        var from = index(start);
+        var to = index(end);
+        return from <= to ? count(from + 1, to + 1) : -count(to + 1, from + 1);
+    }
+
+    /**
+     * Get a calendar of the days which are business days in this calendar
+     * or the other, such as the days on which either market trades.
+     *
+     * @param other The other calendar, in the same time zone.
+     * @return A calendar of the years which both calendars have.
+     * @throws IllegalArgumentException If the time zones differ or the
+     *                                  calendars have no year in common.
+     */
+    public BusinessCalendar Union(BusinessCalendar other) {
+        return combine(other, true);
+    }
+
+    /**
+     * Get a calendar of the days which are business days in both this
+     * calendar and the other, such as the days on which a trade across
+     * the markets settles.
+     *
+     * @param other The other calendar, in the same time zone.
+     * @return A calendar of the years which both calendars have.
+     * @throws IllegalArgumentException If the time zones differ or the
+     *                                  calendars have no year in common.
+     */
+    public BusinessCalendar Intersect(BusinessCalendar other) {
+        return combine(other, false);
+    }
+
+    private BusinessCalendar combine(BusinessCalendar other, boolean union) {
+        if (!zone.equals(other.zone)) {
+            throw new IllegalArgumentException(String.format("The time zones differ: %s and %s.",
+                    zone.Id(), other.zone.Id()));
+        }
+        var first = Math.max(firstDay, other.firstDay);
+        var end = Math.min(firstDay + days, other.firstDay + other.days);
+        if (first >= end) {
+            throw new IllegalArgumentException("The calendars have no year in common.");
+        }
+        var days = (int) (end - first);
+        var words = new long[(days + 63) >>> 6];
+        for (var i = 0; i < words.length; i++) {
+            var a = bits(first - firstDay + ((long) i << 6));
+            var b = other.bits(first - other.firstDay + ((long) i << 6));
+            words[i] = union ? a | b : a & b;
+        }
+        words[words.length - 1] &= -1L >>> -days;
+        return new BusinessCalendar(zone, first, days, words);
+    }
+
+    /**
+     * Get the 64 bits from the index, which needs not be aligned to a
+     * word.
+     */
+    private long bits(long from) {
+        var word = (int) (from >>> 6);
+        var shift = (int) from & 63;
+        var bits = words[word] >>> shift;
+        if (shift != 0 && word + 1 < words.length) {
+            bits |= words[word + 1] << -shift;
+        }
+        return bits;
+    }
+
+    private int index(DateTime time) {
+        var timestamp = time.Unix();
+        return index(Math.floorDiv(timestamp + CivilCalendar.offset(zone, timestamp), CivilCalendar.SECONDS_PER_DAY));
+    }
+
+    private int index(long epochDay) {
+        var index = epochDay - firstDay;
+        if (index < 0 || index >= days) {
+            throw outOfRange(epochDay);
+        }
+        return (int) index;
+    }
+
+    private TimeOutRangeException outOfRange(long epochDay) {
+        var last = CivilCalendar.toDate(firstDay + days - 1);
+        var date = CivilCalendar.toDate(epochDay);
+        return new TimeOutRangeException(String.format(
+                "The day: %d-%02d-%02d is out of range of the calendar (%d-%02d-%02d ~ %d-%02d-%02d).",
+                CivilCalendar.year(date), CivilCalendar.month(date), CivilCalendar.day(date),
+                CivilCalendar.year(CivilCalendar.toDate(firstDay)), 1, 1,
+                CivilCalendar.year(last), CivilCalendar.month(last), CivilCalendar.day(last)));
+    }
+
+    private boolean bit(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Count the set bits in {@code [from, to)}.
+     */
+    private int count(int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        var first = from >>> 6;
+        var last = (to - 1) >>> 6;
+        if (first == last) {
+            return Long.bitCount(words[first] & (-1L << from) & (-1L >>> -to));
+        }
+        var count = Long.bitCount(words[first] & (-1L << from));
+        for (var i = first + 1; i < last; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[last] & (-1L >>> -to));
+    }
+
+    /**
+     * Find the n-th set bit from the index forwards.
+     */
+    private int forward(int from, long n) {
+        var w = from >>> 6;
+        var word = w < words.length ? words[w] & (-1L << from) : 0L;
+        while (true) {
+            var bits = Long.bitCount(word);
+            if (n <= bits) {
+                for (; n > 1; n--) {
+                    word &= word - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            n -= bits;
+            if (++w >= words.length) {
+                throw outOfRange(firstDay + days);
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * Find the n-th set bit from the index backwards.
+     */
+    private int backward(int from, long n) {
+        var w = from >> 6;
+        var word = w >= 0 ? words[w] & (-1L >>> ~from) : 0L;
+        while (true) {
+            var bits = Long.bitCount(word);
+            if (n <= bits) {
+                for (; n > 1; n--) {
+                    word &= ~Long.highestOneBit(word);
+                }
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            n -= bits;
+            if (--w < 0) {
+                throw outOfRange(firstDay - 1);
+            }
+            word = words[w];
+        }
+    }
+
+    /**
+     * {@code Builder} collects the weekend and the holidays of a
+     * calendar.
+     */
+    public static final class Builder {
+
+        private final long firstDay;
+
+        private final int days;
+
+        private DateTimeZone zone = CivilCalendar.defaultZone();
+
+        /**
+         * The days of week of the weekend, bit 1 for Sunday through bit 7
+         * for Saturday.
+         */
+        private int weekend = 1 << 1 | 1 << 7;
+
+        private final BitSet holidays = new BitSet();
+
+        private final BitSet workdays = new BitSet();
+
+        private Builder(int fromYear, int toYear) {
+            if (toYear < fromYear) {
+                throw new IllegalArgumentException(String.format("The last year: %d is before the first year: %d.",
+                        toYear, fromYear));
+            }
+            this.firstDay = CivilCalendar.toEpochDay(fromYear, 1, 1);
+            var days = CivilCalendar.toEpochDay(toYear + 1L, 1, 1) - firstDay;
+            if (days > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many years: " + (toYear - (long) fromYear + 1));
+            }
+            this.days = (int) days;
+        }
+
+        /**
+         * Set the time zone in which the days of the calendar are, the
+         * default time zone by default.
+         *
+         * @param zone The time zone.
+         * @return This builder.
+         */
+        public Builder Zone(DateTimeZone zone) {
+            this.zone = Objects.requireNonNull(zone);
+            return this;
+        }
+
+        /**
+         * Set the days of week of the weekend, numbered like
+         * {@code Calendar.DAY_OF_WEEK}.
+         *
+         * @param daysOfWeek The days of week (1 for Sunday through 7 for
+         *                   Saturday), none for a market which works every
+         *                   day.
+         * @return This builder.
+         */
+        public Builder Weekend(int... daysOfWeek) {
+            var weekend = 0;
+            for (var dayOfWeek : daysOfWeek) {
+                if (dayOfWeek < 1 || dayOfWeek > 7) {
+                    throw new TimeOutRangeException(String.format("The day of week: %d is out of range of (1 ~ 7).",
+                            dayOfWeek));
+                }
+                weekend |= 1 << dayOfWeek;
+            }
+            this.weekend = weekend;
+            return this;
+        }
+
+        /**
+         * Add a holiday.
+         *
+         * @param year  The year.
+         * @param month The month (1 through 12).
+         * @param day   The day of month.
+         * @return This builder.
+         */
+        public Builder Holiday(int year, int month, int day) {
+            DateTime.check(year, month, day, 0, 0, 0);
+            var epochDay = CivilCalendar.toEpochDay(year, month, day);
+            return holidays(epochDay, epochDay);
+        }
+
+        /**
+         * Add the day of the time as a holiday.
+         *
+         * @param time The time.
+         * @return This builder.
+         */
+        public Builder Holiday(DateTime time) {
+            return Holiday(time.Year(zone), time.Month(zone), time.Day(zone));
+        }
+
+        /**
+         * Add a day of the weekend on which the market works, such as a
+         * weekend day swapped with a day of a long holiday.
+         *
+         * @param year  The year.
+         * @param month The month (1 through 12).
+         * @param day   The day of month.
+         * @return This builder.
+         */
+        public Builder Workday(int year, int month, int day) {
+            DateTime.check(year, month, day, 0, 0, 0);
+            var epochDay = CivilCalendar.toEpochDay(year, month, day);
+            return workdays(epochDay, epochDay);
+        }
+
+        Builder holidays(long from, long to) {
+            holidays.set(index(from), index(to) + 1);
+            return this;
+        }
+
+        Builder workdays(long from, long to) {
+            workdays.set(index(from), index(to) + 1);
+            return this;
+        }
+
+        private int index(long epochDay) {
+            var index = epochDay - firstDay;
+            if (index < 0 || index >= days) {
+                var date = CivilCalendar.toDate(epochDay);
+                throw new TimeOutRangeException(String.format("The day: %d-%02d-%02d is out of range of the calendar.",
+                        CivilCalendar.year(date), CivilCalendar.month(date), CivilCalendar.day(date)));
+            }
+            return (int) index;
+        }
+
+        /**
+         * Build the calendar, a day is a business day if it is a workday,
+         * or it is neither a day of the weekend nor a holiday.
+         *
+         * @return A calendar.
+         */
+        public BusinessCalendar Build() {
+            // The business days of a week repeat every 7 words, so fill
+            // the pattern of a week and copy it.
+            var week = new long[7];
+            for (var i = 0; i < 7 * 64; i++) {
+                if ((weekend & 1 << DateTimeFormatter.dayOfWeek(firstDay + i)) == 0) {
+                    week[i >>> 6] |= 1L << i;
+                }
+            }
+            var words = new long[(days + 63) >>> 6];
+            for (var i = 0; i < words.length; i++) {
+                words[i] = week[i % 7];
+            }
+            words[words.length - 1] &= -1L >>> -days;
+            var holidays = this.holidays.toLongArray();
+            for (var i = 0; i < holidays.length; i++) {
+                words[i] &= ~holidays[i];
+            }
+            var workdays = this.workdays.toLongArray();
+            for (var i = 0; i < workdays.length; i++) {
+                words[i] |= workdays[i];
+            }
+            return new BusinessCalendar(zone, firstDay, days, words);
+        }
+    }
+}
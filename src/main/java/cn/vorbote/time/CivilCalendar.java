@@ -0,0 +1,316 @@
+package cn.vorbote.time;
+
+/**
+ * {@code CivilCalendar} converts between unix timestamps and civil
+ * date-time fields by pure arithmetic. It reproduces the behaviour of
+ * {@code GregorianCalendar} which is used by {@code DateTime} before,
+ * including the switch from the Julian calendar to the Gregorian
+ * calendar on 1582-10-15, so the results are identical to what a
+ * {@code Calendar} returns while nothing is allocated.
+ * <p>
+ * A date is passed around as a packed {@code long}, see
+ * {@link #pack(long, int, int)}, so the decomposition of a timestamp
+ * does not need any holder object.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+final class CivilCalendar {
+
+    /**
+     * Seconds in a day.
+     */
+    static final long SECONDS_PER_DAY = 86400L;
+
+    /**
+     * The epoch day of 1582-10-15, the first day of the Gregorian
+     * calendar. Days before this day are counted in Julian calendar.
+     */
+    static final long GREGORIAN_CUTOVER_DAY = -141427L;
+
+    /**
+     * The year of the Gregorian cutover.
+     */
+    static final int GREGORIAN_CUTOVER_YEAR = 1582;
+
+    /**
+     * The julian day number of 1970-01-01.
+     */
+    private static final long JULIAN_DAY_OF_EPOCH = 2440588L;
+
+    private CivilCalendar() {
+    }
+
+    /**
+     * Returns an indication whether the specified year is a leap year
+     * in the hybrid Julian-Gregorian calendar.
+     *
+     * @param year The year.
+     * @return An indication whether the specified year is a leap year.
+     */
+    static boolean isLeapYear(long year) {
+        if (year < GREGORIAN_CUTOVER_YEAR) {
+            return (year & 3) == 0;
+        }
+        return isGregorianLeapYear(year);
+    }
+
+    /**
+     * Returns an indication whether the specified year is a leap year
+     * in the proleptic Gregorian calendar.
+     *
+     * @param year The year.
+     * @return An indication whether the specified year is a leap year.
+     */
+    static boolean isGregorianLeapYear(long year) {
+        return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0);
+    }
+
+    /**
+     * Get the number of days in the month of the hybrid calendar.
+     *
+     * @param year  The year.
+     * @param month The month (1 through 12).
+     * @return The number of days in the month.
+     */
+    static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Convert a date to the count of days since 1970-01-01. The date is
+     * resolved like a lenient {@code GregorianCalendar} does, a date in
+     * the gap of the cutover (1582-10-05 through 1582-10-14) is read as
+     * a Julian date.
+     *
+     * @param year  The year.
+     * @param month The month (1 through 12).
+     * @param day   The day of month.
+     * @return The epoch day.
+     */
+    static long toEpochDay(long year, int month, int day) {
+        var gregorian = gregorianToEpochDay(year, month, day);
+        if (gregorian >= GREGORIAN_CUTOVER_DAY) {
+            return gregorian;
+        }
+        return julianToEpochDay(year, month, day);
+    }
+
+    /**
+     * Convert a date of the proleptic Gregorian calendar to the epoch day.
+     */
+    static long gregorianToEpochDay(long year, int month, int day) {
+        var a = (14 - month) / 12;
+        var y = year + 4800 - a;
+        var m = month + 12 * a - 3;
+        return day + (153 * m + 2) / 5 + 365 * y
+                + Math.floorDiv(y, 4) - Math.floorDiv(y, 100) + Math.floorDiv(y, 400)
+                - 32045 - JULIAN_DAY_OF_EPOCH;
+    }
+
+    /**
+     * Convert a date of the Julian calendar to the epoch day.
+     */
+    static long julianToEpochDay(long year, int month, int day) {
+        var a = (14 - month) / 12;
+        var y = year + 4800 - a;
+        var m = month + 12 * a - 3;
+        return day + (153 * m + 2) / 5 + 365 * y + Math.floorDiv(y, 4)
+                - 32083 - JULIAN_DAY_OF_EPOCH;
+    }
+
+    /**
+     * Convert an epoch day to a packed date of the hybrid calendar.
+     *
+     * @param epochDay The count of days since 1970-01-01.
+     * @return The packed date.
+     * @see #pack(long, int, int)
+     */
+    static long toDate(long epochDay) {
+        var jdn = epochDay + JULIAN_DAY_OF_EPOCH;
+        long c, yearBase;
+        if (epochDay >= GREGORIAN_CUTOVER_DAY) {
+            var a = jdn + 32044;
+            var b = Math.floorDiv(4 * a + 3, 146097);
+            c = a - Math.floorDiv(146097 * b, 4);
+            yearBase = 100 * b;
+        } else {
+            c = jdn + 32082;
+            yearBase = 0;
+        }
+        var d = Math.floorDiv(4 * c + 3, 1461);
+        var e = c - Math.floorDiv(1461 * d, 4);
+        var m = Math.floorDiv(5 * e + 2, 153);
+        var day = (int) (e - Math.floorDiv(153 * m + 2, 5) + 1);
+        var month = (int) (m + 3 - 12 * Math.floorDiv(m, 10));
+        var year = yearBase + d - 4800 + Math.floorDiv(m, 10);
+        return pack(year, month, day);
+    }
+
+    /**
+     * Pack a date into a {@code long}, the lowest 5 bits hold the day,
+     * the next 4 bits hold the month and the rest hold the year.
+     *
+     * @param year  The year.
+     * @param month The month (1 through 12).
+     * @param day   The day of month.
+     * @return The packed date.
+     */
+    static long pack(long year, int month, int day) {
+        return (year << 9) | ((long) month << 5) | day;
+    }
+
+    /**
+     * Get the year of a packed date.
+     */
+    static long year(long date) {
+        return date >> 9;
+    }
+
+    /**
+     * Get the month of a packed date.
+     */
+    static int month(long date) {
+        return (int) (date >>> 5) & 15;
+    }
+
+    /**
+     * Get the day of month of a packed date.
+     */
+    static int day(long date) {
+        return (int) date & 31;
+    }
+
+    /**
+     * Get the offset of the time zone in seconds at the timestamp.
+     *
+     * @param zone      The time zone.
+     * @param timestamp Unix timestamp.
+     * @return The offset from UTC in seconds.
+     */
+    static int offset(DateTimeZone zone, long timestamp) {
+        return zone.Offset(timestamp);
+    }
+
+    /**
+     * Convert a local time, which is expressed as seconds since
+     * 1970-01-01T00:00:00 in local time, to unix timestamp. A local time
+     * in a gap is read with the offset before the transition and an
+     * ambiguous local time is read with the offset after the transition,
+     * which is how {@code GregorianCalendar} resolves them.
+     *
+     * @param zone  The time zone.
+     * @param local The local time in seconds.
+     * @return Unix timestamp.
+     */
+    static long toTimestamp(DateTimeZone zone, long local) {
+        // Transitions are far more than 2 days away from each other, so
+        // the offsets a day before and a day after are the 2 candidates.
+        var before = offset(zone, local - SECONDS_PER_DAY);
+        var after = offset(zone, local + SECONDS_PER_DAY);
+        if (before == after || offset(zone, local - after) != after) {
+            return local - before;
+        }
+        return local - after;
+    }
+
+    /**
+     * Convert the fields of a local date time to unix timestamp.
+     *
+     * @param zone   The time zone.
+     * @param year   The year.
+     * @param month  The month (1 through 12).
+     * @param day    The day of month.
+     * @param hour   The hour of day.
+     * @param minute The minute.
+     * @param second The second.
+     * @return Unix timestamp.
+     */
+    static long toTimestamp(DateTimeZone zone, long year, int month, int day, int hour, int minute, int second) {
+        var local = toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+        return toTimestamp(zone, local);
+    }
+
+    /**
+     * Add days to the timestamp while keeping the local time of day,
+     * just like {@code Calendar.add(Calendar.DATE, days)}.
+     *
+     * @param zone      The time zone.
+     * @param timestamp Unix timestamp.
+     * @param days      The days to add, could be negative.
+     * @return Unix timestamp after added.
+     */
+    static long plusDays(DateTimeZone zone, long timestamp, long days) {
+        if (days == 0) {
+            return timestamp;
+        }
+        var offset = offset(zone, timestamp);
+        var local = timestamp + offset;
+        var epochDay = Math.floorDiv(local, SECONDS_PER_DAY) + days;
+        var result = epochDay * SECONDS_PER_DAY + Math.floorMod(local, SECONDS_PER_DAY) - offset;
+
+        // If the offset has changed, then adjust the difference unless the
+        // adjustment moves the time to another date.
+        var diff = offset - offset(zone, result);
+        if (diff != 0) {
+            var adjusted = result + diff;
+            if (Math.floorDiv(adjusted + offset(zone, adjusted), SECONDS_PER_DAY) == epochDay) {
+                result = adjusted;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add months to the timestamp, just like
+     * {@code Calendar.add(Calendar.MONTH, months)}. The day of month is
+     * pinned to the last day of the result month if it does not exist.
+     *
+     * @param zone      The time zone.
+     * @param timestamp Unix timestamp.
+     * @param months    The months to add, could be negative.
+     * @return Unix timestamp after added.
+     */
+    static long plusMonths(DateTimeZone zone, long timestamp, long months) {
+        if (months == 0) {
+            return timestamp;
+        }
+        var local = timestamp + offset(zone, timestamp);
+        var date = toDate(Math.floorDiv(local, SECONDS_PER_DAY));
+
+        var monthIndex = month(date) - 1 + months;
+        var year = year(date) + Math.floorDiv(monthIndex, 12);
+        var month = Math.floorMod(monthIndex, 12) + 1;
+        var day = day(date);
+
+        // GregorianCalendar reads the length of month from the normalized
+        // date in the cutover year, so an overflowed day rolls into the
+        // next month instead of being pinned.
+        if (year != GREGORIAN_CUTOVER_YEAR) {
+            day = Math.min(day, lengthOfMonth(year, month));
+        }
+
+        return toTimestamp(zone, toEpochDay(year, month, day) * SECONDS_PER_DAY
+                + Math.floorMod(local, SECONDS_PER_DAY));
+    }
+
+    /**
+     * Get the default time zone of the JVM, which follows
+     * {@code TimeZone.setDefault}.
+     *
+     * @return The default time zone.
+     * @see DateTimeZone#Default()
+     */
+    static DateTimeZone defaultZone() {
+        return DateTimeZone.Default();
+    }
+}
@@ -0,0 +1,35 @@
+package cn.vorbote.time;
+
+/**
+ * {@code Clock} is the source of the current time used by
+ * {@code DateTime.Now()} and the no-arg constructor of {@code DateTime}.
+ * The source is pluggable by {@link DateTime#Clock(Clock)}, so a service
+ * can use a {@link TickingClock} which reads the system time once per
+ * second, and a test can use a fixed time.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@FunctionalInterface
+public interface Clock {
+
+    /**
+     * The clock reads {@code System.currentTimeMillis()} on every call.
+     */
+    Clock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Get the current Java timestamp.
+     *
+     * @return Milliseconds since 1970-01-01T00:00:00Z.
+     */
+    long Millis();
+
+    /**
+     * Get the current Unix timestamp.
+     *
+     * @return Seconds since 1970-01-01T00:00:00Z.
+     */
+    default long Seconds() {
+        return Math.floorDiv(Millis(), 1000L);
+    }
+}
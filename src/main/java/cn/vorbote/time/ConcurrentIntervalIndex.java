@@ -0,0 +1,136 @@
+package cn.vorbote.time;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * {@code ConcurrentIntervalIndex} is an {@link IntervalIndex} which is
+ * updated while it is read, for a read-mostly workload such as a
+ * calendar of maintenance windows which changes a few times a minute and
+ * is queried by every request.
+ * <p>
+ * Readers query an immutable snapshot, which is read from a volatile
+ * field without any lock, so a reader never waits for a writer and the
+ * results of a query are consistent. Writers are serialized by a lock,
+ * they change a pending set of ranges which becomes visible to readers
+ * at once by {@link #Publish()}, which builds a new snapshot in
+ * {@code O(n log n)}. Batch the updates between publishing.
+ *
+ * @param <T> The type of the values.
+ * @author vorbote thills@vorbote.cn
+ */
+public final class ConcurrentIntervalIndex<T> {
+
+    private final Object lock = new Object();
+
+    private volatile IntervalIndex<T> snapshot;
+
+    /**
+     * The ranges which are published and the changes since, guarded by
+     * {@code lock}.
+     */
+    private final IntervalIndex.Builder<T> pending;
+
+    /**
+     * Whether {@code pending} differs from the snapshot.
+     */
+    private boolean dirty;
+
+    /**
+     * Create an empty index.
+     */
+    public ConcurrentIntervalIndex() {
+        this(IntervalIndex.<T>builder().Build());
+    }
+
+    /**
+     * Create an index which starts from the ranges of a built index.
+     *
+     * @param index The index.
+     */
+    public ConcurrentIntervalIndex(IntervalIndex<T> index) {
+        this.snapshot = Objects.requireNonNull(index);
+        this.pending = IntervalIndex.<T>builder().AddAll(index);
+    }
+
+    /**
+     * Add a range, it is visible to readers after the next publishing.
+     *
+     * @param range The range.
+     * @param value The value of the range.
+     * @return This index.
+     */
+    public ConcurrentIntervalIndex<T> Add(DateTimeRange range, T value) {
+        synchronized (lock) {
+            pending.Add(range, value);
+            dirty = true;
+        }
+        return this;
+    }
+
+    /**
+     * Remove the ranges of the value, the removal is visible to readers
+     * after the next publishing.
+     *
+     * @param value The value.
+     * @return The count of ranges removed.
+     */
+    public int Remove(T value) {
+        synchronized (lock) {
+            var removed = pending.RemoveIf(item -> Objects.equals(item, value));
+            if (removed > 0) {
+                dirty = true;
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Make the changes since the last publishing visible to readers.
+     *
+     * @return The new snapshot.
+     */
+    public IntervalIndex<T> Publish() {
+        synchronized (lock) {
+            if (dirty) {
+                snapshot = pending.Build();
+                dirty = false;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Get the snapshot which is visible to readers. Run every query of a
+     * consistent read on the same snapshot.
+     *
+     * @return The current snapshot.
+     */
+    public IntervalIndex<T> Snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the values of the ranges which overlap the range in the current
+     * snapshot.
+     *
+     * @param range The range.
+     * @return The values in the order of start.
+     * @see IntervalIndex#Overlapping(DateTimeRange)
+     */
+    public Stream<T> Overlapping(DateTimeRange range) {
+        return snapshot.Overlapping(range);
+    }
+
+    /**
+     * Get the values of the ranges which contain the time in the current
+     * snapshot.
+     *
+     * @param time The time.
+     * @return The values in the order of start.
+     * @see IntervalIndex#Containing(DateTime)
+     */
+    public Stream<T> Containing(DateTime time) {
+        return snapshot.Containing(time);
+    }
+}
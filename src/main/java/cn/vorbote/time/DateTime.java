@@ -2,8 +2,16 @@ package cn.vorbote.time;
 
 import cn.vorbote.commons.except.TimeOutRangeException;
 
-import java.io.Serializable;
-import java.text.SimpleDateFormat;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Objects;
@@ -18,11 +26,23 @@ import java.util.Objects;
  * the Calendar class of the Java platform, and it is
  * convenient to use by encapsulating some convenient
  * methods.
+ * <p>
+ * A {@code DateTime} holds nothing but its timestamp, the pattern of an
+ * instance which overrides the default one is kept aside, keyed by the
+ * instance. A {@code DateTime} is serialized in the compact encoding of
+ * {@link DateTimeCodec}, the default pattern takes no space.
+ * <p>
+ * The field accessors such as {@link #Year()} decompose the timestamp at
+ * every call: an instance keeps no decomposed fields, so that it stays as
+ * small as its timestamp. To read several fields of a time, read them
+ * from one {@link #Fields()}.
  *
  * @author vorbote thills@vorbote.cn
  */
 public class DateTime implements
-        Comparable<DateTime>, Serializable {
+        Comparable<DateTime>, Externalizable {
+
+    private static final long serialVersionUID = 2L;
 
     /**
      * Check whether the year, month and the date is in the
@@ -38,37 +58,14 @@ public class DateTime implements
      *                               range, the exception will be throw
      *                               out.
      */
-    private static void check(int year, int month, int date, int hour, int minute, int second) {
+    static void check(long year, int month, int date, int hour, int minute, int second) {
         // The month number should between 1 ~ 12
         if (month <= 0 || month > 12) {
             throw new TimeOutRangeException(String.format("The month: %d is out of range of (1 ~ 12).",
                     month));
         }
 
-        var dayInTheMonth = 0;
-
-        // The situation of month is not bewteen 1 to 12 is handled. Therefore
-        // no need for a default block.
-        switch (month) {
-            case 1:
-            case 3:
-            case 5:
-            case 7:
-            case 8:
-            case 10:
-            case 12:
-                dayInTheMonth = 31;
-                break;
-            case 4:
-            case 6:
-            case 9:
-            case 11:
-                dayInTheMonth = 30;
-                break;
-            case 2:
-                dayInTheMonth = ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
-                break;
-        }
+        var dayInTheMonth = dayInTheMonth(year, month);
 
         // The month number should between 1 ~ the days in the month
         if (date < 1 || date > dayInTheMonth) {
@@ -93,14 +90,57 @@ public class DateTime implements
     }
 
     /**
-     * Timestamp, use the form of unix time.
+     * Returns an indication whether the time passes the same check as
+     * {@code check}, without throwing an exception.
+     *
+     * @param year   The year (1 through 9999).
+     * @param month  The month (1 through 12).
+     * @param date   The day (1 through the number of days in month).
+     * @param hour   The hour (0 through 23).
+     * @param minute The minute (0 through 59).
+     * @param second The second (0 through 59).
+     * @return An indication whether the time is in the correct range.
+     */
+    static boolean isValid(long year, int month, int date, int hour, int minute, int second) {
+        return month >= 1 && month <= 12
+                && date >= 1 && date <= dayInTheMonth(year, month)
+                && hour >= 0 && hour <= 23
+                && minute >= 0 && minute <= 59
+                && second >= 0 && second <= 59;
+    }
+
+    /**
+     * Get the days in the month.
+     *
+     * @param year  The year.
+     * @param month The month (1 through 12).
+     * @return The days in the month.
      */
-    private long timestamp = System.currentTimeMillis() / 1000L;
+    private static int dayInTheMonth(long year, int month) {
+        // The situation of month is not bewteen 1 to 12 is handled. Therefore
+        // no need for a default block.
+        switch (month) {
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            case 2:
+                return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0) ? 29 : 28;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * The source of the current time.
+     */
+    private static volatile Clock clock = Clock.SYSTEM;
 
     /**
-     * Specify the way to format the time.
+     * Timestamp, use the form of unix time.
      */
-    private String pattern = "yyyy-MM-dd HH:mm:ss";
+    private long timestamp;
 
     /**
      * Getter for timestamp, returns a unix timestamp.
@@ -115,6 +155,7 @@ public class DateTime implements
      * Generate a new {@code DateTime} instance of {@code current} time.
      */
     public DateTime() {
+        this.timestamp = clock.Seconds();
     }
 
     /**
@@ -145,6 +186,48 @@ public class DateTime implements
         this.timestamp = calendar.getTimeInMillis() / 1000L;
     }
 
+    /**
+     * Generate a new DateTime instance of the instant, the part less than
+     * a second is truncated towards the past.
+     *
+     * @param instant An {@code Instant} instance.
+     */
+    public DateTime(Instant instant) {
+        this.timestamp = instant.getEpochSecond();
+    }
+
+    /**
+     * Generate a new DateTime instance of the time, the part less than a
+     * second is truncated.
+     *
+     * @param time A {@code ZonedDateTime} instance.
+     */
+    public DateTime(ZonedDateTime time) {
+        this.timestamp = time.toEpochSecond();
+    }
+
+    /**
+     * Generate a new DateTime instance of the time, the part less than a
+     * second is truncated.
+     *
+     * @param time An {@code OffsetDateTime} instance.
+     */
+    public DateTime(OffsetDateTime time) {
+        this.timestamp = time.toEpochSecond();
+    }
+
+    /**
+     * Generate a new DateTime instance of the local time in the time zone.
+     * A local time in a gap of the zone is read in the offset before the
+     * gap, and a local time which occurs twice is the later one.
+     *
+     * @param time A {@code LocalDateTime} instance.
+     * @param zone The time zone.
+     */
+    public DateTime(LocalDateTime time, DateTimeZone zone) {
+        this.timestamp = CivilCalendar.toTimestamp(zone, time.toEpochSecond(ZoneOffset.UTC));
+    }
+
     /**
      * Generate a specified {@code DateTime} instance of the date.
      *
@@ -152,19 +235,10 @@ public class DateTime implements
      * @param month The month (1 through 12).
      * @param date  The day (1 through the number of days in month).
      */
-    @SuppressWarnings("all")
     public DateTime(int year, int month, int date) {
-        // Get the instance of calendar.
-        var calendar = Calendar.getInstance();
-
         check(year, month, date, 0, 0, 0);
 
-        calendar.set(year, month - 1, date);
-        calendar.set(Calendar.HOUR_OF_DAY, 0);
-        calendar.set(Calendar.MINUTE, 0);
-        calendar.set(Calendar.SECOND, 0);
-        calendar.set(Calendar.MILLISECOND, 0);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        timestamp = CivilCalendar.toTimestamp(CivilCalendar.defaultZone(), year, month, date, 0, 0, 0);
     }
 
     /**
@@ -180,25 +254,39 @@ public class DateTime implements
     public DateTime(int year, int month, int date, int hour, int minute, int second) {
         check(year, month, date, hour, minute, second);
 
-        var calendar = Calendar.getInstance();
-
-        // Set the year, month and date
-        calendar.set(Calendar.YEAR, year);
-        calendar.set(Calendar.MONTH, month - 1);
-        calendar.set(Calendar.DATE, date);
-
-        // Add the hours to the timestamp
-        calendar.set(Calendar.HOUR_OF_DAY, hour);
-
-        // Add the minutes to the timestamp
-        calendar.set(Calendar.MINUTE, minute);
+        this.timestamp = CivilCalendar.toTimestamp(CivilCalendar.defaultZone(),
+                year, month, date, hour, minute, second);
+    }
 
-        // Add the second to the timestamp
-        calendar.set(Calendar.SECOND, second);
+    /**
+     * Generate a specified {@code DateTime} instance of the date in the
+     * time zone.
+     *
+     * @param year  The year (1 through 9999).
+     * @param month The month (1 through 12).
+     * @param date  The day (1 through the number of days in month).
+     * @param zone  The time zone.
+     */
+    public DateTime(int year, int month, int date, DateTimeZone zone) {
+        this(year, month, date, 0, 0, 0, zone);
+    }
 
-        calendar.set(Calendar.MILLISECOND, 0);
+    /**
+     * Generate a specified {@code DateTime} instance of the date and time
+     * in the time zone.
+     *
+     * @param year   The year (1 through 9999).
+     * @param month  The month (1 through 12).
+     * @param date   The day (1 through the number of days in month).
+     * @param hour   The hour (0 through 23).
+     * @param minute The minute (0 through 59).
+     * @param second The second (0 through 59).
+     * @param zone   The time zone.
+     */
+    public DateTime(int year, int month, int date, int hour, int minute, int second, DateTimeZone zone) {
+        check(year, month, date, hour, minute, second);
 
-        this.timestamp = calendar.getTimeInMillis() / 1000L;
+        this.timestamp = CivilCalendar.toTimestamp(zone, year, month, date, hour, minute, second);
     }
 
     /**
@@ -220,22 +308,43 @@ public class DateTime implements
     }
 
     /**
-     * Add the specific time to the {@code DateTime} instance.
+     * Add the specific time to the {@code DateTime} instance. The span is
+     * an exact number of seconds, a day of it is 24 hours even across a
+     * daylight saving transition, so adding the {@code TimeSpan} between
+     * 2 times to the earlier one gives the later one.
      *
      * @param ts Time Span.
      * @return The time after added this {@code TimeSpan}.
      */
     public DateTime Add(TimeSpan ts) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(new Date(timestamp * 1000L));
-        calendar.add(Calendar.DATE, ts.getDays());
-        calendar.add(Calendar.HOUR, ts.getHours());
-        calendar.add(Calendar.MINUTE, ts.getMinutes());
-        calendar.add(Calendar.SECOND, ts.getSeconds());
-        this.timestamp = calendar.getTimeInMillis() / 1000L;
+        this.timestamp = add(timestamp, ts);
         return this;
     }
 
+    /**
+     * Add the time span to the timestamp, the part less than a second is
+     * truncated.
+     *
+     * @param timestamp Unix timestamp.
+     * @param ts        Time Span.
+     * @return Unix timestamp after added.
+     */
+    static long add(long timestamp, TimeSpan ts) {
+        return timestamp + ts.TotalSeconds();
+    }
+
+    /**
+     * Subtract the time span from the timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @param ts        Time Span.
+     * @return Unix timestamp after subtracted.
+     * @see #add(long, TimeSpan)
+     */
+    static long minus(long timestamp, TimeSpan ts) {
+        return timestamp - ts.TotalSeconds();
+    }
+
     /**
      * Returns a new {@code DateTime} that adds the specified number
      * of days to the value of this instance.
@@ -247,16 +356,11 @@ public class DateTime implements
      * days represented by value.
      */
     public DateTime AddDays(double days) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
         // Calculate the times.
         var seconds = (int) (days * 24 * 60 * 60);
 
         // Add time
-        calendar.add(Calendar.SECOND, seconds);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        timestamp += seconds;
         return this;
     }
 
@@ -271,16 +375,10 @@ public class DateTime implements
      * represented by value.
      */
     public DateTime AddHours(double hours) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
         // Calculate the seconds to be added.
         var seconds = (int) (hours * 60 * 60);
 
-        // Add to the calendar instance.
-        calendar.add(Calendar.SECOND, seconds);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        timestamp += seconds;
         return this;
     }
 
@@ -296,15 +394,9 @@ public class DateTime implements
      * represented by value.
      */
     public DateTime AddMinutes(double minutes) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
         var seconds = (int) (minutes * 60);
 
-        // Add to the calendar instance.
-        calendar.add(Calendar.SECOND, seconds);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        timestamp += seconds;
         return this;
     }
 
@@ -318,13 +410,8 @@ public class DateTime implements
      * represented by this instance and months.
      */
     public DateTime AddMonths(int months) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
-        // Add to the calendar instance.
-        calendar.add(Calendar.MONTH, months);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        // The day of month is pinned to the end of the result month.
+        timestamp = CivilCalendar.plusMonths(CivilCalendar.defaultZone(), timestamp, months);
         return this;
     }
 
@@ -339,13 +426,7 @@ public class DateTime implements
      * represented by value.
      */
     public DateTime AddSeconds(int seconds) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
-        // Add to the calendar instance.
-        calendar.add(Calendar.SECOND, seconds);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        timestamp += seconds;
         return this;
     }
 
@@ -360,30 +441,20 @@ public class DateTime implements
      * represented by value.
      */
     public DateTime AddYears(int years) {
-        // Set the current time to the time of the current instance.
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-
-        // Add to the calendar instance.
-        calendar.add(Calendar.YEAR, years);
-        timestamp = calendar.getTimeInMillis() / 1000L;
+        // A year is 12 months, the 29th of February is pinned to the 28th.
+        timestamp = CivilCalendar.plusMonths(CivilCalendar.defaultZone(), timestamp, years * 12L);
         return this;
     }
 
     /**
-     * Minus the specific time to the {@code DateTime} instance.
+     * Minus the specific time to the {@code DateTime} instance, the span
+     * is an exact number of seconds like in {@link #Add(TimeSpan)}.
      *
      * @param ts Time Span.
      * @return The time after added this {@code TimeSpan}.
      */
     public DateTime Minus(TimeSpan ts) {
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(timestamp * 1000L);
-        calendar.add(Calendar.DATE, -ts.getDays());
-        calendar.add(Calendar.HOUR, -ts.getHours());
-        calendar.add(Calendar.MINUTE, -ts.getMinutes());
-        calendar.add(Calendar.SECOND, -ts.getSeconds());
-        this.timestamp = calendar.getTimeInMillis() / 1000L;
+        this.timestamp = minus(timestamp, ts);
         return this;
     }
 
@@ -391,29 +462,26 @@ public class DateTime implements
      * A {@code DateTime} instance minus another instance will
      * return a {@code TimeSpan} instance, this
      * {@code TimeSpan} instance will tell you how many days,
-     * hours, minutes, seconds and milliseconds between them.
+     * hours, minutes and seconds between them.
      *
      * @param time Another {@code DateTime} instance
      * @return A {@code TimeSpan} instance which will tell
-     * you how many days, hours, minutes, seconds and
-     * milliseconds between them.
+     * you how many days, hours, minutes and seconds
+     * between them.
      */
     public TimeSpan Minus(DateTime time) {
-        var span = new TimeSpan();
-
-        var seconds = this.timestamp - time.timestamp;
-        span.setSeconds((int) seconds);
-
-        return span;
+        return TimeSpan.FromSeconds(this.timestamp - time.timestamp);
     }
 
     /**
-     * Set pattern for this datetime.
+     * Set pattern for this datetime. The pattern is not a field of the
+     * instance, a pattern other than the default one is kept aside until
+     * the instance is collected.
      *
      * @param pattern The formatted String.
      */
     public DateTime Pattern(String pattern) {
-        this.pattern = pattern;
+        PatternOverrides.set(this, pattern);
         return this;
     }
 
@@ -423,7 +491,7 @@ public class DateTime implements
      * @return The pattern String.
      */
     public String Pattern() {
-        return this.pattern;
+        return PatternOverrides.get(this);
     }
 
     /**
@@ -456,9 +524,7 @@ public class DateTime implements
      */
     @Override
     public String toString() {
-        final var formatter = new SimpleDateFormat(pattern);
-        final var date = new Date(timestamp * 1000L);
-        return formatter.format(date);
+        return DateTimeFormatter.Of(Pattern()).Format(timestamp);
     }
 
     /**
@@ -468,9 +534,82 @@ public class DateTime implements
      * @return A string time expression.
      */
     public String ToString() {
-        final var formatter = new SimpleDateFormat(pattern);
-        final var date = new Date(timestamp * 1000L);
-        return formatter.format(date);
+        return DateTimeFormatter.Of(Pattern()).Format(timestamp);
+    }
+
+    /**
+     * Convert the timestamp to a string time expression in the specified
+     * format and the time zone.
+     *
+     * @param zone The time zone.
+     * @return A string time expression.
+     * @see DateTimeFormatter#WithZone(DateTimeZone)
+     */
+    public String ToString(DateTimeZone zone) {
+        return DateTimeFormatter.Of(Pattern(), zone).Format(timestamp);
+    }
+
+    /**
+     * Append the string time expression in the specified format and the
+     * time zone to the builder.
+     *
+     * @param out  The builder.
+     * @param zone The time zone.
+     * @return The builder.
+     */
+    public StringBuilder FormatTo(StringBuilder out, DateTimeZone zone) {
+        return DateTimeFormatter.Of(Pattern(), zone).FormatTo(timestamp, out);
+    }
+
+    /**
+     * Append the string time expression in the specified format to the
+     * builder without creating a {@code String}.
+     *
+     * @param out The builder.
+     * @return The builder.
+     * @see DateTimeFormatter#FormatTo(long, StringBuilder)
+     */
+    public StringBuilder FormatTo(StringBuilder out) {
+        return DateTimeFormatter.Of(Pattern()).FormatTo(timestamp, out);
+    }
+
+    /**
+     * Append the string time expression in the specified format to the
+     * {@code Appendable} without creating a {@code String}.
+     *
+     * @param out The {@code Appendable}.
+     * @param <A> The type of the {@code Appendable}.
+     * @return The {@code Appendable}.
+     * @throws IOException If an I/O error occurs.
+     * @see DateTimeFormatter#FormatTo(long, Appendable)
+     */
+    public <A extends Appendable> A FormatTo(A out) throws IOException {
+        return DateTimeFormatter.Of(Pattern()).FormatTo(timestamp, out);
+    }
+
+    /**
+     * Write the string time expression in the specified format to the
+     * byte array as US-ASCII.
+     *
+     * @param dst    The byte array.
+     * @param offset The index to start writing at.
+     * @return The count of bytes written.
+     * @see DateTimeFormatter#FormatTo(long, byte[], int)
+     */
+    public int FormatTo(byte[] dst, int offset) {
+        return DateTimeFormatter.Of(Pattern()).FormatTo(timestamp, dst, offset);
+    }
+
+    /**
+     * Write the string time expression in the specified format to the
+     * buffer as US-ASCII.
+     *
+     * @param dst The buffer.
+     * @return The buffer.
+     * @see DateTimeFormatter#FormatTo(long, ByteBuffer)
+     */
+    public ByteBuffer FormatTo(ByteBuffer dst) {
+        return DateTimeFormatter.Of(Pattern()).FormatTo(timestamp, dst);
     }
 
     /**
@@ -531,6 +670,77 @@ public class DateTime implements
         return Objects.hash(timestamp);
     }
 
+    /**
+     * Converts the string representation of a date and time in the
+     * default pattern {@code yyyy-MM-dd HH:mm:ss} to {@code DateTime}.
+     *
+     * @param text A string time expression.
+     * @return A {@code DateTime} instance.
+     * @throws IllegalArgumentException If the text does not match the
+     *                                  pattern.
+     * @throws TimeOutRangeException    If a field is out of range.
+     */
+    public static DateTime Parse(CharSequence text) {
+        return Parse(text, DateTimeFormatter.DEFAULT_PATTERN);
+    }
+
+    /**
+     * Converts the string representation of a date and time in the
+     * specified pattern to {@code DateTime}, the pattern is kept by the
+     * result.
+     *
+     * @param text    A string time expression.
+     * @param pattern The pattern of the text.
+     * @return A {@code DateTime} instance.
+     * @throws IllegalArgumentException If the text does not match the
+     *                                  pattern.
+     * @throws TimeOutRangeException    If a field is out of range.
+     * @see DateTimeFormatter#Parse(CharSequence)
+     */
+    public static DateTime Parse(CharSequence text, String pattern) {
+        return new DateTime(DateTimeFormatter.Of(pattern).Parse(text)).Pattern(pattern);
+    }
+
+    /**
+     * Converts the string representation of a date and time in the
+     * default pattern to {@code DateTime}.
+     *
+     * @param text A string time expression.
+     * @return A {@code DateTime} instance, or {@code null} if the text is
+     * invalid.
+     */
+    public static DateTime TryParse(CharSequence text) {
+        return TryParse(text, DateTimeFormatter.DEFAULT_PATTERN);
+    }
+
+    /**
+     * Converts the string representation of a date and time in the
+     * specified pattern to {@code DateTime}.
+     *
+     * @param text    A string time expression.
+     * @param pattern The pattern of the text.
+     * @return A {@code DateTime} instance, or {@code null} if the text is
+     * invalid.
+     */
+    public static DateTime TryParse(CharSequence text, String pattern) {
+        return DateTimeFormatter.Of(pattern).TryParse(text);
+    }
+
+    /**
+     * Converts an ISO 8601 date time, like {@code 2021-12-11},
+     * {@code 2021-12-11T10:20:30} or {@code 2021-12-11T10:20:30.5+08:00},
+     * to {@code DateTime}.
+     *
+     * @param text An ISO 8601 date time.
+     * @return A {@code DateTime} instance.
+     * @throws IllegalArgumentException If the text is not ISO 8601.
+     * @throws TimeOutRangeException    If a field is out of range.
+     * @see DateTimeFormatter#Iso()
+     */
+    public static DateTime ParseIso(CharSequence text) {
+        return new DateTime(DateTimeFormatter.Iso().Parse(text));
+    }
+
     /**
      * Get the current Date and Time.
      *
@@ -541,16 +751,320 @@ public class DateTime implements
         return new DateTime();
     }
 
+    /**
+     * Set the source of the current time for {@link #Now()}, the no-arg
+     * constructor and {@link ImmutableDateTime#Now()}.
+     *
+     * @param clock The clock, such as a {@link TickingClock}.
+     * @see Clock#SYSTEM
+     */
+    public static void Clock(Clock clock) {
+        DateTime.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Get the source of the current time.
+     *
+     * @return The clock.
+     */
+    public static Clock Clock() {
+        return clock;
+    }
+
+    /**
+     * Get the lazy sequence of the times from the start until the end by a
+     * fixed step.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param step  The step, a positive count of seconds.
+     * @return A sequence.
+     * @see DateTimeSequence#Of(DateTime, DateTime, TimeSpan)
+     */
+    public static DateTimeSequence Range(DateTime start, DateTime end, TimeSpan step) {
+        return DateTimeSequence.Of(start, end, step);
+    }
+
+    /**
+     * Get the lazy sequence of the times from the start until the end by a
+     * calendar unit.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param unit  The unit of a step.
+     * @return A sequence.
+     * @see DateTimeSequence#Of(DateTime, DateTime, DateTimeUnit)
+     */
+    public static DateTimeSequence Range(DateTime start, DateTime end, DateTimeUnit unit) {
+        return DateTimeSequence.Of(start, end, unit);
+    }
+
+    /**
+     * Get the local epoch day in the time zone.
+     */
+    private long epochDay(DateTimeZone zone) {
+        return Math.floorDiv(timestamp + CivilCalendar.offset(zone, timestamp), CivilCalendar.SECONDS_PER_DAY);
+    }
+
+    /**
+     * Get the packed local date in the time zone.
+     *
+     * @see CivilCalendar#pack(long, int, int)
+     */
+    private long date(DateTimeZone zone) {
+        return CivilCalendar.toDate(epochDay(zone));
+    }
+
+    /**
+     * Get the second of day of the local time in the time zone.
+     */
+    private int secondOfDay(DateTimeZone zone) {
+        var local = timestamp + CivilCalendar.offset(zone, timestamp);
+        return (int) Math.floorMod(local, CivilCalendar.SECONDS_PER_DAY);
+    }
+
+    /**
+     * Get the year.
+     *
+     * @return The year.
+     * @see #Fields()
+     */
+    public int Year() {
+        return Year(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the month.
+     *
+     * @return The month (1 through 12).
+     * @see #Fields()
+     */
+    public int Month() {
+        return Month(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the day of month.
+     *
+     * @return The day (1 through the number of days in month).
+     * @see #Fields()
+     */
+    public int Day() {
+        return Day(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the hour.
+     *
+     * @return The hour (0 through 23).
+     * @see #Fields()
+     */
+    public int Hour() {
+        return Hour(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the minute.
+     *
+     * @return The minute (0 through 59).
+     * @see #Fields()
+     */
+    public int Minute() {
+        return Minute(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the second.
+     *
+     * @return The second (0 through 59).
+     * @see #Fields()
+     */
+    public int Second() {
+        return Second(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the day of week, numbered like {@code Calendar.DAY_OF_WEEK}.
+     *
+     * @return The day of week (1 for Sunday through 7 for Saturday).
+     * @see #Fields()
+     */
+    public int DayOfWeek() {
+        return DateTimeFormatter.dayOfWeek(epochDay(CivilCalendar.defaultZone()));
+    }
+
+    /**
+     * Get the day of year, the days skipped by the Gregorian cutover in
+     * 1582 are not counted.
+     *
+     * @return The day of year (1 through 366).
+     * @see #Fields()
+     */
+    public int DayOfYear() {
+        var epochDay = epochDay(CivilCalendar.defaultZone());
+        return (int) (epochDay - CivilCalendar.toEpochDay(CivilCalendar.year(CivilCalendar.toDate(epochDay)), 1, 1)) + 1;
+    }
+
+    /**
+     * Get the number of days in the month of this time.
+     *
+     * @return The number of days in month (28 through 31).
+     * @see #Fields()
+     */
+    public int DaysInMonth() {
+        var date = date(CivilCalendar.defaultZone());
+        return CivilCalendar.lengthOfMonth(CivilCalendar.year(date), CivilCalendar.month(date));
+    }
+
+    /**
+     * Get the fields of the local date and time in the default time zone,
+     * decomposed once. Use it to read several fields of this time, each
+     * accessor such as {@link #Year()} decomposes the time again.
+     *
+     * @return The fields.
+     */
+    public DateTimeFields Fields() {
+        return Fields(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the fields of the local date and time in the time zone,
+     * decomposed once.
+     *
+     * @param zone The time zone.
+     * @return The fields.
+     */
+    public DateTimeFields Fields(DateTimeZone zone) {
+        return new DateTimeFields(timestamp, zone);
+    }
+
+    /**
+     * Get the year in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The year.
+     */
+    public int Year(DateTimeZone zone) {
+        return (int) CivilCalendar.year(date(zone));
+    }
+
+    /**
+     * Get the month in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The month (1 through 12).
+     */
+    public int Month(DateTimeZone zone) {
+        return CivilCalendar.month(date(zone));
+    }
+
+    /**
+     * Get the day of month in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The day (1 through the number of days in month).
+     */
+    public int Day(DateTimeZone zone) {
+        return CivilCalendar.day(date(zone));
+    }
+
+    /**
+     * Get the hour in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The hour (0 through 23).
+     */
+    public int Hour(DateTimeZone zone) {
+        return secondOfDay(zone) / 3600;
+    }
+
+    /**
+     * Get the minute in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The minute (0 through 59).
+     */
+    public int Minute(DateTimeZone zone) {
+        return secondOfDay(zone) / 60 % 60;
+    }
+
+    /**
+     * Get the second in the time zone.
+     *
+     * @param zone The time zone.
+     * @return The second (0 through 59).
+     */
+    public int Second(DateTimeZone zone) {
+        return secondOfDay(zone) % 60;
+    }
+
+    /**
+     * Truncate this time to the start of the unit in the default time
+     * zone, for example 10:25:30 is truncated to 10:00:00 by
+     * {@code DateTimeUnit.HOUR}.
+     *
+     * @param unit The unit.
+     * @return This instance.
+     * @see Bucketer#Floor(long)
+     */
+    public DateTime Floor(DateTimeUnit unit) {
+        timestamp = Bucketer.Of(unit).Floor(timestamp);
+        return this;
+    }
+
+    /**
+     * Round this time up to the start of the unit in the default time
+     * zone, a time which is the start of the unit is left as is.
+     *
+     * @param unit The unit.
+     * @return This instance.
+     * @see Bucketer#Ceil(long)
+     */
+    public DateTime Ceil(DateTimeUnit unit) {
+        timestamp = Bucketer.Of(unit).Ceil(timestamp);
+        return this;
+    }
+
+    /**
+     * Round this time to the nearest start of the unit in the default
+     * time zone, a time in the middle of the unit is rounded up.
+     *
+     * @param unit The unit.
+     * @return This instance.
+     * @see Bucketer#Round(long)
+     */
+    public DateTime Round(DateTimeUnit unit) {
+        timestamp = Bucketer.Of(unit).Round(timestamp);
+        return this;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        DateTimeCodec.write(this, out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        DateTimeCodec.read(this, in);
+    }
+
     /**
      * Returns an indication whether the specified year is a leap year.
      *
      * @return An indication whether the specified year is a leap year.
      */
     public boolean IsLeapYear() {
-        var calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(Timestamp() * 1000L);
-        var year = calendar.get(Calendar.YEAR);
-        return ((year % 4 == 0 && year % 100 != 0) || year % 400 == 0);
+        return CivilCalendar.isGregorianLeapYear(Year());
+    }
+
+    /**
+     * Get an immutable copy of this instance, which can be shared across
+     * threads and cached without copying.
+     *
+     * @return An {@code ImmutableDateTime} of the same time and pattern.
+     */
+    public ImmutableDateTime ToImmutable() {
+        return ImmutableDateTime.Of(timestamp).Pattern(Pattern());
     }
 
     /**
@@ -562,6 +1076,73 @@ public class DateTime implements
         return new Date(this.Timestamp() * 1000L);
     }
 
+    /**
+     * Convert {@code DateTime} instance to {@code Instant} instance.
+     *
+     * @return {@code Instant} instance.
+     */
+    public Instant ToInstant() {
+        return Instant.ofEpochSecond(timestamp);
+    }
+
+    /**
+     * Convert {@code DateTime} instance to {@code LocalDateTime} instance
+     * in the default time zone.
+     *
+     * @return {@code LocalDateTime} instance.
+     */
+    public LocalDateTime ToLocalDateTime() {
+        return ToLocalDateTime(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Convert {@code DateTime} instance to {@code LocalDateTime} instance
+     * in the time zone. The fields are of the proleptic Gregorian calendar
+     * of {@code java.time}, so they differ from {@link #Year(DateTimeZone)}
+     * and the other accessors for the times before 1582-10-15.
+     *
+     * @param zone The time zone.
+     * @return {@code LocalDateTime} instance.
+     */
+    public LocalDateTime ToLocalDateTime(DateTimeZone zone) {
+        return LocalDateTime.ofEpochSecond(timestamp, 0,
+                ZoneOffset.ofTotalSeconds(CivilCalendar.offset(zone, timestamp)));
+    }
+
+    /**
+     * Convert {@code DateTime} instance to {@code OffsetDateTime} instance
+     * in the time zone.
+     *
+     * @param zone The time zone.
+     * @return {@code OffsetDateTime} instance.
+     */
+    public OffsetDateTime ToOffsetDateTime(DateTimeZone zone) {
+        var offset = ZoneOffset.ofTotalSeconds(CivilCalendar.offset(zone, timestamp));
+        return OffsetDateTime.of(LocalDateTime.ofEpochSecond(timestamp, 0, offset), offset);
+    }
+
+    /**
+     * Convert {@code DateTime} instance to {@code ZonedDateTime} instance
+     * in the default time zone.
+     *
+     * @return {@code ZonedDateTime} instance.
+     */
+    public ZonedDateTime ToZonedDateTime() {
+        return ToZonedDateTime(CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Convert {@code DateTime} instance to {@code ZonedDateTime} instance
+     * in the time zone.
+     *
+     * @param zone The time zone.
+     * @return {@code ZonedDateTime} instance.
+     */
+    public ZonedDateTime ToZonedDateTime(DateTimeZone zone) {
+        var offset = ZoneOffset.ofTotalSeconds(CivilCalendar.offset(zone, timestamp));
+        return ZonedDateTime.ofInstant(LocalDateTime.ofEpochSecond(timestamp, 0, offset), offset, zone.ToZoneId());
+    }
+
     /**
      * Convert {@code DateTime} instance to {@code Calendar} instance.
      *
@@ -0,0 +1,654 @@
+package cn.vorbote.time;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * {@code DateTimeArray} is a growable column of unix timestamps which
+ * are stored in a primitive {@code long[]}. A large number of times
+ * takes only 8 bytes per element, comparing to an object header, a
+ * {@code long} and a pattern reference of a {@code DateTime}, and bulk
+ * operations run over the primitive array without creating any object.
+ * <p>
+ * Operations which touch every element, such as {@link #Add(TimeSpan)},
+ * {@link #Truncate(TimeSpan)}, {@link #Sort()}, {@link #Min()} and
+ * {@link #Max()}, are split into fork-join tasks for large arrays if
+ * {@link #Parallel(boolean)} is turned on.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeArray {
+
+    /**
+     * The size from which the parallel path is used, smaller arrays are
+     * processed in the calling thread anyway.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values;
+
+    private int size;
+
+    /**
+     * Whether the elements are known to be in ascending order.
+     */
+    private boolean sorted = true;
+
+    private boolean parallel;
+
+    /**
+     * Create an empty array.
+     */
+    public DateTimeArray() {
+        this.values = EMPTY;
+    }
+
+    /**
+     * Create an empty array with the capacity.
+     *
+     * @param capacity The initial capacity.
+     */
+    public DateTimeArray(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.values = capacity == 0 ? EMPTY : new long[capacity];
+    }
+
+    /**
+     * Create an array of the timestamps, the timestamps are copied.
+     *
+     * @param timestamps Unix timestamps.
+     * @return A new array.
+     */
+    public static DateTimeArray Of(long... timestamps) {
+        var array = new DateTimeArray(timestamps.length);
+        return array.AppendAll(timestamps, 0, timestamps.length);
+    }
+
+    /**
+     * Create an array of the instants, the part of an instant less than a
+     * second is truncated towards the past.
+     *
+     * @param instants The instants.
+     * @return A new array.
+     */
+    public static DateTimeArray Of(Instant[] instants) {
+        var array = new DateTimeArray(instants.length);
+        return array.AppendAll(instants, 0, instants.length);
+    }
+
+    /**
+     * Create an array of the times.
+     *
+     * @param times The times.
+     * @return A new array.
+     */
+    public static DateTimeArray Of(Collection<DateTime> times) {
+        var array = new DateTimeArray(times.size());
+        for (var time : times) {
+            array.Append(time.Unix());
+        }
+        return array;
+    }
+
+    /**
+     * Get the count of the elements.
+     *
+     * @return The size.
+     */
+    public int Size() {
+        return size;
+    }
+
+    /**
+     * Returns an indication whether the array is empty.
+     *
+     * @return {@code true} if there is no element.
+     */
+    public boolean IsEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get whether the bulk operations run in parallel for large arrays.
+     *
+     * @return Whether the parallel path is turned on.
+     */
+    public boolean Parallel() {
+        return parallel;
+    }
+
+    /**
+     * Turn on or turn off the parallel path of the bulk operations. The
+     * parallel path uses the common fork-join pool and only applies to
+     * arrays of at least {@value #PARALLEL_THRESHOLD} elements.
+     *
+     * @param parallel Whether to use the parallel path.
+     * @return This array.
+     */
+    public DateTimeArray Parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Get the timestamp at the index.
+     *
+     * @param index The index.
+     * @return Unix timestamp.
+     */
+    public long Unix(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Get the time at the index as a new {@code DateTime}.
+     *
+     * @param index The index.
+     * @return A new {@code DateTime} instance.
+     */
+    public DateTime Get(int index) {
+        return new DateTime(Unix(index));
+    }
+
+    /**
+     * Replace the timestamp at the index.
+     *
+     * @param index     The index.
+     * @param timestamp Unix timestamp.
+     * @return This array.
+     */
+    public DateTimeArray Set(int index, long timestamp) {
+        checkIndex(index);
+        values[index] = timestamp;
+        sorted = false;
+        return this;
+    }
+
+    /**
+     * Append a timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @return This array.
+     */
+    public DateTimeArray Append(long timestamp) {
+        if (size == values.length) {
+            grow(size + 1);
+        }
+        if (size > 0 && values[size - 1] > timestamp) {
+            sorted = false;
+        }
+        values[size++] = timestamp;
+        return this;
+    }
+
+    /**
+     * Append a time.
+     *
+     * @param time The time.
+     * @return This array.
+     */
+    public DateTimeArray Append(DateTime time) {
+        return Append(time.Unix());
+    }
+
+    /**
+     * Append a range of timestamps.
+     *
+     * @param timestamps Unix timestamps.
+     * @param offset     The index of the first timestamp to append.
+     * @param length     The count of timestamps to append.
+     * @return This array.
+     */
+    public DateTimeArray AppendAll(long[] timestamps, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > timestamps.length - length) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Range [%d, %d) out of bounds for length %d", offset, offset + length, timestamps.length));
+        }
+        if (size + length > values.length) {
+            grow(size + length);
+        }
+        System.arraycopy(timestamps, offset, values, size, length);
+        if (sorted) {
+            sorted = isSorted(size == 0 ? 0 : size - 1, size + length);
+        }
+        size += length;
+        return this;
+    }
+
+    /**
+     * Append a range of instants, the part of an instant less than a
+     * second is truncated towards the past.
+     *
+     * @param instants The instants.
+     * @param offset   The index of the first instant to append.
+     * @param length   The count of instants to append.
+     * @return This array.
+     */
+    public DateTimeArray AppendAll(Instant[] instants, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > instants.length - length) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Range [%d, %d) out of bounds for length %d", offset, offset + length, instants.length));
+        }
+        if (size + length > values.length) {
+            grow(size + length);
+        }
+        for (var i = 0; i < length; i++) {
+            values[size + i] = instants[offset + i].getEpochSecond();
+        }
+        if (sorted) {
+            sorted = isSorted(size == 0 ? 0 : size - 1, size + length);
+        }
+        size += length;
+        return this;
+    }
+
+    /**
+     * Remove all the elements, the capacity is kept.
+     *
+     * @return This array.
+     */
+    public DateTimeArray Clear() {
+        size = 0;
+        sorted = true;
+        return this;
+    }
+
+    /**
+     * Add the {@code TimeSpan} to every element, the same as
+     * {@link DateTime#Add(TimeSpan)} does.
+     *
+     * @param ts Time Span.
+     * @return This array.
+     */
+    public DateTimeArray Add(TimeSpan ts) {
+        return shift(ts.TotalSeconds());
+    }
+
+    /**
+     * Subtract the {@code TimeSpan} from every element, the same as
+     * {@link DateTime#Minus(TimeSpan)} does.
+     *
+     * @param ts Time Span.
+     * @return This array.
+     */
+    public DateTimeArray Minus(TimeSpan ts) {
+        return shift(-ts.TotalSeconds());
+    }
+
+    /**
+     * Add the seconds to every element.
+     *
+     * @param seconds A number of seconds.
+     * @return This array.
+     */
+    public DateTimeArray AddSeconds(long seconds) {
+        return shift(seconds);
+    }
+
+    /**
+     * Truncate every element to a multiple of the unit in local time of
+     * the default time zone, for example a unit of 1 day truncates the
+     * times to the start of their day and a unit of 15 minutes truncates
+     * the times to the quarter.
+     *
+     * @param unit The unit, should be positive.
+     * @return This array.
+     * @see Bucketer#Of(TimeSpan)
+     */
+    public DateTimeArray Truncate(TimeSpan unit) {
+        if (unit.TotalSeconds() == 1) {
+            return this;
+        }
+        return truncate(Bucketer.Of(unit));
+    }
+
+    /**
+     * Truncate every element to the start of the unit in the default
+     * time zone, such as the start of the month.
+     *
+     * @param unit The unit.
+     * @return This array.
+     * @see Bucketer#Of(DateTimeUnit)
+     */
+    public DateTimeArray Truncate(DateTimeUnit unit) {
+        if (unit == DateTimeUnit.SECOND) {
+            return this;
+        }
+        return truncate(Bucketer.Of(unit));
+    }
+
+    private DateTimeArray truncate(Bucketer bucketer) {
+        sorted = false;
+        if (parallel && size >= PARALLEL_THRESHOLD) {
+            return apply(bucketer::Floor);
+        }
+        bucketer.Floor(values, 0, size);
+        return this;
+    }
+
+    /**
+     * Sort the elements in ascending order.
+     *
+     * @return This array.
+     */
+    public DateTimeArray Sort() {
+        if (!sorted) {
+            if (parallel && size >= PARALLEL_THRESHOLD) {
+                Arrays.parallelSort(values, 0, size);
+            } else {
+                Arrays.sort(values, 0, size);
+            }
+            sorted = true;
+        }
+        return this;
+    }
+
+    /**
+     * Returns an indication whether the elements are in ascending order.
+     *
+     * @return {@code true} if the array is sorted.
+     */
+    public boolean IsSorted() {
+        if (!sorted && isSorted(0, size)) {
+            sorted = true;
+        }
+        return sorted;
+    }
+
+    /**
+     * Find the index of the first element which is not less than the
+     * timestamp. The array should be sorted.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The index, or {@code Size()} if all elements are less than
+     * the timestamp.
+     * @throws IllegalStateException If the array is not sorted.
+     */
+    public int LowerBound(long timestamp) {
+        requireSorted();
+        int low = 0, high = size;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (values[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the elements from {@code from} (inclusive) to {@code to}
+     * (exclusive) by binary search. The array should be sorted.
+     *
+     * @param from The start Unix timestamp, inclusive.
+     * @param to   The end Unix timestamp, exclusive.
+     * @return A new sorted array of the elements in the range.
+     * @throws IllegalStateException If the array is not sorted.
+     */
+    public DateTimeArray Range(long from, long to) {
+        var start = LowerBound(from);
+        var end = Math.max(start, LowerBound(to));
+        return new DateTimeArray(end - start).AppendAll(values, start, end - start);
+    }
+
+    /**
+     * Get the elements from {@code from} (inclusive) to {@code to}
+     * (exclusive) by binary search. The array should be sorted.
+     *
+     * @param from The start time, inclusive.
+     * @param to   The end time, exclusive.
+     * @return A new sorted array of the elements in the range.
+     * @throws IllegalStateException If the array is not sorted.
+     */
+    public DateTimeArray Range(DateTime from, DateTime to) {
+        return Range(from.Unix(), to.Unix());
+    }
+
+    /**
+     * Get the smallest timestamp.
+     *
+     * @return Unix timestamp.
+     * @throws NoSuchElementException If the array is empty.
+     */
+    public long Min() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        if (sorted) {
+            return values[0];
+        }
+        if (parallel && size >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(values, 0, size).parallel().min().getAsLong();
+        }
+        var min = values[0];
+        for (var i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Get the largest timestamp.
+     *
+     * @return Unix timestamp.
+     * @throws NoSuchElementException If the array is empty.
+     */
+    public long Max() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        if (sorted) {
+            return values[size - 1];
+        }
+        if (parallel && size >= PARALLEL_THRESHOLD) {
+            return Arrays.stream(values, 0, size).parallel().max().getAsLong();
+        }
+        var max = values[0];
+        for (var i = 1; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Copy the timestamps into a new array.
+     *
+     * @return Unix timestamps.
+     */
+    public long[] ToArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Convert the timestamps into a new array of instants.
+     *
+     * @return The instants.
+     */
+    public Instant[] ToInstants() {
+        var instants = new Instant[size];
+        for (var i = 0; i < size; i++) {
+            instants[i] = Instant.ofEpochSecond(values[i]);
+        }
+        return instants;
+    }
+
+    /**
+     * Get a {@code List} view of this array. Every read creates a new
+     * {@code DateTime} and every write stores the timestamp of the time
+     * into this array.
+     *
+     * @return A list backed by this array.
+     */
+    public List<DateTime> ToList() {
+        return new View();
+    }
+
+    private final class View extends AbstractList<DateTime> implements RandomAccess {
+
+        @Override
+        public DateTime get(int index) {
+            return Get(index);
+        }
+
+        @Override
+        public DateTime set(int index, DateTime element) {
+            var previous = Get(index);
+            Set(index, element.Unix());
+            return previous;
+        }
+
+        @Override
+        public boolean add(DateTime element) {
+            Append(element);
+            modCount++;
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private DateTimeArray shift(long seconds) {
+        if (seconds == 0) {
+            return this;
+        }
+        if (parallel && size >= PARALLEL_THRESHOLD) {
+            return apply(timestamp -> timestamp + seconds);
+        }
+        var values = this.values;
+        for (int i = 0, n = size; i < n; i++) {
+            values[i] += seconds;
+        }
+        return this;
+    }
+
+    private DateTimeArray apply(LongUnaryOperator operator) {
+        if (parallel && size >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new Apply(values, 0, size, operator));
+        } else {
+            apply(values, 0, size, operator);
+        }
+        return this;
+    }
+
+    private static void apply(long[] values, int from, int to, LongUnaryOperator operator) {
+        for (var i = from; i < to; i++) {
+            values[i] = operator.applyAsLong(values[i]);
+        }
+    }
+
+    /**
+     * Applies the operator to a slice of the array, the slice is split in
+     * halves until it is smaller than the threshold.
+     */
+    private static final class Apply extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] values;
+
+        private final int from;
+
+        private final int to;
+
+        private final LongUnaryOperator operator;
+
+        Apply(long[] values, int from, int to, LongUnaryOperator operator) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.operator = operator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD / 4) {
+                apply(values, from, to, operator);
+                return;
+            }
+            var mid = (from + to) >>> 1;
+            invokeAll(new Apply(values, from, mid, operator), new Apply(values, mid, to, operator));
+        }
+    }
+
+    private boolean isSorted(int from, int to) {
+        for (var i = from + 1; i < to; i++) {
+            if (values[i - 1] > values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void requireSorted() {
+        if (!IsSorted()) {
+            throw new IllegalStateException("The array is not sorted, call Sort() first.");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        var capacity = Math.max(minCapacity, Math.max(16, values.length + (values.length >> 1)));
+        if (capacity < 0) {
+            capacity = Integer.MAX_VALUE - 8;
+        }
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DateTimeArray that = (DateTimeArray) o;
+        return Arrays.equals(values, 0, size, that.values, 0, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        var hash = 1;
+        for (var i = 0; i < size; i++) {
+            hash = 31 * hash + Long.hashCode(values[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder(size * 21 + 2).append('[');
+        var formatter = DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN);
+        for (var i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            formatter.FormatTo(values[i], builder);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,337 @@
+package cn.vorbote.time;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code DateTimeCodec} is the compact binary encoding of {@code DateTime}
+ * and {@code TimeSpan}. It is what {@code DateTime} and {@code TimeSpan}
+ * write in Java serialization, and it can be used on its own over a
+ * {@code ByteBuffer} by systems which do not use Java serialization.
+ * <p>
+ * An encoded value starts with a header byte, the high 4 bits hold the
+ * version of the encoding and the low 4 bits hold the pattern of a
+ * {@code DateTime}. The value follows as a zig-zag varint, so a timestamp
+ * of these decades takes 5 bytes and a small span takes 1 or 2 bytes.
+ * The default pattern and the well-known patterns of {@link #PATTERNS}
+ * are written as their index in the header, any other pattern follows
+ * the value as a varint length and its UTF-8 bytes, which are at most
+ * {@link #MAX_PATTERN_LENGTH}.
+ * <p>
+ * Once released, the layout of a version and the order of
+ * {@link #PATTERNS} never change, a new layout takes a new version.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeCodec {
+
+    /**
+     * The current version of the encoding.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The patterns which are written as their index, the first one is
+     * the default pattern.
+     */
+    static final String[] PATTERNS = {
+            DateTimeFormatter.DEFAULT_PATTERN,
+            "yyyy-MM-dd",
+            "HH:mm:ss",
+            "yyyy-MM-dd HH:mm",
+            "yyyy-MM-dd'T'HH:mm:ss",
+            "yyyy-MM-dd'T'HH:mm:ssXXX",
+            "yyyy/MM/dd HH:mm:ss",
+            "yyyy/MM/dd",
+            "yyyyMMddHHmmss",
+            "yyyyMMdd",
+            "HH:mm",
+    };
+
+    /**
+     * The pattern code of a {@code null} pattern.
+     */
+    private static final int NULL_PATTERN = 14;
+
+    /**
+     * The pattern code of a pattern which follows the value.
+     */
+    private static final int INLINE_PATTERN = 15;
+
+    /**
+     * The greatest count of UTF-8 bytes of a pattern which follows the
+     * value, so a corrupt or hostile length does not allocate more.
+     */
+    public static final int MAX_PATTERN_LENGTH = 1024;
+
+    private DateTimeCodec() {
+    }
+
+    private static int patternCode(String pattern) {
+        if (pattern == null) {
+            return NULL_PATTERN;
+        }
+        for (var i = 0; i < PATTERNS.length; i++) {
+            if (PATTERNS[i].equals(pattern)) {
+                return i;
+            }
+        }
+        return INLINE_PATTERN;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varLongSize(long value) {
+        // 7 bits per byte, and 1 byte for 0.
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + 6) / 7);
+    }
+
+    private static int version(int header) {
+        return header >>> 4;
+    }
+
+    /**
+     * Get the count of bytes of the encoded time.
+     *
+     * @param time The time.
+     * @return The count of bytes.
+     * @throws IllegalArgumentException If the pattern is longer than
+     *                                  {@link #MAX_PATTERN_LENGTH} bytes.
+     */
+    public static int Size(DateTime time) {
+        var size = 1 + varLongSize(zigZag(time.Timestamp()));
+        var pattern = time.Pattern();
+        if (patternCode(pattern) == INLINE_PATTERN) {
+            var length = patternBytes(pattern).length;
+            size += varLongSize(length) + length;
+        }
+        return size;
+    }
+
+    /**
+     * Get the count of bytes of the encoded span.
+     *
+     * @param ts The span.
+     * @return The count of bytes.
+     */
+    public static int Size(TimeSpan ts) {
+        return 1 + varLongSize(zigZag(ts.getTicks()));
+    }
+
+    /**
+     * Write the time into the buffer.
+     *
+     * @param time The time.
+     * @param dst  The buffer.
+     * @return The buffer.
+     * @throws java.nio.BufferOverflowException If the buffer has less
+     *                                          than {@link #Size(DateTime)}
+     *                                          bytes remaining.
+     * @throws IllegalArgumentException         If the pattern is longer
+     *                                          than
+     *                                          {@link #MAX_PATTERN_LENGTH}
+     *                                          bytes.
+     */
+    public static ByteBuffer Encode(DateTime time, ByteBuffer dst) {
+        var pattern = time.Pattern();
+        var code = patternCode(pattern);
+        dst.put((byte) (VERSION << 4 | code));
+        putVarLong(dst, zigZag(time.Timestamp()));
+        if (code == INLINE_PATTERN) {
+            var bytes = patternBytes(pattern);
+            putVarLong(dst, bytes.length);
+            dst.put(bytes);
+        }
+        return dst;
+    }
+
+    /**
+     * Write the span into the buffer.
+     *
+     * @param ts  The span.
+     * @param dst The buffer.
+     * @return The buffer.
+     * @throws java.nio.BufferOverflowException If the buffer has less
+     *                                          than {@link #Size(TimeSpan)}
+     *                                          bytes remaining.
+     */
+    public static ByteBuffer Encode(TimeSpan ts, ByteBuffer dst) {
+        dst.put((byte) (VERSION << 4));
+        putVarLong(dst, zigZag(ts.getTicks()));
+        return dst;
+    }
+
+    /**
+     * Read a time from the buffer.
+     *
+     * @param src The buffer.
+     * @return A new {@code DateTime} instance.
+     * @throws IllegalArgumentException If the bytes are not an encoded
+     *                                  time of a known version.
+     */
+    public static DateTime DecodeDateTime(ByteBuffer src) {
+        var header = src.get() & 0xFF;
+        if (version(header) != VERSION) {
+            throw new IllegalArgumentException("Unknown version of encoded DateTime: " + version(header));
+        }
+        var timestamp = unZigZag(getVarLong(src));
+        var code = header & 15;
+        String pattern;
+        if (code == INLINE_PATTERN) {
+            var bytes = new byte[length(getVarLong(src), src.remaining())];
+            src.get(bytes);
+            pattern = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+            pattern = pattern(code);
+        }
+        return new DateTime(timestamp).Pattern(pattern);
+    }
+
+    /**
+     * Read a span from the buffer.
+     *
+     * @param src The buffer.
+     * @return A new {@code TimeSpan} instance.
+     * @throws IllegalArgumentException If the bytes are not an encoded
+     *                                  span of a known version.
+     */
+    public static TimeSpan DecodeTimeSpan(ByteBuffer src) {
+        var header = src.get() & 0xFF;
+        if (version(header) != VERSION) {
+            throw new IllegalArgumentException("Unknown version of encoded TimeSpan: " + version(header));
+        }
+        return TimeSpan.FromTicks(unZigZag(getVarLong(src)));
+    }
+
+    private static String pattern(int code) {
+        if (code == NULL_PATTERN) {
+            return null;
+        }
+        if (code >= PATTERNS.length) {
+            throw new IllegalArgumentException("Unknown pattern code: " + code);
+        }
+        return PATTERNS[code];
+    }
+
+    private static byte[] patternBytes(String pattern) {
+        var bytes = pattern.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_PATTERN_LENGTH) {
+            throw new IllegalArgumentException(String.format("The length of pattern: %d is out of range of (0 ~ %d).",
+                    bytes.length, MAX_PATTERN_LENGTH));
+        }
+        return bytes;
+    }
+
+    /**
+     * Check the length of a pattern which is read, before the bytes are
+     * allocated.
+     *
+     * @param length    The length read.
+     * @param available The count of bytes which can follow.
+     */
+    private static int length(long length, int available) {
+        if (length < 0 || length > MAX_PATTERN_LENGTH) {
+            throw new IllegalArgumentException(String.format("The length of pattern: %d is out of range of (0 ~ %d).",
+                    length, MAX_PATTERN_LENGTH));
+        }
+        if (length > available) {
+            throw new IllegalArgumentException(String.format("The length of pattern: %d is more than the %d bytes remaining.",
+                    length, available));
+        }
+        return (int) length;
+    }
+
+    private static void putVarLong(ByteBuffer dst, long value) {
+        while ((value & ~0x7FL) != 0) {
+            dst.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        dst.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer src) {
+        var value = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = src.get();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        var value = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = in.readByte();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("Malformed varint.");
+    }
+
+    /**
+     * Write the time in Java serialization.
+     */
+    static void write(DateTime time, DataOutput out) throws IOException {
+        var bytes = new byte[Size(time)];
+        Encode(time, ByteBuffer.wrap(bytes));
+        out.write(bytes);
+    }
+
+    /**
+     * Read a time in Java serialization into the instance.
+     */
+    static void read(DateTime time, DataInput in) throws IOException {
+        var header = in.readUnsignedByte();
+        if (version(header) != VERSION) {
+            throw new InvalidObjectException("Unknown version of encoded DateTime: " + version(header));
+        }
+        time.Timestamp(unZigZag(readVarLong(in)));
+        var code = header & 15;
+        try {
+            if (code == INLINE_PATTERN) {
+                var bytes = new byte[length(readVarLong(in), MAX_PATTERN_LENGTH)];
+                in.readFully(bytes);
+                time.Pattern(new String(bytes, StandardCharsets.UTF_8));
+            } else {
+                time.Pattern(pattern(code));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException(e.getMessage());
+        }
+    }
+
+    /**
+     * Write the span in Java serialization.
+     */
+    static void write(TimeSpan ts, DataOutput out) throws IOException {
+        var bytes = new byte[Size(ts)];
+        Encode(ts, ByteBuffer.wrap(bytes));
+        out.write(bytes);
+    }
+
+    /**
+     * Read the ticks of a span in Java serialization.
+     */
+    static long readTicks(DataInput in) throws IOException {
+        var header = in.readUnsignedByte();
+        if (version(header) != VERSION) {
+            throw new InvalidObjectException("Unknown version of encoded TimeSpan: " + version(header));
+        }
+        return unZigZag(readVarLong(in));
+    }
+}
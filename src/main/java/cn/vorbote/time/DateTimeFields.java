@@ -0,0 +1,167 @@
+package cn.vorbote.time;
+
+import java.util.Objects;
+
+/**
+ * {@code DateTimeFields} is the local date and time of a timestamp in a
+ * time zone, decomposed once. The field accessors of {@code DateTime}
+ * each look up the offset and convert the date again, so a caller which
+ * reads several fields of a time reads them from
+ * {@link DateTime#Fields()} instead.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeFields {
+
+    /**
+     * The local epoch day.
+     */
+    private final long epochDay;
+
+    /**
+     * The packed local date.
+     *
+     * @see CivilCalendar#pack(long, int, int)
+     */
+    private final long date;
+
+    /**
+     * The second of day of the local time.
+     */
+    private final int secondOfDay;
+
+    /**
+     * The offset from UTC in seconds.
+     */
+    private final int offset;
+
+    /**
+     * Decompose the timestamp in the time zone.
+     *
+     * @param timestamp Unix timestamp.
+     * @param zone      The time zone.
+     */
+    DateTimeFields(long timestamp, DateTimeZone zone) {
+        this.offset = CivilCalendar.offset(zone, timestamp);
+        var local = timestamp + offset;
+        this.epochDay = Math.floorDiv(local, CivilCalendar.SECONDS_PER_DAY);
+        this.date = CivilCalendar.toDate(epochDay);
+        this.secondOfDay = (int) Math.floorMod(local, CivilCalendar.SECONDS_PER_DAY);
+    }
+
+    /**
+     * Get the year.
+     *
+     * @return The year.
+     */
+    public int Year() {
+        return (int) CivilCalendar.year(date);
+    }
+
+    /**
+     * Get the month.
+     *
+     * @return The month (1 through 12).
+     */
+    public int Month() {
+        return CivilCalendar.month(date);
+    }
+
+    /**
+     * Get the day of month.
+     *
+     * @return The day (1 through the number of days in month).
+     */
+    public int Day() {
+        return CivilCalendar.day(date);
+    }
+
+    /**
+     * Get the hour.
+     *
+     * @return The hour (0 through 23).
+     */
+    public int Hour() {
+        return secondOfDay / 3600;
+    }
+
+    /**
+     * Get the minute.
+     *
+     * @return The minute (0 through 59).
+     */
+    public int Minute() {
+        return secondOfDay / 60 % 60;
+    }
+
+    /**
+     * Get the second.
+     *
+     * @return The second (0 through 59).
+     */
+    public int Second() {
+        return secondOfDay % 60;
+    }
+
+    /**
+     * Get the day of week, numbered like {@code Calendar.DAY_OF_WEEK}.
+     *
+     * @return The day of week (1 for Sunday through 7 for Saturday).
+     */
+    public int DayOfWeek() {
+        return DateTimeFormatter.dayOfWeek(epochDay);
+    }
+
+    /**
+     * Get the day of year, the days skipped by the Gregorian cutover in
+     * 1582 are not counted.
+     *
+     * @return The day of year (1 through 366).
+     */
+    public int DayOfYear() {
+        return (int) (epochDay - CivilCalendar.toEpochDay(CivilCalendar.year(date), 1, 1)) + 1;
+    }
+
+    /**
+     * Get the number of days in the month.
+     *
+     * @return The number of days in month (28 through 31).
+     */
+    public int DaysInMonth() {
+        return CivilCalendar.lengthOfMonth(CivilCalendar.year(date), CivilCalendar.month(date));
+    }
+
+    /**
+     * Returns an indication whether the year is a leap year.
+     *
+     * @return An indication whether the year is a leap year.
+     * @see DateTime#IsLeapYear()
+     */
+    public boolean IsLeapYear() {
+        return CivilCalendar.isGregorianLeapYear(CivilCalendar.year(date));
+    }
+
+    /**
+     * Get the offset from UTC.
+     *
+     * @return The offset in seconds, including daylight saving time.
+     */
+    public int Offset() {
+        return offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DateTimeFields that = (DateTimeFields) o;
+        return epochDay == that.epochDay && secondOfDay == that.secondOfDay && offset == that.offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, secondOfDay, offset);
+    }
+}
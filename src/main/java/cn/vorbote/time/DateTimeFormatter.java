@@ -0,0 +1,1527 @@
+package cn.vorbote.time;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code DateTimeFormatter} is a compiled form of a
+ * {@code SimpleDateFormat} pattern. The pattern is parsed once, and the
+ * locale symbols it needs are loaded once, so formatting a
+ * {@code DateTime} is a plain loop over the compiled fields. The output
+ * is the same as {@code new SimpleDateFormat(pattern).format(date)} in
+ * the default locale and time zone, or in the zone given to
+ * {@link #WithZone(DateTimeZone)}.
+ * <p>
+ * Instances are immutable and thread-safe. Use {@link #Of(String)} to
+ * get the shared instance of a pattern.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeFormatter {
+
+    /**
+     * The pattern used by {@code DateTime} by default.
+     */
+    public static final String DEFAULT_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * The maximum count of formatters kept in the shared cache.
+     */
+    private static final int CACHE_SIZE = 256;
+
+    /**
+     * The shared formatters, keyed by pattern.
+     */
+    private static final ConcurrentHashMap<String, DateTimeFormatter> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The buffers to format into before the text is copied to an
+     * {@code Appendable} or a byte array.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * All pattern letters accepted by {@code SimpleDateFormat}.
+     */
+    private static final String PATTERN_LETTERS = "GyMdkHmsSEDFwWahKzZYuXL";
+
+    /**
+     * The languages whose default numbering system is ASCII digits in
+     * every country, see {@link #zeroDigit(Locale)}.
+     */
+    private static final Set<String> ASCII_DIGIT_LANGUAGES = Set.of("", "en", "zh", "ja", "ko", "de", "fr",
+            "es", "it", "pt", "nl", "ru", "uk", "pl", "cs", "sk", "sv", "da", "nb", "no", "fi", "is", "et", "lv",
+            "lt", "hu", "ro", "bg", "hr", "sr", "sl", "el", "tr", "he", "iw", "id", "in", "ms", "vi", "th", "ca",
+            "ga", "sq", "mk", "be", "kk");
+
+    /**
+     * Get the shared formatter of the pattern. A pattern is compiled at
+     * the first time it is requested and again when the default locale
+     * has changed, once the cache is full, new patterns are compiled every
+     * time but not cached.
+     *
+     * @param pattern The pattern, see {@code SimpleDateFormat}.
+     * @return The compiled formatter.
+     * @throws IllegalArgumentException If the pattern is invalid.
+     */
+    public static DateTimeFormatter Of(String pattern) {
+        var formatter = CACHE.get(pattern);
+        if (formatter != null && formatter.locale.equals(Locale.getDefault(Locale.Category.FORMAT))) {
+            // The default zone may have changed since the formatter was made.
+            return formatter.WithZone(CivilCalendar.defaultZone());
+        }
+
+        var compiled = new DateTimeFormatter(pattern);
+        if (formatter != null) {
+            // The default locale has changed since the formatter was made.
+            CACHE.replace(pattern, formatter, compiled);
+            return compiled;
+        }
+        if (CACHE.size() < CACHE_SIZE) {
+            var previous = CACHE.putIfAbsent(pattern, compiled);
+            if (previous != null && previous.locale.equals(compiled.locale)) {
+                return previous.WithZone(compiled.zone);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Get the ISO 8601 formatter. It formats like
+     * {@code 2021-12-11T10:20:30+08:00}, and parses a date
+     * {@code yyyy-MM-dd}, optionally followed by {@code T} or a space and
+     * a time {@code HH:mm[:ss[.fraction]]}, optionally followed by
+     * {@code Z} or an offset {@code +hh[[:]mm]}. A text without offset is
+     * read in the default time zone, and the fraction of second is
+     * ignored. The formatter does not depend on the default locale, it
+     * always uses the Gregorian calendar and ASCII digits.
+     *
+     * @return The ISO 8601 formatter.
+     */
+    public static DateTimeFormatter Iso() {
+        return IsoHolder.ISO.WithZone(CivilCalendar.defaultZone());
+    }
+
+    private static final class IsoHolder {
+        private static final DateTimeFormatter ISO = new DateTimeFormatter("yyyy-MM-dd'T'HH:mm:ssXXX", true);
+    }
+
+    /**
+     * A compiled part of the pattern, either a field or a literal text.
+     */
+    private static final class Token {
+
+        /**
+         * The pattern letter, or {@code 0} for literal text.
+         */
+        final char letter;
+
+        /**
+         * The count of repeated pattern letters.
+         */
+        final int count;
+
+        /**
+         * The literal text, or {@code null} for a field.
+         */
+        final String text;
+
+        /**
+         * The names of a text field, or {@code null} for a number field.
+         */
+        final String[] names;
+
+        /**
+         * The other form of the names which is accepted when parsing, like
+         * the short month names of a long month field.
+         */
+        final String[] alternates;
+
+        Token(char letter, int count, String text, String[] names, String[] alternates) {
+            this.letter = letter;
+            this.count = count;
+            this.text = text;
+            this.names = names;
+            this.alternates = alternates;
+        }
+    }
+
+    /**
+     * Per-thread buffers, reused by every call on the thread.
+     */
+    private static final class Scratch {
+
+        final StringBuilder builder = new StringBuilder(64);
+
+        char[] chars = new char[64];
+    }
+
+    /**
+     * The pattern.
+     */
+    private final String pattern;
+
+    /**
+     * The compiled tokens, or {@code null} if the pattern needs
+     * {@code SimpleDateFormat} to be formatted.
+     */
+    private final Token[] tokens;
+
+    /**
+     * The zero digit of the locale.
+     */
+    private final char zeroDigit;
+
+    /**
+     * The formatters for the patterns that are not compiled.
+     */
+    private final ThreadLocal<SimpleDateFormat> fallback;
+
+    /**
+     * Whether this formatter parses any form of ISO 8601 date time.
+     */
+    private final boolean iso;
+
+    /**
+     * The time zone to format and parse in.
+     */
+    private final DateTimeZone zone;
+
+    /**
+     * The locale the names are loaded from.
+     */
+    private final Locale locale;
+
+    /**
+     * The formatter in the default zone this formatter is copied from, or
+     * {@code null} if this is the one in the default zone.
+     */
+    private final DateTimeFormatter base;
+
+    /**
+     * The formatters of this pattern in other zones, only the formatter in
+     * the default zone has them.
+     */
+    private final ConcurrentHashMap<DateTimeZone, DateTimeFormatter> zoned;
+
+    /**
+     * Compile the pattern in the default locale.
+     *
+     * @param pattern The pattern.
+     * @throws IllegalArgumentException If the pattern is invalid.
+     */
+    private DateTimeFormatter(String pattern) {
+        this(pattern, false);
+    }
+
+    /**
+     * Compile the pattern in the default locale, or in the root locale if
+     * it is the ISO 8601 formatter.
+     *
+     * @param pattern The pattern.
+     * @param iso     Whether to parse any form of ISO 8601 date time.
+     * @throws IllegalArgumentException If the pattern is invalid.
+     */
+    private DateTimeFormatter(String pattern, boolean iso) {
+        this.pattern = pattern;
+        this.iso = iso;
+        this.zone = CivilCalendar.defaultZone();
+        this.base = null;
+        this.zoned = new ConcurrentHashMap<>();
+
+        var locale = iso ? Locale.ROOT : Locale.getDefault(Locale.Category.FORMAT);
+        this.locale = locale;
+        var tokens = compile(pattern, locale);
+        if (tokens != null && !isGregorian(locale)) {
+            // The fields of other calendar systems are not supported.
+            tokens = null;
+        }
+
+        this.tokens = tokens;
+        this.zeroDigit = tokens == null ? '0' : zeroDigit(locale);
+        this.fallback = tokens == null ? fallback(pattern, locale, zone) : null;
+    }
+
+    /**
+     * Copy the compiled pattern of the formatter to another zone.
+     *
+     * @param base The formatter in the default zone.
+     * @param zone The time zone.
+     */
+    private DateTimeFormatter(DateTimeFormatter base, DateTimeZone zone) {
+        this.pattern = base.pattern;
+        this.iso = base.iso;
+        this.zone = zone;
+        this.base = base;
+        this.zoned = null;
+        this.locale = base.locale;
+        this.tokens = base.tokens;
+        this.zeroDigit = base.zeroDigit;
+        this.fallback = tokens == null ? fallback(pattern, locale, zone) : null;
+    }
+
+    /**
+     * Returns an indication whether {@code Calendar.getInstance(locale)} is
+     * a {@code GregorianCalendar}, without loading the calendar. Only the
+     * Thai and the Japanese imperial calendar are chosen by the locale
+     * itself, the others are chosen by the {@code ca} extension.
+     *
+     * @param locale The locale.
+     * @return {@code true} if the calendar is Gregorian.
+     */
+    static boolean isGregorian(Locale locale) {
+        var type = locale.getUnicodeLocaleType("ca");
+        if ("gregory".equals(type)) {
+            return true;
+        }
+        if ("buddhist".equals(type) || "japanese".equals(type)) {
+            return false;
+        }
+        if ("th".equals(locale.getLanguage()) && "TH".equals(locale.getCountry())) {
+            return false;
+        }
+        return !("ja".equals(locale.getLanguage()) && "JP".equals(locale.getCountry())
+                && "JP".equals(locale.getVariant()));
+    }
+
+    /**
+     * Get the zero digit of the locale. The languages which are known to
+     * use ASCII digits are answered without loading
+     * {@code DecimalFormatSymbols}, so the default pattern is formatted
+     * without the {@code java.text} locale data in most locales.
+     *
+     * @param locale The locale.
+     * @return The zero digit, the same as
+     * {@code DecimalFormatSymbols.getInstance(locale).getZeroDigit()}.
+     */
+    static char zeroDigit(Locale locale) {
+        if (locale.getUnicodeLocaleType("nu") == null && ASCII_DIGIT_LANGUAGES.contains(locale.getLanguage())) {
+            return '0';
+        }
+        return DecimalFormatSymbols.getInstance(locale).getZeroDigit();
+    }
+
+    private static ThreadLocal<SimpleDateFormat> fallback(String pattern, Locale locale, DateTimeZone zone) {
+        return ThreadLocal.withInitial(() -> {
+            var formatter = new SimpleDateFormat(pattern, locale);
+            formatter.setTimeZone(zone.ToTimeZone());
+            return formatter;
+        });
+    }
+
+    /**
+     * Split the pattern to tokens.
+     *
+     * @param pattern The pattern.
+     * @param locale  The locale to load the names from.
+     * @return The tokens, or {@code null} if the pattern contains a field
+     * which is not compiled.
+     * @throws IllegalArgumentException If the pattern is invalid.
+     */
+    private static Token[] compile(String pattern, Locale locale) {
+        var tokens = new ArrayList<Token>();
+        var literal = new StringBuilder();
+        DateFormatSymbols symbols = null;
+        var compiled = true;
+
+        var length = pattern.length();
+        var i = 0;
+        while (i < length) {
+            var c = pattern.charAt(i);
+
+            // Quoted text, two single quotes stand for a single quote.
+            if (c == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+                var end = i + 1;
+                while (true) {
+                    if (end >= length) {
+                        throw new IllegalArgumentException("Unterminated quote");
+                    }
+                    if (pattern.charAt(end) == '\'') {
+                        if (end + 1 < length && pattern.charAt(end + 1) == '\'') {
+                            literal.append('\'');
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(pattern.charAt(end++));
+                }
+                i = end + 1;
+                continue;
+            }
+
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            if (PATTERN_LETTERS.indexOf(c) < 0) {
+                throw new IllegalArgumentException("Illegal pattern character '" + c + "'");
+            }
+
+            var count = 1;
+            while (i + count < length && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            i += count;
+
+            if (c == 'X' && count > 3) {
+                throw new IllegalArgumentException("invalid ISO 8601 format: length=" + count);
+            }
+
+            if (literal.length() > 0) {
+                tokens.add(new Token((char) 0, 0, literal.toString(), null, null));
+                literal.setLength(0);
+            }
+
+            String[] names = null;
+            String[] alternates = null;
+            switch (c) {
+                case 'G':
+                case 'E':
+                case 'a':
+                case 'M':
+                    if (c == 'M' && count < 3) {
+                        break;
+                    }
+                    if (symbols == null) {
+                        symbols = DateFormatSymbols.getInstance(locale);
+                    }
+                    if (c == 'G') {
+                        names = symbols.getEras();
+                    } else if (c == 'a') {
+                        names = symbols.getAmPmStrings();
+                    } else if (c == 'E') {
+                        names = count >= 4 ? symbols.getWeekdays() : symbols.getShortWeekdays();
+                        alternates = count >= 4 ? symbols.getShortWeekdays() : symbols.getWeekdays();
+                    } else {
+                        names = count >= 4 ? symbols.getMonths() : symbols.getShortMonths();
+                        alternates = count >= 4 ? symbols.getShortMonths() : symbols.getMonths();
+                    }
+                    break;
+                case 'L':
+                    if (count >= 3) {
+                        names = standaloneMonths(locale, count >= 4 ? Calendar.LONG_STANDALONE : Calendar.SHORT_STANDALONE);
+                        alternates = standaloneMonths(locale, count >= 4 ? Calendar.SHORT_STANDALONE : Calendar.LONG_STANDALONE);
+                    }
+                    break;
+                case 'w':
+                case 'W':
+                case 'Y':
+                case 'z':
+                    // Week fields depend on the week rules of the locale, and the
+                    // zone names depend on the zone data.
+                    compiled = false;
+                    break;
+                default:
+                    break;
+            }
+            tokens.add(new Token(c, count, null, names, alternates));
+        }
+
+        if (literal.length() > 0) {
+            tokens.add(new Token((char) 0, 0, literal.toString(), null, null));
+        }
+
+        // SimpleDateFormat writes the standalone month names, like "Okt"
+        // instead of "Okt." in German, when the month is the only field.
+        Token month = null;
+        var fields = 0;
+        for (var token : tokens) {
+            if (token.letter != 0) {
+                fields++;
+                month = token;
+            }
+        }
+        if (fields == 1 && month.letter == 'M' && month.count >= 3) {
+            var count = month.count;
+            tokens.set(tokens.indexOf(month), new Token('M', count, null,
+                    standaloneMonths(locale, count >= 4 ? Calendar.LONG_STANDALONE : Calendar.SHORT_STANDALONE),
+                    standaloneMonths(locale, count >= 4 ? Calendar.SHORT_STANDALONE : Calendar.LONG_STANDALONE)));
+        }
+        return compiled ? tokens.toArray(new Token[0]) : null;
+    }
+
+    /**
+     * Get the standalone month names of the locale from the calendar, like
+     * {@code SimpleDateFormat} does, a missing name is the name in the
+     * format form.
+     *
+     * @param locale The locale.
+     * @param style  {@code Calendar.SHORT_STANDALONE} or
+     *               {@code Calendar.LONG_STANDALONE}.
+     * @return The names from January to December.
+     */
+    private static String[] standaloneMonths(Locale locale, int style) {
+        var format = style == Calendar.LONG_STANDALONE ? Calendar.LONG_FORMAT : Calendar.SHORT_FORMAT;
+        var calendar = new GregorianCalendar(locale);
+        calendar.clear();
+        var names = new String[12];
+        for (var i = 0; i < names.length; i++) {
+            calendar.set(Calendar.MONTH, i);
+            var name = calendar.getDisplayName(Calendar.MONTH, style, locale);
+            names[i] = name != null ? name : calendar.getDisplayName(Calendar.MONTH, format, locale);
+        }
+        return names;
+    }
+
+    /**
+     * Get the shared formatter of the pattern in the time zone.
+     *
+     * @param pattern The pattern, see {@code SimpleDateFormat}.
+     * @param zone    The time zone.
+     * @return The compiled formatter.
+     * @throws IllegalArgumentException If the pattern is invalid.
+     * @see #WithZone(DateTimeZone)
+     */
+    public static DateTimeFormatter Of(String pattern, DateTimeZone zone) {
+        return Of(pattern).WithZone(zone);
+    }
+
+    /**
+     * Get a formatter of the same pattern which formats and parses in the
+     * time zone. The compiled pattern is shared, and the formatter is kept
+     * so the next call with the same zone returns the same instance.
+     *
+     * @param zone The time zone.
+     * @return The formatter in the time zone.
+     */
+    public DateTimeFormatter WithZone(DateTimeZone zone) {
+        if (this.zone.equals(zone)) {
+            return this;
+        }
+        if (base != null) {
+            return base.WithZone(zone);
+        }
+        var formatter = zoned.get(zone);
+        if (formatter == null) {
+            formatter = new DateTimeFormatter(this, zone);
+            var previous = zoned.putIfAbsent(zone, formatter);
+            if (previous != null) {
+                formatter = previous;
+            }
+        }
+        return formatter;
+    }
+
+    /**
+     * Get the pattern of this formatter.
+     *
+     * @return The pattern String.
+     */
+    public String Pattern() {
+        return pattern;
+    }
+
+    /**
+     * Get the time zone of this formatter.
+     *
+     * @return The time zone.
+     */
+    public DateTimeZone Zone() {
+        return zone;
+    }
+
+    /**
+     * Format the {@code DateTime} instance.
+     *
+     * @param time The time to be formatted.
+     * @return A string time expression.
+     */
+    public String Format(DateTime time) {
+        return Format(time.Unix());
+    }
+
+    /**
+     * Format the unix timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @return A string time expression.
+     */
+    public String Format(long timestamp) {
+        if (tokens == null) {
+            return fallback.get().format(new Date(timestamp * 1000L));
+        }
+        var builder = new StringBuilder(pattern.length() + 8);
+        print(builder, timestamp);
+        return builder.toString();
+    }
+
+    /**
+     * Append the formatted timestamp to the builder. Nothing is allocated
+     * as long as the builder has enough capacity.
+     *
+     * @param timestamp Unix timestamp.
+     * @param out       The builder.
+     * @return The builder.
+     */
+    public StringBuilder FormatTo(long timestamp, StringBuilder out) {
+        print(out, timestamp);
+        return out;
+    }
+
+    /**
+     * Append the formatted timestamp to the {@code Appendable}, such as a
+     * {@code Writer}. The text is formatted into a per-thread buffer
+     * first, so no garbage is created.
+     *
+     * @param timestamp Unix timestamp.
+     * @param out       The {@code Appendable}.
+     * @param <A>       The type of the {@code Appendable}.
+     * @return The {@code Appendable}.
+     * @throws IOException If an I/O error occurs.
+     */
+    public <A extends Appendable> A FormatTo(long timestamp, A out) throws IOException {
+        if (out instanceof StringBuilder) {
+            print((StringBuilder) out, timestamp);
+            return out;
+        }
+
+        var scratch = SCRATCH.get();
+        var builder = scratch.builder;
+        builder.setLength(0);
+        print(builder, timestamp);
+
+        var length = builder.length();
+        if (out instanceof Writer) {
+            if (scratch.chars.length < length) {
+                scratch.chars = new char[Math.max(length, scratch.chars.length * 2)];
+            }
+            builder.getChars(0, length, scratch.chars, 0);
+            ((Writer) out).write(scratch.chars, 0, length);
+        } else {
+            for (var i = 0; i < length; i++) {
+                out.append(builder.charAt(i));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Write the formatted timestamp to the byte array as US-ASCII, a
+     * character which is not in US-ASCII is written as {@code '?'}.
+     *
+     * @param timestamp Unix timestamp.
+     * @param dst       The byte array.
+     * @param offset    The index to start writing at.
+     * @return The count of bytes written.
+     * @throws IndexOutOfBoundsException If the array has no room for the
+     *                                   text, nothing is written then.
+     */
+    public int FormatTo(long timestamp, byte[] dst, int offset) {
+        var builder = format(timestamp);
+        var length = builder.length();
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        for (var i = 0; i < length; i++) {
+            dst[offset + i] = ascii(builder.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Write the formatted timestamp to the buffer as US-ASCII and advance
+     * its position, a character which is not in US-ASCII is written as
+     * {@code '?'}.
+     *
+     * @param timestamp Unix timestamp.
+     * @param dst       The buffer.
+     * @return The buffer.
+     * @throws BufferOverflowException If the buffer has no room for the
+     *                                 text, nothing is written then.
+     */
+    public ByteBuffer FormatTo(long timestamp, ByteBuffer dst) {
+        var builder = format(timestamp);
+        var length = builder.length();
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        var position = dst.position();
+        if (dst.hasArray()) {
+            var array = dst.array();
+            var start = dst.arrayOffset() + position;
+            for (var i = 0; i < length; i++) {
+                array[start + i] = ascii(builder.charAt(i));
+            }
+        } else {
+            for (var i = 0; i < length; i++) {
+                dst.put(position + i, ascii(builder.charAt(i)));
+            }
+        }
+        dst.position(position + length);
+        return dst;
+    }
+
+    /**
+     * Format the timestamp into the per-thread builder.
+     */
+    private StringBuilder format(long timestamp) {
+        var builder = SCRATCH.get().builder;
+        builder.setLength(0);
+        print(builder, timestamp);
+        return builder;
+    }
+
+    /**
+     * Convert a character to US-ASCII.
+     */
+    private static byte ascii(char c) {
+        return c < 0x80 ? (byte) c : (byte) '?';
+    }
+
+    /**
+     * Append the formatted timestamp to the builder.
+     *
+     * @param out       The builder.
+     * @param timestamp Unix timestamp.
+     */
+    void print(StringBuilder out, long timestamp) {
+        if (tokens == null) {
+            out.append(fallback.get().format(new Date(timestamp * 1000L)));
+            return;
+        }
+
+        var offset = CivilCalendar.offset(zone, timestamp);
+        var local = timestamp + offset;
+        var epochDay = Math.floorDiv(local, CivilCalendar.SECONDS_PER_DAY);
+        var secondOfDay = (int) Math.floorMod(local, CivilCalendar.SECONDS_PER_DAY);
+        var date = CivilCalendar.toDate(epochDay);
+        var year = CivilCalendar.year(date);
+
+        for (var token : tokens) {
+            var count = token.count;
+            switch (token.letter) {
+                case 0:
+                    out.append(token.text);
+                    break;
+                case 'G':
+                    out.append(token.names[year > 0 ? 1 : 0]);
+                    break;
+                case 'y': {
+                    // The year of era, which is always positive.
+                    var yearOfEra = year > 0 ? year : 1 - year;
+                    if (count == 2) {
+                        appendNumber(out, yearOfEra % 100, 2);
+                    } else {
+                        appendNumber(out, yearOfEra, count);
+                    }
+                    break;
+                }
+                case 'M':
+                case 'L':
+                    if (token.names != null) {
+                        out.append(token.names[CivilCalendar.month(date) - 1]);
+                    } else {
+                        appendNumber(out, CivilCalendar.month(date), count);
+                    }
+                    break;
+                case 'd':
+                    appendNumber(out, CivilCalendar.day(date), count);
+                    break;
+                case 'k': {
+                    var hour = secondOfDay / 3600;
+                    appendNumber(out, hour == 0 ? 24 : hour, count);
+                    break;
+                }
+                case 'H':
+                    appendNumber(out, secondOfDay / 3600, count);
+                    break;
+                case 'm':
+                    appendNumber(out, secondOfDay / 60 % 60, count);
+                    break;
+                case 's':
+                    appendNumber(out, secondOfDay % 60, count);
+                    break;
+                case 'S':
+                    // DateTime does not hold milliseconds.
+                    appendNumber(out, 0, count);
+                    break;
+                case 'E':
+                    out.append(token.names[dayOfWeek(epochDay)]);
+                    break;
+                case 'D':
+                    appendNumber(out, epochDay - CivilCalendar.toEpochDay(year, 1, 1) + 1, count);
+                    break;
+                case 'F': {
+                    // Count the days elapsed, the cutover month has a gap.
+                    var firstDay = CivilCalendar.toEpochDay(year, CivilCalendar.month(date), 1);
+                    appendNumber(out, (epochDay - firstDay) / 7 + 1, count);
+                    break;
+                }
+                case 'a':
+                    out.append(token.names[secondOfDay < 43200 ? 0 : 1]);
+                    break;
+                case 'h': {
+                    var hour = secondOfDay / 3600 % 12;
+                    appendNumber(out, hour == 0 ? 12 : hour, count);
+                    break;
+                }
+                case 'K':
+                    appendNumber(out, secondOfDay / 3600 % 12, count);
+                    break;
+                case 'u': {
+                    var dayOfWeek = dayOfWeek(epochDay);
+                    appendNumber(out, dayOfWeek == 1 ? 7 : dayOfWeek - 1, count);
+                    break;
+                }
+                case 'Z': {
+                    // RFC 822 time zone, like -0800.
+                    var minutes = offset / 60;
+                    out.append(minutes < 0 ? '-' : '+');
+                    minutes = Math.abs(minutes);
+                    appendNumber(out, minutes / 60 * 100 + minutes % 60, 4, '0');
+                    break;
+                }
+                case 'X': {
+                    // ISO 8601 time zone, like -08, -0800 or -08:00.
+                    if (offset == 0) {
+                        out.append('Z');
+                        break;
+                    }
+                    var minutes = offset / 60;
+                    out.append(minutes < 0 ? '-' : '+');
+                    minutes = Math.abs(minutes);
+                    appendNumber(out, minutes / 60, 2, '0');
+                    if (count == 1) {
+                        break;
+                    }
+                    if (count == 3) {
+                        out.append(':');
+                    }
+                    appendNumber(out, minutes % 60, 2, '0');
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unexpected pattern character '" + token.letter + "'");
+            }
+        }
+    }
+
+    /**
+     * Returned by the parse methods when the text is invalid and the
+     * caller asked for no exception.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * Parse the text to unix timestamp. The whole text has to match the
+     * pattern, and the date and time are checked like the constructors of
+     * {@code DateTime} do. The fields missing in the pattern default to
+     * 1970-01-01 00:00:00, and the text is read in the default time zone
+     * unless the pattern has an offset field.
+     *
+     * @param text The text.
+     * @return Unix timestamp.
+     * @throws IllegalArgumentException If the text does not match the
+     *                                  pattern.
+     * @throws cn.vorbote.commons.except.TimeOutRangeException If a field is out of range.
+     */
+    public long Parse(CharSequence text) {
+        return parse(text, 0, text.length(), true);
+    }
+
+    /**
+     * Parse a region of the text to unix timestamp, no substring is
+     * created.
+     *
+     * @param text  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return Unix timestamp.
+     * @throws IllegalArgumentException If the text does not match the
+     *                                  pattern.
+     * @throws cn.vorbote.commons.except.TimeOutRangeException If a field is out of range.
+     * @see #Parse(CharSequence)
+     */
+    public long Parse(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        return parse(text, start, end, true);
+    }
+
+    /**
+     * Parse the text to a {@code DateTime} which has the pattern of this
+     * formatter, or return {@code null} if the text is invalid.
+     *
+     * @param text The text.
+     * @return A {@code DateTime} instance, or {@code null}.
+     * @see #Parse(CharSequence)
+     */
+    public DateTime TryParse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        var timestamp = parse(text, 0, text.length(), false);
+        return timestamp == INVALID ? null : new DateTime(timestamp).Pattern(pattern);
+    }
+
+    /**
+     * Parse newline-delimited timestamps from the buffer into the array.
+     * Parsing stops when the buffer is consumed or the array is full, and
+     * the position of the buffer is moved after the last parsed line. An
+     * empty line is skipped, and a {@code "\r\n"} line ending is accepted.
+     * No object is created for a line.
+     *
+     * @param src    The buffer.
+     * @param dst    The array to store unix timestamps into.
+     * @param offset The index to start storing at.
+     * @return The count of timestamps stored.
+     * @throws LineParseException If a line does not match the pattern or
+     *                             has a field out of range, the position of
+     *                             the buffer is at the start of that line
+     *                             then, and the timestamps of the lines
+     *                             before it are stored.
+     */
+    public int ParseAll(CharBuffer src, long[] dst, int offset) {
+        var consumed = parseLines(src, src.remaining(), dst, offset);
+        var failure = consumed[2] == 0 ? null : lineFailure(src, consumed[0], consumed[1]);
+        src.position(src.position() + consumed[0]);
+        if (failure != null) {
+            throw failure;
+        }
+        return consumed[1];
+    }
+
+    /**
+     * Parse newline-delimited US-ASCII timestamps from the buffer into
+     * the array.
+     *
+     * @param src    The buffer.
+     * @param dst    The array to store unix timestamps into.
+     * @param offset The index to start storing at.
+     * @return The count of timestamps stored.
+     * @throws LineParseException If a line does not match the pattern or
+     *                             has a field out of range, the position of
+     *                             the buffer is at the start of that line
+     *                             then, and the timestamps of the lines
+     *                             before it are stored.
+     * @see #ParseAll(CharBuffer, long[], int)
+     */
+    public int ParseAll(ByteBuffer src, long[] dst, int offset) {
+        var text = new AsciiSequence(src);
+        var consumed = parseLines(text, text.length(), dst, offset);
+        var failure = consumed[2] == 0 ? null : lineFailure(text, consumed[0], consumed[1]);
+        src.position(src.position() + consumed[0]);
+        if (failure != null) {
+            throw failure;
+        }
+        return consumed[1];
+    }
+
+    /**
+     * Parse the lines of the text, until the text is consumed, the array
+     * is full or a line is invalid.
+     *
+     * @return The count of characters consumed, which is the start of the
+     * invalid line if any, the count of lines parsed, and 1 if the last
+     * line is invalid or 0 otherwise.
+     */
+    private int[] parseLines(CharSequence text, int length, long[] dst, int offset) {
+        Objects.checkIndex(offset, dst.length + 1);
+        var count = 0;
+        var start = 0;
+        while (start < length && offset + count < dst.length) {
+            var end = start;
+            while (end < length && text.charAt(end) != '\n') {
+                end++;
+            }
+            var lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            if (lineEnd > start) {
+                var timestamp = parse(text, start, lineEnd, false);
+                if (timestamp == INVALID) {
+                    return new int[]{start, count, 1};
+                }
+                dst[offset + count++] = timestamp;
+            }
+            start = Math.min(end + 1, length);
+        }
+        return new int[]{start, count, 0};
+    }
+
+    /**
+     * Get the exception of the invalid line which starts at the index, the
+     * line is parsed again to get the reason.
+     */
+    private LineParseException lineFailure(CharSequence text, int start, int parsed) {
+        var end = start;
+        while (end < text.length() && text.charAt(end) != '\n') {
+            end++;
+        }
+        var lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+        try {
+            parse(text, start, lineEnd, true);
+        } catch (RuntimeException e) {
+            return new LineParseException(e.getMessage() + " in the line at index " + start, parsed, e);
+        }
+        throw new IllegalStateException("The line at index " + start + " is valid when it is parsed again.");
+    }
+
+    /**
+     * A view of the remaining bytes of a buffer as US-ASCII characters.
+     */
+    private static final class AsciiSequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+
+        private final int base;
+
+        private final int length;
+
+        AsciiSequence(ByteBuffer buffer) {
+            this(buffer, buffer.position(), buffer.remaining());
+        }
+
+        private AsciiSequence(ByteBuffer buffer, int base, int length) {
+            this.buffer = buffer;
+            this.base = base;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(base + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            Objects.checkFromToIndex(start, end, length);
+            return new AsciiSequence(buffer, base + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            var builder = new StringBuilder(length);
+            for (var i = 0; i < length; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Parse the region of the text.
+     *
+     * @param strict Whether to throw an exception or return
+     *               {@link #INVALID} if the text is invalid.
+     * @return Unix timestamp, or {@link #INVALID}.
+     */
+    long parse(CharSequence text, int start, int end, boolean strict) {
+        if (iso) {
+            return parseIso(text, start, end, strict);
+        }
+        if (tokens == null) {
+            return parseFallback(text, start, end, strict);
+        }
+        if (DEFAULT_PATTERN.equals(pattern) && end - start == 19) {
+            var timestamp = parseDefault(text, start, strict);
+            if (timestamp != INVALID) {
+                return timestamp;
+            }
+        }
+
+        long year = 1970;
+        int month = 1, day = 1, hour = 0, minute = 0, second = 0;
+        int halfHour = -1, pm = 0, era = 1;
+        var offset = 0;
+        var hasOffset = false;
+        var twoDigitYear = false;
+
+        var position = start;
+        for (var i = 0; i < tokens.length; i++) {
+            var token = tokens[i];
+            if (token.letter == 0) {
+                var literal = token.text;
+                var length = literal.length();
+                if (end - position < length) {
+                    return fail(text, start, end, position, strict);
+                }
+                for (var j = 0; j < length; j++) {
+                    if (text.charAt(position + j) != literal.charAt(j)) {
+                        return fail(text, start, end, position + j, strict);
+                    }
+                }
+                position += length;
+                continue;
+            }
+
+            if (token.names != null) {
+                var length = 0;
+                var index = -1;
+                for (var form = 0; form < 2; form++) {
+                    var names = form == 0 ? token.names : token.alternates;
+                    if (names == null) {
+                        continue;
+                    }
+                    for (var j = 0; j < names.length; j++) {
+                        var name = names[j];
+                        if (name.length() > length && matches(text, position, end, name)) {
+                            length = name.length();
+                            index = j;
+                        }
+                    }
+                }
+                if (index < 0) {
+                    return fail(text, start, end, position, strict);
+                }
+                position += length;
+
+                switch (token.letter) {
+                    case 'G':
+                        era = index;
+                        break;
+                    case 'a':
+                        pm = index;
+                        break;
+                    case 'M':
+                    case 'L':
+                        month = index + 1;
+                        break;
+                    default:
+                        // The day of week is only checked to be a name.
+                        break;
+                }
+                continue;
+            }
+
+            if (token.letter == 'Z' || token.letter == 'X') {
+                if (position < end && token.letter == 'X' && text.charAt(position) == 'Z') {
+                    position++;
+                    hasOffset = true;
+                    offset = 0;
+                    continue;
+                }
+                var parsed = parseOffset(text, position, end);
+                if (parsed < 0) {
+                    return fail(text, start, end, position, strict);
+                }
+                position = (int) (parsed >>> 32);
+                offset = (int) parsed - OFFSET_BIAS;
+                hasOffset = true;
+                continue;
+            }
+
+            // The count of letters is the width when a number field is
+            // followed by another number field directly.
+            var next = i + 1 < tokens.length ? tokens[i + 1] : null;
+            var abutting = next != null && next.letter != 0 && next.names == null
+                    && next.letter != 'Z' && next.letter != 'X';
+            var limit = abutting ? Math.min(end, position + token.count) : end;
+
+            var digitsStart = position;
+            long value = 0;
+            while (position < limit) {
+                var digit = digit(text.charAt(position));
+                if (digit < 0 || value > (Long.MAX_VALUE - 9) / 10) {
+                    break;
+                }
+                value = value * 10 + digit;
+                position++;
+            }
+            if (position == digitsStart || value > Integer.MAX_VALUE) {
+                return fail(text, start, end, digitsStart, strict);
+            }
+
+            var number = (int) value;
+            switch (token.letter) {
+                case 'y':
+                    year = number;
+                    twoDigitYear = token.count <= 2 && position - digitsStart == 2;
+                    break;
+                case 'M':
+                case 'L':
+                    month = number;
+                    break;
+                case 'd':
+                    day = number;
+                    break;
+                case 'H':
+                    hour = number;
+                    break;
+                case 'k':
+                    hour = number == 24 ? 0 : number;
+                    break;
+                case 'h':
+                    halfHour = number == 12 ? 0 : number;
+                    break;
+                case 'K':
+                    halfHour = number;
+                    break;
+                case 'm':
+                    minute = number;
+                    break;
+                case 's':
+                    second = number;
+                    break;
+                default:
+                    // The other number fields do not decide the time.
+                    break;
+            }
+        }
+
+        if (position != end) {
+            return fail(text, start, end, position, strict);
+        }
+
+        if (halfHour >= 0) {
+            if (halfHour > 11) {
+                return outOfRange(year, month, day, 24, minute, second, strict);
+            }
+            hour = halfHour + pm * 12;
+        }
+        if (twoDigitYear) {
+            year = fullYear((int) year);
+        }
+        if (era == 0) {
+            year = 1 - year;
+        }
+
+        if (!DateTime.isValid(year, month, day, hour, minute, second)) {
+            return outOfRange(year, month, day, hour, minute, second, strict);
+        }
+        return toTimestamp(year, month, day, hour, minute, second, hasOffset, offset);
+    }
+
+    /**
+     * Parse the default pattern {@code yyyy-MM-dd HH:mm:ss} by fixed
+     * positions.
+     *
+     * @return Unix timestamp, or {@link #INVALID} if the text does not look
+     * like the pattern so the general parser should report it.
+     */
+    private long parseDefault(CharSequence text, int start, boolean strict) {
+        if (text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' || text.charAt(start + 10) != ' '
+                || text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':') {
+            return INVALID;
+        }
+        var year = number(text, start, 4);
+        var month = number(text, start + 5, 2);
+        var day = number(text, start + 8, 2);
+        var hour = number(text, start + 11, 2);
+        var minute = number(text, start + 14, 2);
+        var second = number(text, start + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return INVALID;
+        }
+        if (!DateTime.isValid(year, month, day, hour, minute, second)) {
+            return outOfRange(year, month, day, hour, minute, second, strict);
+        }
+        return toTimestamp(year, month, day, hour, minute, second, false, 0);
+    }
+
+    /**
+     * Parse an ISO 8601 date time.
+     *
+     * @see #Iso()
+     */
+    private long parseIso(CharSequence text, int start, int end, boolean strict) {
+        var position = start;
+
+        // The year has at least 4 digits.
+        long year = 0;
+        while (position < end && position - start < 9) {
+            var digit = digit(text.charAt(position));
+            if (digit < 0) {
+                break;
+            }
+            year = year * 10 + digit;
+            position++;
+        }
+        if (position - start < 4 || position + 6 > end || text.charAt(position) != '-'
+                || text.charAt(position + 3) != '-') {
+            return fail(text, start, end, position, strict);
+        }
+        var month = number(text, position + 1, 2);
+        var day = number(text, position + 4, 2);
+        if ((month | day) < 0) {
+            return fail(text, start, end, position + 1, strict);
+        }
+        position += 6;
+
+        int hour = 0, minute = 0, second = 0;
+        var offset = 0;
+        var hasOffset = false;
+        if (position < end) {
+            var separator = text.charAt(position);
+            if ((separator != 'T' && separator != 't' && separator != ' ') || position + 6 > end
+                    || text.charAt(position + 3) != ':') {
+                return fail(text, start, end, position, strict);
+            }
+            hour = number(text, position + 1, 2);
+            minute = number(text, position + 4, 2);
+            if ((hour | minute) < 0) {
+                return fail(text, start, end, position + 1, strict);
+            }
+            position += 6;
+
+            if (position < end && text.charAt(position) == ':') {
+                second = position + 3 <= end ? number(text, position + 1, 2) : -1;
+                if (second < 0) {
+                    return fail(text, start, end, position + 1, strict);
+                }
+                position += 3;
+
+                // The fraction of second is dropped.
+                if (position < end && (text.charAt(position) == '.' || text.charAt(position) == ',')) {
+                    var fractionStart = ++position;
+                    while (position < end && digit(text.charAt(position)) >= 0) {
+                        position++;
+                    }
+                    if (position == fractionStart) {
+                        return fail(text, start, end, position, strict);
+                    }
+                }
+            }
+
+            if (position < end) {
+                var c = text.charAt(position);
+                if (c == 'Z' || c == 'z') {
+                    position++;
+                } else {
+                    var parsed = parseOffset(text, position, end);
+                    if (parsed < 0) {
+                        return fail(text, start, end, position, strict);
+                    }
+                    position = (int) (parsed >>> 32);
+                    offset = (int) parsed - OFFSET_BIAS;
+                }
+                hasOffset = true;
+            }
+        }
+
+        if (position != end) {
+            return fail(text, start, end, position, strict);
+        }
+        if (!DateTime.isValid(year, month, day, hour, minute, second)) {
+            return outOfRange(year, month, day, hour, minute, second, strict);
+        }
+        return toTimestamp(year, month, day, hour, minute, second, hasOffset, offset);
+    }
+
+    /**
+     * Parse the text with {@code SimpleDateFormat} for the patterns that
+     * are not compiled.
+     */
+    private long parseFallback(CharSequence text, int start, int end, boolean strict) {
+        var formatter = fallback.get();
+        var source = text.subSequence(start, end).toString();
+        var position = new ParsePosition(0);
+        var date = formatter.parse(source, position);
+        if (date == null || position.getIndex() != source.length()) {
+            var index = date == null ? position.getErrorIndex() : position.getIndex();
+            return fail(text, start, end, start + Math.max(index, 0), strict);
+        }
+        return Math.floorDiv(date.getTime(), 1000L);
+    }
+
+    /**
+     * Added to a parsed offset so the packed result is never negative.
+     */
+    private static final int OFFSET_BIAS = 1 << 20;
+
+    /**
+     * Parse an offset {@code +hh}, {@code +hhmm} or {@code +hh:mm}.
+     *
+     * @return The index after the offset in the high 32 bits, and the
+     * offset in seconds plus {@link #OFFSET_BIAS} in the low 32 bits, or
+     * {@code -1} if it is not an offset.
+     */
+    private static long parseOffset(CharSequence text, int position, int end) {
+        if (position + 3 > end) {
+            return -1;
+        }
+        var sign = text.charAt(position);
+        if (sign != '+' && sign != '-') {
+            return -1;
+        }
+        var hours = number(text, position + 1, 2);
+        if (hours < 0 || hours > 23) {
+            return -1;
+        }
+        position += 3;
+
+        var minutes = 0;
+        var colon = position < end && text.charAt(position) == ':' ? 1 : 0;
+        if (position + colon + 2 <= end && digit(text.charAt(position + colon)) >= 0) {
+            minutes = number(text, position + colon, 2);
+            if (minutes < 0 || minutes > 59) {
+                return -1;
+            }
+            position += colon + 2;
+        }
+
+        var offset = (hours * 3600 + minutes * 60) * (sign == '-' ? -1 : 1);
+        return ((long) position << 32) | (offset + OFFSET_BIAS);
+    }
+
+    /**
+     * Convert the checked fields to unix timestamp.
+     */
+    private long toTimestamp(long year, int month, int day, int hour, int minute, int second,
+                             boolean hasOffset, int offset) {
+        if (hasOffset) {
+            return CivilCalendar.toEpochDay(year, month, day) * CivilCalendar.SECONDS_PER_DAY
+                    + hour * 3600L + minute * 60L + second - offset;
+        }
+        return CivilCalendar.toTimestamp(zone, year, month, day, hour, minute, second);
+    }
+
+    /**
+     * Read a 2-digit year as a year within 80 years before and 20 years
+     * after now, like {@code SimpleDateFormat} does.
+     */
+    private static long fullYear(int twoDigitYear) {
+        var now = System.currentTimeMillis() / 1000L;
+        var startYear = CivilCalendar.year(CivilCalendar.toDate(Math.floorDiv(now, CivilCalendar.SECONDS_PER_DAY))) - 80;
+        var year = startYear - Math.floorMod(startYear, 100) + twoDigitYear;
+        return year < startYear ? year + 100 : year;
+    }
+
+    /**
+     * Read a fixed count of digits.
+     *
+     * @return The number, or {@code -1} if a character is not a digit.
+     */
+    private static int number(CharSequence text, int position, int count) {
+        var value = 0;
+        for (var i = 0; i < count; i++) {
+            var digit = digit(text.charAt(position + i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Get the value of a decimal digit of any script.
+     *
+     * @return The value, or {@code -1} if the character is not a digit.
+     */
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        return c < 0x80 ? -1 : Character.digit(c, 10);
+    }
+
+    /**
+     * Whether the name is at the position, ignoring case.
+     */
+    private static boolean matches(CharSequence text, int position, int end, String name) {
+        var length = name.length();
+        if (length == 0 || end - position < length) {
+            return false;
+        }
+        for (var i = 0; i < length; i++) {
+            var a = text.charAt(position + i);
+            var b = name.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)
+                    && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Report a text which does not match the pattern.
+     */
+    private static long fail(CharSequence text, int start, int end, int position, boolean strict) {
+        if (!strict) {
+            return INVALID;
+        }
+        throw new IllegalArgumentException(String.format("Unparseable date: \"%s\" at index %d",
+                text.subSequence(start, end), position - start));
+    }
+
+    /**
+     * Report a field out of range, the exception is thrown by the same
+     * check of {@code DateTime}.
+     */
+    private static long outOfRange(long year, int month, int day, int hour, int minute, int second,
+                                   boolean strict) {
+        if (strict) {
+            DateTime.check(year, month, day, hour, minute, second);
+        }
+        return INVALID;
+    }
+
+    /**
+     * Get the day of week of the epoch day, 1 is Sunday and 7 is Saturday.
+     *
+     * @param epochDay The count of days since 1970-01-01.
+     * @return The day of week, the same as {@code Calendar.DAY_OF_WEEK}.
+     */
+    static int dayOfWeek(long epochDay) {
+        // 1970-01-01 is Thursday.
+        return (int) Math.floorMod(epochDay + 4, 7L) + 1;
+    }
+
+    /**
+     * Append a non-negative number padded with the zero digit of the
+     * locale to the width.
+     *
+     * @param out   The builder.
+     * @param value The number.
+     * @param width The minimum count of digits.
+     */
+    private void appendNumber(StringBuilder out, long value, int width) {
+        appendNumber(out, value, width, zeroDigit);
+    }
+
+    /**
+     * Append a non-negative number padded with zeros to the width.
+     *
+     * @param out   The builder.
+     * @param value The number.
+     * @param width The minimum count of digits.
+     * @param zero  The zero digit.
+     */
+    private static void appendNumber(StringBuilder out, long value, int width, char zero) {
+        var digits = 1;
+        for (var rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (var i = digits; i < width; i++) {
+            out.append(zero);
+        }
+
+        var start = out.length();
+        out.setLength(start + digits);
+        for (var i = start + digits - 1; i >= start; i--) {
+            out.setCharAt(i, (char) (zero + value % 10));
+            value /= 10;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,237 @@
+package cn.vorbote.time;
+
+import java.io.Serializable;
+
+/**
+ * {@code DateTimeRange} is an immutable range of time from a start to an
+ * end. The start is included and the end is excluded, so 2 ranges which
+ * meet at a time do not overlap, and a range whose start equals its end
+ * is empty and contains nothing.
+ *
+ * @author vorbote thills@vorbote.cn
+ * @see IntervalIndex
+ */
+public final class DateTimeRange implements Comparable<DateTimeRange>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long start;
+
+    private final long end;
+
+    private DateTimeRange(long start, long end) {
+        if (end < start) {
+            throw new IllegalArgumentException(String.format("The end: %d is before the start: %d.", end, start));
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Get a range of unix timestamps.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @return A range.
+     * @throws IllegalArgumentException If the end is before the start.
+     */
+    public static DateTimeRange Of(long start, long end) {
+        return new DateTimeRange(start, end);
+    }
+
+    /**
+     * Get a range of times.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @return A range.
+     * @throws IllegalArgumentException If the end is before the start.
+     */
+    public static DateTimeRange Of(DateTime start, DateTime end) {
+        return new DateTimeRange(start.Unix(), end.Unix());
+    }
+
+    /**
+     * Get a range of the length from the start.
+     *
+     * @param start  The start, inclusive.
+     * @param length The length, the part less than a second is truncated.
+     * @return A range.
+     * @throws IllegalArgumentException If the length is negative.
+     */
+    public static DateTimeRange Of(DateTime start, TimeSpan length) {
+        return new DateTimeRange(start.Unix(), Math.addExact(start.Unix(), length.TotalSeconds()));
+    }
+
+    /**
+     * Get the start.
+     *
+     * @return The start, as a new {@code DateTime} instance.
+     */
+    public DateTime Start() {
+        return new DateTime(start);
+    }
+
+    /**
+     * Get the end.
+     *
+     * @return The end, as a new {@code DateTime} instance.
+     */
+    public DateTime End() {
+        return new DateTime(end);
+    }
+
+    /**
+     * Get the start as a unix timestamp.
+     *
+     * @return The start.
+     */
+    public long StartUnix() {
+        return start;
+    }
+
+    /**
+     * Get the end as a unix timestamp.
+     *
+     * @return The end.
+     */
+    public long EndUnix() {
+        return end;
+    }
+
+    /**
+     * Get the length.
+     *
+     * @return The time from the start to the end.
+     */
+    public TimeSpan Length() {
+        return TimeSpan.FromSeconds(end - start);
+    }
+
+    /**
+     * Returns an indication whether the range is empty.
+     *
+     * @return {@code true} if the start equals the end.
+     */
+    public boolean IsEmpty() {
+        return start == end;
+    }
+
+    /**
+     * Returns an indication whether the time is in the range.
+     *
+     * @param timestamp Unix timestamp.
+     * @return {@code true} if the time is in the range.
+     */
+    public boolean Contains(long timestamp) {
+        return start <= timestamp && timestamp < end;
+    }
+
+    /**
+     * Returns an indication whether the time is in the range.
+     *
+     * @param time The time.
+     * @return {@code true} if the time is in the range.
+     */
+    public boolean Contains(DateTime time) {
+        return Contains(time.Unix());
+    }
+
+    /**
+     * Returns an indication whether the other range is in the range, an
+     * empty range is in any range which contains or ends at its start.
+     *
+     * @param other The other range.
+     * @return {@code true} if the other range is in this range.
+     */
+    public boolean Contains(DateTimeRange other) {
+        return start <= other.start && other.end <= end;
+    }
+
+    /**
+     * Returns an indication whether the ranges have a time in common.
+     *
+     * @param other The other range.
+     * @return {@code true} if the ranges overlap.
+     */
+    public boolean Overlaps(DateTimeRange other) {
+        return start < other.end && other.start < end;
+    }
+
+    /**
+     * Get the range of the times in both ranges.
+     *
+     * @param other The other range.
+     * @return The intersection, or {@code null} if the ranges do not
+     * overlap.
+     */
+    public DateTimeRange Intersect(DateTimeRange other) {
+        if (!Overlaps(other)) {
+            return null;
+        }
+        return new DateTimeRange(Math.max(start, other.start), Math.min(end, other.end));
+    }
+
+    /**
+     * Get the range of the times in either range, the ranges must overlap
+     * or meet.
+     *
+     * @param other The other range.
+     * @return The union, or {@code null} if there is a gap between the
+     * ranges.
+     */
+    public DateTimeRange Union(DateTimeRange other) {
+        if (start > other.end || other.start > end) {
+            return null;
+        }
+        return new DateTimeRange(Math.min(start, other.start), Math.max(end, other.end));
+    }
+
+    /**
+     * Get the range between the ranges.
+     *
+     * @param other The other range.
+     * @return The gap, or {@code null} if the ranges overlap or meet.
+     */
+    public DateTimeRange Gap(DateTimeRange other) {
+        if (end < other.start) {
+            return new DateTimeRange(end, other.start);
+        }
+        if (other.end < start) {
+            return new DateTimeRange(other.end, start);
+        }
+        return null;
+    }
+
+    @Override
+    public int compareTo(DateTimeRange o) {
+        var result = Long.compare(start, o.start);
+        return result != 0 ? result : Long.compare(end, o.end);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DateTimeRange that = (DateTimeRange) o;
+        return start == that.start && end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    /**
+     * Format the range as {@code [start, end)} in the default pattern.
+     *
+     * @return A string of the range.
+     */
+    @Override
+    public String toString() {
+        var formatter = DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN);
+        var out = new StringBuilder(42).append('[');
+        formatter.FormatTo(start, out).append(", ");
+        return formatter.FormatTo(end, out).append(')').toString();
+    }
+}
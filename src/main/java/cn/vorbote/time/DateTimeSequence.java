@@ -0,0 +1,456 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@code DateTimeSequence} is a lazy sequence of times from a start
+ * until an end, such as the runs of a schedule or the windows of a
+ * backfill. Nothing is materialized, the element at an index is computed
+ * from the start in {@code O(1)}, both for a fixed step and for a step of
+ * calendar units, so the sequence splits into even halves for a parallel
+ * stream.
+ * <pre>{@code
+ * DateTimeSequence.Of(start, end, DateTimeUnit.DAY)
+ *         .Unix()
+ *         .parallel()
+ *         .forEach(day -> backfill(day));
+ * }</pre>
+ * The elements are unix timestamps in ascending order, all of them are
+ * before the end. A step of calendar units is added to the start in the
+ * time zone of the sequence, keeping the local time of day: a step of
+ * days or weeks is the same as {@code Calendar.add(Calendar.DATE, days)},
+ * so it is not always a multiple of 24 hours across a daylight saving
+ * transition, and a step of months or years is the same as
+ * {@link DateTime#AddMonths(int)}, a day of month which does not exist in
+ * a month is pinned to the last day of the month.
+ * <p>
+ * A sequence is immutable and thread safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeSequence implements Iterable<DateTime> {
+
+    private static final int FIXED = 0;
+
+    private static final int DAYS = 1;
+
+    private static final int MONTHS = 2;
+
+    private static final int MONTH_ENDS = 3;
+
+    /**
+     * The shortest day, the length of the day of a transition from the
+     * daylight saving time may be 23 hours.
+     */
+    private static final long SHORTEST_DAY = 82800L;
+
+    private final int kind;
+
+    private final DateTimeZone zone;
+
+    /**
+     * The first element, or for the month ends the local time of day of
+     * the elements.
+     */
+    private final long start;
+
+    /**
+     * The seconds, days or months of a step, or for the month ends the
+     * index of the first month since year 0.
+     */
+    private final long step;
+
+    private final long size;
+
+    private DateTimeSequence(int kind, DateTimeZone zone, long start, long step, long end, long bound) {
+        this.kind = kind;
+        this.zone = zone;
+        this.start = start;
+        this.step = step;
+        this.size = size(end, bound);
+    }
+
+    /**
+     * Get the sequence of the times from the start until the end by a
+     * fixed step.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param step  The step, a positive count of seconds.
+     * @return A sequence.
+     */
+    public static DateTimeSequence Of(DateTime start, DateTime end, TimeSpan step) {
+        var seconds = step.TotalSeconds();
+        if (seconds <= 0 || step.getTicks() % TimeSpan.FromSeconds(1L).getTicks() != 0) {
+            throw new IllegalArgumentException("The step should be a positive count of seconds: " + step);
+        }
+        return new DateTimeSequence(FIXED, null, start.Unix(), seconds, end.Unix(), 0L);
+    }
+
+    /**
+     * Get the sequence of the times from the start until the end by a
+     * calendar unit in the default time zone.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param unit  The unit of a step.
+     * @return A sequence.
+     */
+    public static DateTimeSequence Of(DateTime start, DateTime end, DateTimeUnit unit) {
+        return Of(start, end, unit, 1, CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the sequence of the times from the start until the end by a
+     * count of calendar units in the time zone.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param unit  The unit of a step.
+     * @param count The count of units of a step, positive.
+     * @param zone  The time zone.
+     * @return A sequence.
+     */
+    public static DateTimeSequence Of(DateTime start, DateTime end, DateTimeUnit unit, int count, DateTimeZone zone) {
+        Objects.requireNonNull(zone);
+        if (count <= 0) {
+            throw new IllegalArgumentException("The count of units should be positive: " + count);
+        }
+        if (unit.months > 0) {
+            var months = (long) unit.months * count;
+            return new DateTimeSequence(MONTHS, zone, start.Unix(), months, end.Unix(), months * 28 * SHORTEST_DAY);
+        }
+        if (unit.seconds >= DateTimeUnit.DAY.seconds) {
+            var days = unit.seconds / DateTimeUnit.DAY.seconds * count;
+            return new DateTimeSequence(DAYS, zone, start.Unix(), days, end.Unix(), days * SHORTEST_DAY);
+        }
+        return new DateTimeSequence(FIXED, null, start.Unix(), unit.seconds * count, end.Unix(), 0L);
+    }
+
+    /**
+     * Get the sequence of the days of week from the start until the end in
+     * the default time zone, such as every Monday, at the time of day of
+     * the start.
+     *
+     * @param start     The start, inclusive.
+     * @param end       The end, exclusive.
+     * @param dayOfWeek The day of week (1 for Sunday through 7 for
+     *                  Saturday).
+     * @return A sequence.
+     */
+    public static DateTimeSequence Weekly(DateTime start, DateTime end, int dayOfWeek) {
+        return Weekly(start, end, dayOfWeek, CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the sequence of the days of week from the start until the end in
+     * the time zone, such as every Monday, at the time of day of the
+     * start.
+     *
+     * @param start     The start, inclusive.
+     * @param end       The end, exclusive.
+     * @param dayOfWeek The day of week (1 for Sunday through 7 for
+     *                  Saturday).
+     * @param zone      The time zone.
+     * @return A sequence.
+     */
+    public static DateTimeSequence Weekly(DateTime start, DateTime end, int dayOfWeek, DateTimeZone zone) {
+        if (dayOfWeek < 1 || dayOfWeek > 7) {
+            throw new TimeOutRangeException(String.format("The day of week: %d is out of range of (1 ~ 7).",
+                    dayOfWeek));
+        }
+        var timestamp = start.Unix();
+        var epochDay = Math.floorDiv(timestamp + CivilCalendar.offset(zone, timestamp), CivilCalendar.SECONDS_PER_DAY);
+        var first = CivilCalendar.plusDays(zone, timestamp,
+                Math.floorMod(dayOfWeek - DateTimeFormatter.dayOfWeek(epochDay), 7));
+        return new DateTimeSequence(DAYS, zone, first, 7L, end.Unix(), 7 * SHORTEST_DAY);
+    }
+
+    /**
+     * Get the sequence of the last days of month from the start until the
+     * end in the default time zone, at the time of day of the start.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @return A sequence.
+     */
+    public static DateTimeSequence MonthEnds(DateTime start, DateTime end) {
+        return MonthEnds(start, end, CivilCalendar.defaultZone());
+    }
+
+    /**
+     * Get the sequence of the last days of month from the start until the
+     * end in the time zone, at the time of day of the start.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @param zone  The time zone.
+     * @return A sequence.
+     */
+    public static DateTimeSequence MonthEnds(DateTime start, DateTime end, DateTimeZone zone) {
+        var timestamp = start.Unix();
+        var local = timestamp + CivilCalendar.offset(zone, timestamp);
+        var date = CivilCalendar.toDate(Math.floorDiv(local, CivilCalendar.SECONDS_PER_DAY));
+        var month = CivilCalendar.year(date) * 12 + CivilCalendar.month(date) - 1;
+        return new DateTimeSequence(MONTH_ENDS, zone, Math.floorMod(local, CivilCalendar.SECONDS_PER_DAY),
+                month, end.Unix(), 28 * SHORTEST_DAY);
+    }
+
+    /**
+     * Get the element at the index, which may be past the end.
+     */
+    private long at(long index) {
+        switch (kind) {
+            case DAYS:
+                return CivilCalendar.plusDays(zone, start, index * step);
+            case MONTHS:
+                return CivilCalendar.plusMonths(zone, start, index * step);
+            case MONTH_ENDS:
+                var month = step + index;
+                var year = Math.floorDiv(month, 12);
+                var monthOfYear = Math.floorMod(month, 12) + 1;
+                var epochDay = CivilCalendar.toEpochDay(year, monthOfYear, CivilCalendar.lengthOfMonth(year, monthOfYear));
+                return CivilCalendar.toTimestamp(zone, epochDay * CivilCalendar.SECONDS_PER_DAY + start);
+            default:
+                return start + index * step;
+        }
+    }
+
+    /**
+     * Count the elements before the end, a step is at least the bound
+     * seconds long.
+     */
+    private long size(long end, long bound) {
+        if (kind == FIXED) {
+            return end <= start ? 0L : (end - start - 1) / step + 1;
+        }
+        // The first index at or after the end.
+        long low = 0, high = Math.max(0L, (end - at(0)) / bound) + 1;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (at(mid) < end) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the count of the elements.
+     *
+     * @return The count.
+     */
+    public long Size() {
+        return size;
+    }
+
+    /**
+     * Returns an indication whether the sequence is empty.
+     *
+     * @return {@code true} if there is no element.
+     */
+    public boolean IsEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the element at the index.
+     *
+     * @param index The index.
+     * @return Unix timestamp.
+     */
+    public long Unix(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        return at(index);
+    }
+
+    /**
+     * Get the element at the index.
+     *
+     * @param index The index.
+     * @return A new {@code DateTime} instance.
+     */
+    public DateTime Get(long index) {
+        return new DateTime(Unix(index));
+    }
+
+    /**
+     * Get a stream of the elements, which is parallel if
+     * {@code parallel()} is called on it.
+     *
+     * @return A sequential stream of unix timestamps.
+     */
+    public LongStream Unix() {
+        return StreamSupport.longStream(new Splitter(0L, size), false);
+    }
+
+    /**
+     * Get a stream of the elements, every element is a new
+     * {@code DateTime} instance.
+     *
+     * @return A sequential stream.
+     */
+    public Stream<DateTime> Stream() {
+        return Unix().mapToObj(DateTime::new);
+    }
+
+    /**
+     * Copy the elements into a new array.
+     *
+     * @return A new array.
+     */
+    public DateTimeArray ToArray() {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        var array = new DateTimeArray((int) size);
+        for (var i = 0L; i < size; i++) {
+            array.Append(at(i));
+        }
+        return array;
+    }
+
+    @Override
+    public Iterator<DateTime> iterator() {
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public DateTime next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return new DateTime(at(index++));
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<DateTime> spliterator() {
+        return new Elements(new Splitter(0L, size));
+    }
+
+    @Override
+    public void forEach(Consumer<? super DateTime> action) {
+        for (var i = 0L; i < size; i++) {
+            action.accept(new DateTime(at(i)));
+        }
+    }
+
+    /**
+     * {@code Elements} walks a range of the indexes like {@link Splitter}
+     * does, every element is a new {@code DateTime} instance.
+     */
+    private static final class Elements implements Spliterator<DateTime> {
+
+        private final Splitter range;
+
+        private Elements(Splitter range) {
+            this.range = range;
+        }
+
+        @Override
+        public Spliterator<DateTime> trySplit() {
+            var prefix = range.trySplit();
+            return prefix == null ? null : new Elements(prefix);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DateTime> action) {
+            return range.tryAdvance((long timestamp) -> action.accept(new DateTime(timestamp)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super DateTime> action) {
+            range.forEachRemaining((long timestamp) -> action.accept(new DateTime(timestamp)));
+        }
+
+        @Override
+        public long estimateSize() {
+            return range.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * {@code Splitter} walks a range of the indexes, a split takes the
+     * first half of the range.
+     */
+    private final class Splitter implements Spliterator.OfLong {
+
+        private long index;
+
+        private final long fence;
+
+        private Splitter(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public Splitter trySplit() {
+            var mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            var prefix = new Splitter(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(at(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            for (; index < fence; index++) {
+                action.accept(at(index));
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+}
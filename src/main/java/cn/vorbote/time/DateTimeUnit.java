@@ -0,0 +1,69 @@
+package cn.vorbote.time;
+
+/**
+ * The units a time can be truncated or bucketed to, see
+ * {@link DateTime#Floor(DateTimeUnit)} and {@link Bucketer}. The units
+ * from {@link #DAY} on are calendar units of local time, so a day is not
+ * always 24 hours long.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public enum DateTimeUnit {
+
+    /**
+     * A second.
+     */
+    SECOND(1L, 0),
+
+    /**
+     * A minute.
+     */
+    MINUTE(60L, 0),
+
+    /**
+     * An hour.
+     */
+    HOUR(3600L, 0),
+
+    /**
+     * A day, which starts at midnight.
+     */
+    DAY(86400L, 0),
+
+    /**
+     * A week of ISO-8601, which starts on Monday.
+     */
+    WEEK(7 * 86400L, 0),
+
+    /**
+     * A month, which starts on the first day of the month.
+     */
+    MONTH(0L, 1),
+
+    /**
+     * A quarter, which starts on the first day of January, April, July
+     * or October.
+     */
+    QUARTER(0L, 3),
+
+    /**
+     * A year, which starts on the first day of January.
+     */
+    YEAR(0L, 12);
+
+    /**
+     * The length in seconds of local time, or 0 for the units counted in
+     * months.
+     */
+    final long seconds;
+
+    /**
+     * The length in months, or 0 for the units of fixed length.
+     */
+    final int months;
+
+    DateTimeUnit(long seconds, int months) {
+        this.seconds = seconds;
+        this.months = months;
+    }
+}
@@ -0,0 +1,530 @@
+package cn.vorbote.time;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code DateTimeZone} is a time zone compiled into a sorted table of
+ * periods, so the offset of a timestamp is found by a binary search over
+ * a {@code long[]} instead of a {@code TimeZone} and {@code Calendar}
+ * round-trip. The period of the last lookup is cached, consecutive
+ * lookups of close timestamps read 2 entries of the table only.
+ * <p>
+ * The offsets are exactly what {@code TimeZone.getOffset(long)} returns,
+ * the table is built by reading the {@code TimeZone} at every transition
+ * of the time zone database before 2030, and by searching the transitions
+ * of the {@code TimeZone} itself until 2100. Timestamps after 2100 are
+ * looked up in the
+ * {@code TimeZone} for zones which still observe daylight saving time,
+ * and so are all timestamps of custom zones which are not in the time
+ * zone database, such as a {@code SimpleTimeZone}.
+ * <p>
+ * The aliases of UTC, such as {@code UTC} and {@code Etc/UTC}, are fixed
+ * zones which are built without reading the {@code TimeZone}, it is only
+ * loaded when it is asked for, so formatting in UTC does not load the time
+ * zone database.
+ * <p>
+ * Instances are immutable and thread-safe. Use {@link #Of(String)} to get
+ * the shared instance of a zone.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class DateTimeZone {
+
+    /**
+     * The shared zones, keyed by id.
+     */
+    private static final ConcurrentHashMap<String, DateTimeZone> ZONES = new ConcurrentHashMap<>();
+
+    /**
+     * The zone of the default {@code TimeZone} when it was last read.
+     */
+    private static volatile DateTimeZone defaultZone;
+
+    /**
+     * The ids of the time zone database which are UTC at any time.
+     */
+    private static final Set<String> UTC_IDS = Set.of("UTC", "GMT", "UCT", "Etc/UTC", "Etc/GMT", "Etc/UCT",
+            "Etc/Universal", "Etc/Zulu", "Universal", "Zulu");
+
+    /**
+     * The coordinated universal time.
+     */
+    public static final DateTimeZone UTC = Of("UTC");
+
+    /**
+     * The bits of a period entry which hold the offset, the rest hold the
+     * start of the period.
+     */
+    private static final int OFFSET_BITS = 20;
+
+    /**
+     * Added to an offset so it is never negative in a period entry.
+     */
+    private static final int OFFSET_BIAS = 1 << (OFFSET_BITS - 1);
+
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    /**
+     * The start of the first period, which is the smallest value a period
+     * entry can hold.
+     */
+    private static final long MIN_START = Long.MIN_VALUE >> OFFSET_BITS;
+
+    /**
+     * The first second of 2101, the table ends here for the zones which
+     * have daylight saving time rules.
+     */
+    private static final long TABLE_END = 4133980800L;
+
+    /**
+     * The first second of year 1, the earliest time {@code DateTime}
+     * supports.
+     */
+    private static final long TABLE_START = -62135596800L;
+
+    private static final long SECONDS_PER_WEEK = 7 * 86400L;
+
+    /**
+     * The first second of 1900.
+     */
+    private static final long LOCAL_MEAN_TIME_END = -2208988800L;
+
+    /**
+     * The first second of 2030, from which the transitions are searched in
+     * the {@code TimeZone}.
+     */
+    private static final long SCAN_START = 1893456000L;
+
+    private final String id;
+
+    /**
+     * The {@code TimeZone} of this zone, which a fixed zone reads at the
+     * first use. It is volatile so the state of the instance is published
+     * with it, threads racing at the first use may read equal instances.
+     */
+    private volatile TimeZone zone;
+
+    /**
+     * The periods of constant offset in ascending order, every entry is
+     * the start of the period shifted left by {@link #OFFSET_BITS} and the
+     * offset in seconds plus {@link #OFFSET_BIAS}.
+     */
+    private final long[] periods;
+
+    /**
+     * The timestamp from which the offsets are read from {@code zone}.
+     */
+    private final long end;
+
+    /**
+     * The index of the period found by the last lookup. It is not
+     * volatile, any value a thread may see is a valid index.
+     */
+    private int last;
+
+    /**
+     * The {@code ZoneId} of this zone, read at the first use. It is
+     * volatile so the state of the instance is published with it.
+     */
+    private volatile ZoneId zoneId;
+
+    private DateTimeZone(TimeZone zone, ZoneRules rules) {
+        this.id = zone.getID();
+        this.zone = zone;
+
+        if (rules == null) {
+            this.periods = new long[]{period(MIN_START, 0)};
+            this.end = MIN_START;
+            return;
+        }
+
+        // The candidates are the transitions of the database before 2030 and
+        // the start of 1900, before which TimeZone uses the standard offset
+        // instead of the local mean time.
+        var candidates = new long[16];
+        var size = 0;
+        candidates[size++] = LOCAL_MEAN_TIME_END;
+        var transition = rules.nextTransition(Instant.ofEpochSecond(TABLE_START));
+        while (transition != null && transition.toEpochSecond() < SCAN_START) {
+            if (size == candidates.length) {
+                candidates = Arrays.copyOf(candidates, size * 2);
+            }
+            candidates[size++] = transition.toEpochSecond();
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        Arrays.sort(candidates, 0, size);
+
+        // Read the TimeZone at every candidate, the candidates which do not
+        // change the offset of the TimeZone are dropped.
+        var periods = new long[size + 16];
+        var previous = read(zone, candidates[0] - 1);
+        var count = 0;
+        periods[count++] = period(MIN_START, previous);
+        for (var i = 0; i < size; i++) {
+            var offset = read(zone, candidates[i]);
+            if (offset != previous) {
+                periods[count++] = period(candidates[i], offset);
+                previous = offset;
+            }
+        }
+
+        // TimeZone keeps the transitions up to 2037 and then repeats the rules
+        // of the last year, both may differ from the database, so the later
+        // transitions are searched in the TimeZone itself, a week at a time.
+        for (var low = SCAN_START; low < TABLE_END; low += SECONDS_PER_WEEK) {
+            var high = Math.min(low + SECONDS_PER_WEEK, TABLE_END);
+            if (read(zone, high) == previous) {
+                continue;
+            }
+            var from = low;
+            while (high - from > 1) {
+                var mid = (from + high) >>> 1;
+                if (read(zone, mid) == previous) {
+                    from = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            if (count == periods.length) {
+                periods = Arrays.copyOf(periods, count * 2);
+            }
+            previous = read(zone, high);
+            periods[count++] = period(high, previous);
+            low = high - SECONDS_PER_WEEK;
+        }
+        this.periods = Arrays.copyOf(periods, count);
+        this.end = zone.useDaylightTime() ? TABLE_END : Long.MAX_VALUE;
+    }
+
+    /**
+     * Create a zone of the UTC alias without reading the {@code TimeZone}.
+     *
+     * @param id The id of the zone.
+     */
+    private DateTimeZone(String id) {
+        this.id = id;
+        this.periods = new long[]{period(MIN_START, 0)};
+        this.end = Long.MAX_VALUE;
+    }
+
+    /**
+     * Create a zone of the fixed offset, the offset may have seconds.
+     *
+     * @param id     The id of the zone.
+     * @param offset The offset.
+     */
+    private DateTimeZone(String id, ZoneOffset offset) {
+        this.id = id;
+        this.zone = new SimpleTimeZone(offset.getTotalSeconds() * 1000, id);
+        this.zoneId = offset;
+        this.periods = new long[]{period(MIN_START, offset.getTotalSeconds())};
+        this.end = Long.MAX_VALUE;
+    }
+
+    private static long period(long start, int offset) {
+        return (start << OFFSET_BITS) | (offset + OFFSET_BIAS);
+    }
+
+    private static long start(long period) {
+        return period >> OFFSET_BITS;
+    }
+
+    private static int offset(long period) {
+        return (int) (period & OFFSET_MASK) - OFFSET_BIAS;
+    }
+
+    private static int read(TimeZone zone, long timestamp) {
+        return zone.getOffset(timestamp * 1000L) / 1000;
+    }
+
+    /**
+     * Get the shared zone of the id, the id is any id accepted by
+     * {@code TimeZone.getTimeZone(String)}.
+     *
+     * @param id The id of the zone, such as {@code Asia/Shanghai}.
+     * @return The compiled zone.
+     * @throws IllegalArgumentException If the id is unknown.
+     */
+    public static DateTimeZone Of(String id) {
+        var zone = ZONES.get(id);
+        if (zone != null) {
+            return zone;
+        }
+
+        if (UTC_IDS.contains(id)) {
+            zone = new DateTimeZone(id);
+            var previous = ZONES.putIfAbsent(id, zone);
+            return previous == null ? zone : previous;
+        }
+
+        var timeZone = TimeZone.getTimeZone(id);
+        if ("GMT".equals(timeZone.getID()) && !"GMT".equals(id)) {
+            throw new IllegalArgumentException("Unknown time zone: " + id);
+        }
+        zone = compile(timeZone);
+        var previous = ZONES.putIfAbsent(id, zone);
+        return previous == null ? zone : previous;
+    }
+
+    /**
+     * Get a zone of the {@code TimeZone}. A zone of the time zone database
+     * is shared, a custom zone is compiled every time.
+     *
+     * @param zone The time zone.
+     * @return The compiled zone.
+     */
+    public static DateTimeZone Of(TimeZone zone) {
+        var id = zone.getID();
+        if (UTC_IDS.contains(id) && zone.getRawOffset() == 0 && !zone.useDaylightTime()) {
+            return Of(id);
+        }
+        if (TimeZone.getTimeZone(id).hasSameRules(zone)) {
+            var shared = ZONES.get(id);
+            if (shared != null) {
+                return shared;
+            }
+            var compiled = compile((TimeZone) zone.clone());
+            var previous = ZONES.putIfAbsent(id, compiled);
+            return previous == null ? compiled : previous;
+        }
+        return new DateTimeZone((TimeZone) zone.clone(), null);
+    }
+
+    /**
+     * Get the zone of the {@code ZoneId}. An id of a fixed offset, such as
+     * a {@code ZoneOffset}, {@code UTC+08:00} or {@code UT}, is a zone of
+     * the fixed offset, such as {@code GMT+08:00}.
+     *
+     * @param zoneId The zone id.
+     * @return The compiled zone.
+     * @throws IllegalArgumentException If the id is unknown.
+     */
+    public static DateTimeZone Of(ZoneId zoneId) {
+        var normalized = zoneId.normalized();
+        if (normalized instanceof ZoneOffset) {
+            return fixed((ZoneOffset) normalized);
+        }
+        var id = normalized.getId();
+        var zone = ZONES.get(id);
+        if (zone != null) {
+            return zone;
+        }
+        var timeZone = TimeZone.getTimeZone(normalized);
+        if ("GMT".equals(timeZone.getID()) && !"GMT".equals(id)) {
+            throw new IllegalArgumentException("Unknown time zone: " + id);
+        }
+        return Of(timeZone);
+    }
+
+    /**
+     * Get the zone of the fixed offset. An offset of whole minutes is the
+     * zone of its {@code GMT} id, such as {@code GMT+08:00}, the others are
+     * built without a {@code TimeZone} id, which can not hold seconds.
+     */
+    private static DateTimeZone fixed(ZoneOffset offset) {
+        var seconds = offset.getTotalSeconds();
+        if (seconds == 0) {
+            return UTC;
+        }
+        var id = "GMT" + offset.getId();
+        if (seconds % 60 == 0) {
+            return Of(id);
+        }
+        var zone = ZONES.get(id);
+        if (zone == null) {
+            zone = new DateTimeZone(id, offset);
+            var previous = ZONES.putIfAbsent(id, zone);
+            if (previous != null) {
+                zone = previous;
+            }
+        }
+        return zone;
+    }
+
+    private static DateTimeZone compile(TimeZone zone) {
+        ZoneRules rules = null;
+        if (TimeZone.getTimeZone(zone.getID()).hasSameRules(zone)) {
+            try {
+                rules = zone.toZoneId().getRules();
+            } catch (DateTimeException e) {
+                // Not in the time zone database, read the TimeZone always.
+            }
+        }
+        return new DateTimeZone(zone, rules);
+    }
+
+    /**
+     * Get the default time zone of the JVM. It follows
+     * {@code TimeZone.setDefault} like {@code Calendar.getInstance()}
+     * does: the default {@code TimeZone} is read at every call, and the
+     * zone is compiled again only when its id or rules have changed.
+     * {@code TimeZone.getDefault()} is the only way to see a change of
+     * the default, so the check costs its shallow copy.
+     *
+     * @return The default zone.
+     */
+    public static DateTimeZone Default() {
+        var current = TimeZone.getDefault();
+        var zone = defaultZone;
+        if (zone == null || !zone.id.equals(current.getID()) || !zone.timeZone().hasSameRules(current)) {
+            zone = Of(current);
+            defaultZone = zone;
+        }
+        return zone;
+    }
+
+    /**
+     * Get the id of this zone.
+     *
+     * @return The id.
+     */
+    public String Id() {
+        return id;
+    }
+
+    /**
+     * Get the offset from UTC at the timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The offset in seconds, including daylight saving time.
+     */
+    public int Offset(long timestamp) {
+        if (timestamp >= end) {
+            return read(timeZone(), timestamp);
+        }
+        return offset(periods[index(timestamp)]);
+    }
+
+    /**
+     * Get the index of the last period which starts at or before the
+     * timestamp, the timestamp must be less than {@code end}.
+     */
+    private int index(long timestamp) {
+        var periods = this.periods;
+        var index = last;
+        if (start(periods[index]) <= timestamp
+                && (index + 1 == periods.length || start(periods[index + 1]) > timestamp)) {
+            return index;
+        }
+
+        // Find the last period which starts at or before the timestamp.
+        int low = 0, high = periods.length - 1;
+        while (low < high) {
+            var mid = (low + high + 1) >>> 1;
+            if (start(periods[mid]) <= timestamp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        last = low;
+        return low;
+    }
+
+    /**
+     * Get the start of the period of constant offset which contains the
+     * timestamp. A timestamp which is looked up in the {@code TimeZone}
+     * is a period of its own.
+     */
+    long periodStart(long timestamp) {
+        if (timestamp >= end) {
+            return timestamp;
+        }
+        return start(periods[index(timestamp)]);
+    }
+
+    /**
+     * Get the end (exclusive) of the period of constant offset which
+     * contains the timestamp. A timestamp which is looked up in the
+     * {@code TimeZone} is a period of its own.
+     */
+    long periodEnd(long timestamp) {
+        if (timestamp >= end) {
+            return timestamp + 1;
+        }
+        var index = index(timestamp);
+        return index + 1 == periods.length ? end : Math.min(start(periods[index + 1]), end);
+    }
+
+    /**
+     * Returns an indication whether the offset of this zone never
+     * changes, such as {@code UTC}.
+     */
+    boolean isFixed() {
+        return periods.length == 1 && end == Long.MAX_VALUE;
+    }
+
+    /**
+     * Get the count of periods of constant offset in the table.
+     *
+     * @return The count of periods.
+     */
+    int periods() {
+        return periods.length;
+    }
+
+    /**
+     * Get a copy of the {@code TimeZone} of this zone.
+     *
+     * @return A {@code TimeZone} instance.
+     */
+    public TimeZone ToTimeZone() {
+        return (TimeZone) timeZone().clone();
+    }
+
+    /**
+     * Get the {@code ZoneId} of this zone, the instance is shared.
+     *
+     * @return The zone id.
+     * @throws DateTimeException If the id of a custom zone is not a
+     *                           valid {@code ZoneId}.
+     */
+    public ZoneId ToZoneId() {
+        var zoneId = this.zoneId;
+        if (zoneId == null) {
+            zoneId = timeZone().toZoneId();
+            this.zoneId = zoneId;
+        }
+        return zoneId;
+    }
+
+    /**
+     * Get the {@code TimeZone} of this zone without copying it, the caller
+     * must not change it.
+     */
+    TimeZone timeZone() {
+        var zone = this.zone;
+        if (zone == null) {
+            zone = TimeZone.getTimeZone(id);
+            this.zone = zone;
+        }
+        return zone;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DateTimeZone that = (DateTimeZone) o;
+        return id.equals(that.id) && timeZone().hasSameRules(that.timeZone());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
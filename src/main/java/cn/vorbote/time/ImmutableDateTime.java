@@ -0,0 +1,422 @@
+package cn.vorbote.time;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * An immutable counterpart of {@code DateTime}. Every method which
+ * changes the time returns a new instance and leaves this instance
+ * untouched, so an {@code ImmutableDateTime} can be shared across
+ * threads and kept in caches without any lock or defensive copy.
+ * <p>
+ * The epoch, the start of today and the current second are available
+ * as canonical cached instances, see {@link #EPOCH}, {@link #Today()}
+ * and {@link #Now()}.
+ *
+ * @author vorbote thills@vorbote.cn
+ * @see DateTime#ToImmutable()
+ */
+public final class ImmutableDateTime implements
+        Comparable<ImmutableDateTime>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The unix epoch, 1970-01-01T00:00:00Z.
+     */
+    public static final ImmutableDateTime EPOCH = new ImmutableDateTime(0L, DateTimeFormatter.DEFAULT_PATTERN);
+
+    /**
+     * The instance of the latest second returned by {@link #Now()}.
+     */
+    private static volatile ImmutableDateTime now = EPOCH;
+
+    /**
+     * The instance returned by {@link #Today()}, the timestamp of the start
+     * of the next day and the default zone they are in.
+     */
+    private static volatile Today today = new Today(EPOCH, 0L, null);
+
+    private static final class Today {
+
+        final ImmutableDateTime start;
+
+        final long end;
+
+        final DateTimeZone zone;
+
+        Today(ImmutableDateTime start, long end, DateTimeZone zone) {
+            this.start = start;
+            this.end = end;
+            this.zone = zone;
+        }
+    }
+
+    /**
+     * Timestamp, use the form of unix time.
+     */
+    private final long timestamp;
+
+    /**
+     * Specify the way to format the time.
+     */
+    private final String pattern;
+
+    private ImmutableDateTime(long timestamp, String pattern) {
+        this.timestamp = timestamp;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Get an instance of the unix timestamp.
+     *
+     * @param timestamp Unix Timestamp.
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public static ImmutableDateTime Of(long timestamp) {
+        if (timestamp == 0L) {
+            return EPOCH;
+        }
+        return new ImmutableDateTime(timestamp, DateTimeFormatter.DEFAULT_PATTERN);
+    }
+
+    /**
+     * Get an instance of the instant, the part less than a second is
+     * truncated towards the past.
+     *
+     * @param instant An {@code Instant} instance.
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public static ImmutableDateTime Of(Instant instant) {
+        return Of(instant.getEpochSecond());
+    }
+
+    /**
+     * Get an instance of the time and pattern of the {@code DateTime}.
+     *
+     * @param time A {@code DateTime} instance.
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public static ImmutableDateTime Of(DateTime time) {
+        return time.ToImmutable();
+    }
+
+    /**
+     * Get an instance of the date.
+     *
+     * @param year  The year (1 through 9999).
+     * @param month The month (1 through 12).
+     * @param date  The day (1 through the number of days in month).
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public static ImmutableDateTime Of(int year, int month, int date) {
+        return Of(year, month, date, 0, 0, 0);
+    }
+
+    /**
+     * Get an instance of the date and time.
+     *
+     * @param year   The year (1 through 9999).
+     * @param month  The month (1 through 12).
+     * @param date   The day (1 through the number of days in month).
+     * @param hour   The hour (0 through 23).
+     * @param minute The minute (0 through 59).
+     * @param second The second (0 through 59).
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public static ImmutableDateTime Of(int year, int month, int date, int hour, int minute, int second) {
+        DateTime.check(year, month, date, hour, minute, second);
+        return Of(CivilCalendar.toTimestamp(CivilCalendar.defaultZone(), year, month, date, hour, minute, second));
+    }
+
+    /**
+     * Get the current time truncated to the second from the clock of
+     * {@code DateTime}. All callers in the same second share the same
+     * instance.
+     *
+     * @return The current Date and Time.
+     * @see DateTime#Clock(Clock)
+     */
+    public static ImmutableDateTime Now() {
+        var clock = DateTime.Clock();
+        if (clock instanceof TickingClock) {
+            return ((TickingClock) clock).Now();
+        }
+
+        var seconds = clock.Seconds();
+        var current = now;
+        if (current.timestamp != seconds) {
+            current = new ImmutableDateTime(seconds, DateTimeFormatter.DEFAULT_PATTERN);
+            now = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get the start of today in the default time zone. All callers in the
+     * same day share the same instance.
+     *
+     * @return The start of today.
+     */
+    public static ImmutableDateTime Today() {
+        var seconds = DateTime.Clock().Seconds();
+        var current = today;
+        var zone = CivilCalendar.defaultZone();
+        if (seconds >= current.end || seconds < current.start.timestamp || current.zone != zone) {
+            var epochDay = Math.floorDiv(seconds + CivilCalendar.offset(zone, seconds), CivilCalendar.SECONDS_PER_DAY);
+            var start = CivilCalendar.toTimestamp(zone, epochDay * CivilCalendar.SECONDS_PER_DAY);
+            var end = CivilCalendar.toTimestamp(zone, (epochDay + 1) * CivilCalendar.SECONDS_PER_DAY);
+            current = new Today(Of(start), end, zone);
+            today = current;
+        }
+        return current.start;
+    }
+
+    /**
+     * Get the Unix Timestamp of this time.
+     *
+     * @return The Unix Timestamp of this instance.
+     */
+    public long Unix() {
+        return timestamp;
+    }
+
+    /**
+     * Get the Java Timestamp of this time.
+     *
+     * @return The Java Timestamp of this instance, but will lose the millisecond.
+     */
+    public long Java() {
+        return timestamp * 1000L;
+    }
+
+    /**
+     * Get the timestamp.
+     *
+     * @return The timestamp.
+     * @see #Unix()
+     */
+    public long Timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns an instance of the timestamp with the pattern of this
+     * instance.
+     *
+     * @param timestamp The timestamp.
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public ImmutableDateTime Timestamp(long timestamp) {
+        return timestamp == this.timestamp ? this : new ImmutableDateTime(timestamp, pattern);
+    }
+
+    /**
+     * Get pattern for this datetime.
+     *
+     * @return The pattern String.
+     */
+    public String Pattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns an instance of the same time with the pattern.
+     *
+     * @param pattern The formatted String.
+     * @return An {@code ImmutableDateTime} instance.
+     */
+    public ImmutableDateTime Pattern(String pattern) {
+        return Objects.equals(pattern, this.pattern) ? this : new ImmutableDateTime(timestamp, pattern);
+    }
+
+    /**
+     * Returns a new instance that adds the {@code TimeSpan}.
+     *
+     * @param ts Time Span.
+     * @return The time after added this {@code TimeSpan}.
+     * @see DateTime#Add(TimeSpan)
+     */
+    public ImmutableDateTime Add(TimeSpan ts) {
+        return Timestamp(DateTime.add(timestamp, ts));
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of days.
+     *
+     * @param days A number of whole and fractional days.
+     * @return The time after added.
+     */
+    public ImmutableDateTime AddDays(double days) {
+        return Timestamp(timestamp + (int) (days * 24 * 60 * 60));
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of hours.
+     *
+     * @param hours A number of whole and fractional hours.
+     * @return The time after added.
+     */
+    public ImmutableDateTime AddHours(double hours) {
+        return Timestamp(timestamp + (int) (hours * 60 * 60));
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of minutes.
+     *
+     * @param minutes A number of whole and fractional minutes.
+     * @return The time after added.
+     */
+    public ImmutableDateTime AddMinutes(double minutes) {
+        return Timestamp(timestamp + (int) (minutes * 60));
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of seconds.
+     *
+     * @param seconds A number of seconds.
+     * @return The time after added.
+     */
+    public ImmutableDateTime AddSeconds(int seconds) {
+        return Timestamp(timestamp + seconds);
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of months.
+     *
+     * @param months A number of months.
+     * @return The time after added.
+     * @see DateTime#AddMonths(int)
+     */
+    public ImmutableDateTime AddMonths(int months) {
+        return Timestamp(CivilCalendar.plusMonths(CivilCalendar.defaultZone(), timestamp, months));
+    }
+
+    /**
+     * Returns a new instance that adds the specified number of years.
+     *
+     * @param years A number of years.
+     * @return The time after added.
+     * @see DateTime#AddYears(int)
+     */
+    public ImmutableDateTime AddYears(int years) {
+        return Timestamp(CivilCalendar.plusMonths(CivilCalendar.defaultZone(), timestamp, years * 12L));
+    }
+
+    /**
+     * Returns an instance truncated to the start of the unit.
+     *
+     * @param unit The unit.
+     * @return The time after truncated.
+     * @see DateTime#Floor(DateTimeUnit)
+     */
+    public ImmutableDateTime Floor(DateTimeUnit unit) {
+        return Timestamp(Bucketer.Of(unit).Floor(timestamp));
+    }
+
+    /**
+     * Returns an instance rounded up to the start of the unit.
+     *
+     * @param unit The unit.
+     * @return The time after rounded.
+     * @see DateTime#Ceil(DateTimeUnit)
+     */
+    public ImmutableDateTime Ceil(DateTimeUnit unit) {
+        return Timestamp(Bucketer.Of(unit).Ceil(timestamp));
+    }
+
+    /**
+     * Returns an instance rounded to the nearest start of the unit.
+     *
+     * @param unit The unit.
+     * @return The time after rounded.
+     * @see DateTime#Round(DateTimeUnit)
+     */
+    public ImmutableDateTime Round(DateTimeUnit unit) {
+        return Timestamp(Bucketer.Of(unit).Round(timestamp));
+    }
+
+    /**
+     * Returns a new instance that subtracts the {@code TimeSpan}.
+     *
+     * @param ts Time Span.
+     * @return The time after subtracted this {@code TimeSpan}.
+     */
+    public ImmutableDateTime Minus(TimeSpan ts) {
+        return Timestamp(DateTime.minus(timestamp, ts));
+    }
+
+    /**
+     * Get the {@code TimeSpan} between this time and another time.
+     *
+     * @param time Another instance.
+     * @return A {@code TimeSpan} instance.
+     * @see DateTime#Minus(DateTime)
+     */
+    public TimeSpan Minus(ImmutableDateTime time) {
+        return TimeSpan.FromSeconds(timestamp - time.timestamp);
+    }
+
+    /**
+     * Get a mutable {@code DateTime} of the same time and pattern.
+     *
+     * @return A new {@code DateTime} instance.
+     */
+    public DateTime ToDateTime() {
+        return new DateTime(timestamp).Pattern(pattern);
+    }
+
+    /**
+     * Convert this instance to an {@code Instant}.
+     *
+     * @return An {@code Instant} instance.
+     */
+    public Instant ToInstant() {
+        return Instant.ofEpochSecond(timestamp);
+    }
+
+    /**
+     * Append the string time expression in the specified format to the
+     * builder.
+     *
+     * @param out The builder.
+     * @return The builder.
+     */
+    public StringBuilder FormatTo(StringBuilder out) {
+        return DateTimeFormatter.Of(pattern).FormatTo(timestamp, out);
+    }
+
+    /**
+     * Convert the timestamp to a string time expression in the
+     * specified format.
+     *
+     * @return A string time expression.
+     */
+    public String ToString() {
+        return DateTimeFormatter.Of(pattern).Format(timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return ToString();
+    }
+
+    @Override
+    public int compareTo(ImmutableDateTime o) {
+        return Long.compare(timestamp, o.timestamp);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImmutableDateTime that = (ImmutableDateTime) o;
+        return timestamp == that.timestamp;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp);
+    }
+}
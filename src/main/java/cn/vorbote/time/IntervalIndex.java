@@ -0,0 +1,498 @@
+package cn.vorbote.time;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@code IntervalIndex} finds the ranges of time which overlap a time or
+ * a range among a large number of ranges, each range carries a value,
+ * such as a reservation or a maintenance window.
+ * <p>
+ * The ranges are sorted by start into primitive arrays and indexed by an
+ * implicit augmented interval tree, like cgranges: the sorted array is
+ * the in-order layout of a balanced binary tree, and every node keeps the
+ * max end of its subtree, so a query skips every subtree which ends
+ * before the query and stops at the first start after the query. A query
+ * takes {@code O(log n + k)} for {@code k} results, and the index takes 3
+ * {@code long} and a reference per range.
+ * <p>
+ * An index is built once by a {@link Builder} and never changes, so it
+ * can be queried by any number of threads. See
+ * {@link ConcurrentIntervalIndex} for an index which is updated while it
+ * is read. The ranges are identified by their position in the sorted
+ * order, from 0 to {@link #Size()} - 1.
+ *
+ * @param <T> The type of the values.
+ * @author vorbote thills@vorbote.cn
+ * @see DateTimeRange
+ */
+public final class IntervalIndex<T> {
+
+    /**
+     * Subtrees of this level or lower are scanned instead of searched.
+     */
+    private static final int SCAN_LEVEL = 3;
+
+    private final long[] starts;
+
+    private final long[] ends;
+
+    /**
+     * The max end of the subtree of every node.
+     */
+    private final long[] maxEnds;
+
+    private final Object[] values;
+
+    private final int size;
+
+    /**
+     * The level of the root, or -1 if the index is empty.
+     */
+    private final int rootLevel;
+
+    private IntervalIndex(long[] starts, long[] ends, Object[] values, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.size = size;
+        this.maxEnds = new long[size];
+        this.rootLevel = augment();
+    }
+
+    /**
+     * Create a builder of an index.
+     *
+     * @param <T> The type of the values.
+     * @return A builder.
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Fill the max ends of the nodes from the leaves up. The node of
+     * level {@code k} is at an index whose lowest {@code k} bits are 1 and
+     * the next bit is 0, its children are {@code 2^(k-1)} away on both
+     * sides. The right child may be out of range, its subtree is then the
+     * last node of the level in range.
+     */
+    private int augment() {
+        if (size == 0) {
+            return -1;
+        }
+        int lastIndex = 0;
+        long last = 0;
+        for (var i = 0; i < size; i += 2) {
+            lastIndex = i;
+            last = maxEnds[i] = ends[i];
+        }
+        var level = 1;
+        for (; 1L << level <= size; level++) {
+            var half = 1 << (level - 1);
+            var step = half << 2;
+            for (var i = (half << 1) - 1; i < size; i += step) {
+                var left = maxEnds[i - half];
+                var right = i + half < size ? maxEnds[i + half] : last;
+                maxEnds[i] = Math.max(ends[i], Math.max(left, right));
+            }
+            lastIndex = ((lastIndex >>> level) & 1) != 0 ? lastIndex - half : lastIndex + half;
+            if (lastIndex < size && maxEnds[lastIndex] > last) {
+                last = maxEnds[lastIndex];
+            }
+        }
+        return level - 1;
+    }
+
+    /**
+     * Get the count of ranges.
+     *
+     * @return The count of ranges.
+     */
+    public int Size() {
+        return size;
+    }
+
+    /**
+     * Get the range at the position in the order of start.
+     *
+     * @param index The position.
+     * @return The range.
+     */
+    public DateTimeRange Range(int index) {
+        Objects.checkIndex(index, size);
+        return DateTimeRange.Of(starts[index], ends[index]);
+    }
+
+    /**
+     * Get the value of the range at the position in the order of start.
+     *
+     * @param index The position.
+     * @return The value.
+     */
+    @SuppressWarnings("unchecked")
+    public T Value(int index) {
+        Objects.checkIndex(index, size);
+        return (T) values[index];
+    }
+
+    /**
+     * Call the action with the position of every range which overlaps the
+     * range {@code [start, end)}, nothing is allocated per range.
+     *
+     * @param start  The start of the query, inclusive.
+     * @param end    The end of the query, exclusive.
+     * @param action The action.
+     */
+    public void ForEachOverlapping(long start, long end, IntConsumer action) {
+        var cursor = new Cursor(start, end);
+        while (cursor.hasNext()) {
+            action.accept(cursor.nextInt());
+        }
+    }
+
+    /**
+     * Count the ranges which overlap the range {@code [start, end)}.
+     *
+     * @param start The start of the query, inclusive.
+     * @param end   The end of the query, exclusive.
+     * @return The count of ranges.
+     */
+    public int CountOverlapping(long start, long end) {
+        var cursor = new Cursor(start, end);
+        var count = 0;
+        while (cursor.hasNext()) {
+            cursor.nextInt();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the positions of the ranges which overlap the range
+     * {@code [start, end)}. The stream is lazy, the tree is searched as
+     * the stream is consumed.
+     *
+     * @param start The start of the query, inclusive.
+     * @param end   The end of the query, exclusive.
+     * @return The positions in ascending order.
+     */
+    public IntStream OverlappingIndexes(long start, long end) {
+        var spliterator = Spliterators.spliteratorUnknownSize(new Cursor(start, end),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+                        | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    /**
+     * Get the values of the ranges which overlap the range.
+     *
+     * @param range The range.
+     * @return The values in the order of start.
+     */
+    public Stream<T> Overlapping(DateTimeRange range) {
+        return OverlappingIndexes(range.StartUnix(), range.EndUnix()).mapToObj(this::Value);
+    }
+
+    /**
+     * Get the values of the ranges which contain the time.
+     *
+     * @param time The time.
+     * @return The values in the order of start.
+     */
+    public Stream<T> Containing(DateTime time) {
+        var timestamp = time.Unix();
+        return OverlappingIndexes(timestamp, timestamp + 1).mapToObj(this::Value);
+    }
+
+    /**
+     * Get the values of the ranges which contain the whole range.
+     *
+     * @param range The range.
+     * @return The values in the order of start.
+     */
+    public Stream<T> Covering(DateTimeRange range) {
+        var start = range.StartUnix();
+        var end = range.EndUnix();
+        // A range covering an empty range still needs to overlap its start.
+        return OverlappingIndexes(start, Math.max(end, start + 1))
+                .filter(i -> starts[i] <= start && end <= ends[i])
+                .mapToObj(this::Value);
+    }
+
+    /**
+     * Get the values of the non-empty ranges which are in the range.
+     *
+     * @param range The range.
+     * @return The values in the order of start.
+     */
+    public Stream<T> Within(DateTimeRange range) {
+        var end = range.EndUnix();
+        return IntStream.range(lowerBound(range.StartUnix()), lowerBound(end))
+                .filter(i -> ends[i] <= end && starts[i] < ends[i])
+                .mapToObj(this::Value);
+    }
+
+    /**
+     * Get the position of the first range which starts at or after the
+     * time.
+     */
+    private int lowerBound(long timestamp) {
+        int low = 0, high = size;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (starts[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Walks the tree with an explicit stack, in ascending order of the
+     * positions.
+     */
+    private final class Cursor implements PrimitiveIterator.OfInt {
+
+        private final long start;
+
+        private final long end;
+
+        /**
+         * The nodes to visit, every entry is the position, the level and
+         * whether the left subtree has been visited.
+         */
+        private final int[] nodes = new int[64];
+
+        private final int[] levels = new int[64];
+
+        private final boolean[] leftDone = new boolean[64];
+
+        private int depth;
+
+        /**
+         * The range of positions which is being scanned.
+         */
+        private int scan;
+
+        private int scanEnd;
+
+        private int next = -1;
+
+        Cursor(long start, long end) {
+            this.start = start;
+            this.end = end;
+            if (rootLevel >= 0) {
+                nodes[0] = (1 << rootLevel) - 1;
+                levels[0] = rootLevel;
+                depth = 1;
+            }
+        }
+
+        /**
+         * Find the next position, or -1 if there is none.
+         */
+        private int advance() {
+            while (true) {
+                while (scan < scanEnd) {
+                    var i = scan++;
+                    if (starts[i] >= end) {
+                        // The rest of the subtree starts after the query.
+                        scan = scanEnd;
+                    } else if (start < ends[i]) {
+                        return i;
+                    }
+                }
+                if (depth == 0) {
+                    return -1;
+                }
+                var top = --depth;
+                var node = nodes[top];
+                var level = levels[top];
+                if (level <= SCAN_LEVEL) {
+                    // Scan the small subtree from its leftmost position.
+                    scan = node >> level << level;
+                    scanEnd = Math.min(scan + (1 << (level + 1)) - 1, size);
+                } else if (!leftDone[top]) {
+                    // Come back to the node after the left subtree.
+                    leftDone[top] = true;
+                    depth++;
+                    var left = node - (1 << (level - 1));
+                    if (left >= size || maxEnds[left] > start) {
+                        push(left, level - 1);
+                    }
+                } else if (node < size && starts[node] < end) {
+                    push(node + (1 << (level - 1)), level - 1);
+                    if (start < ends[node]) {
+                        return node;
+                    }
+                }
+            }
+        }
+
+        private void push(int node, int level) {
+            nodes[depth] = node;
+            levels[depth] = level;
+            leftDone[depth] = false;
+            depth++;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < 0) {
+                next = advance();
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var result = next;
+            next = -1;
+            return result;
+        }
+    }
+
+    /**
+     * Collects the ranges of an index and builds it at once.
+     *
+     * @param <T> The type of the values.
+     */
+    public static final class Builder<T> {
+
+        private long[] starts = new long[16];
+
+        private long[] ends = new long[16];
+
+        private Object[] values = new Object[16];
+
+        private int size;
+
+        Builder() {
+        }
+
+        /**
+         * Add a range of unix timestamps.
+         *
+         * @param start The start, inclusive.
+         * @param end   The end, exclusive.
+         * @param value The value of the range.
+         * @return This builder.
+         * @throws IllegalArgumentException If the end is before the start.
+         */
+        public Builder<T> Add(long start, long end, T value) {
+            if (end < start) {
+                throw new IllegalArgumentException(String.format("The end: %d is before the start: %d.", end, start));
+            }
+            if (size == starts.length) {
+                var capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * Add a range.
+         *
+         * @param range The range.
+         * @param value The value of the range.
+         * @return This builder.
+         */
+        public Builder<T> Add(DateTimeRange range, T value) {
+            return Add(range.StartUnix(), range.EndUnix(), value);
+        }
+
+        /**
+         * Add every range of an index.
+         *
+         * @param index The index.
+         * @return This builder.
+         */
+        public Builder<T> AddAll(IntervalIndex<? extends T> index) {
+            for (var i = 0; i < index.size; i++) {
+                Add(index.starts[i], index.ends[i], index.Value(i));
+            }
+            return this;
+        }
+
+        /**
+         * Remove the ranges whose value matches the filter.
+         *
+         * @param filter The filter of the values.
+         * @return The count of ranges removed.
+         */
+        @SuppressWarnings("unchecked")
+        public int RemoveIf(Predicate<? super T> filter) {
+            var kept = 0;
+            for (var i = 0; i < size; i++) {
+                if (!filter.test((T) values[i])) {
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    values[kept] = values[i];
+                    kept++;
+                }
+            }
+            Arrays.fill(values, kept, size, null);
+            var removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        /**
+         * Get the count of ranges added.
+         *
+         * @return The count of ranges.
+         */
+        public int Size() {
+            return size;
+        }
+
+        /**
+         * Build an index of the ranges added so far, the builder can be
+         * used on.
+         *
+         * @return An index.
+         */
+        public IntervalIndex<T> Build() {
+            var starts = this.starts;
+            var ends = this.ends;
+            // By start, and by end for the same start.
+            var order = PositionSort.sortedOrder(size, (a, b) -> compare(starts, ends, a, b));
+            var sortedStarts = new long[size];
+            var sortedEnds = new long[size];
+            var sortedValues = new Object[size];
+            for (var i = 0; i < size; i++) {
+                var j = order == null ? i : order[i];
+                sortedStarts[i] = starts[j];
+                sortedEnds[i] = ends[j];
+                sortedValues[i] = values[j];
+            }
+            return new IntervalIndex<>(sortedStarts, sortedEnds, sortedValues, size);
+        }
+
+        private static int compare(long[] starts, long[] ends, int a, int b) {
+            var result = Long.compare(starts[a], starts[b]);
+            return result != 0 ? result : Long.compare(ends[a], ends[b]);
+        }
+    }
+}
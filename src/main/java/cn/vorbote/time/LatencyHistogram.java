@@ -0,0 +1,311 @@
+package cn.vorbote.time;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@code LatencyHistogram} counts latencies in nanoseconds into a fixed
+ * number of log-linear buckets, like HdrHistogram does. A value is put
+ * into the bucket of its highest bits, so the memory is fixed whatever
+ * the values are and every value is kept with a relative error of at
+ * most {@code 2 / 2^precision}.
+ * <p>
+ * {@link #Record(long)} is lock free and can be called from many threads
+ * at the same time. The percentiles are read from a {@link Snapshot},
+ * {@link #SnapshotAndReset()} takes a snapshot and starts a new interval
+ * at once, which is what a periodic metrics exporter needs. A value
+ * recorded during the reset is counted in either interval, but never
+ * lost or counted twice.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class LatencyHistogram {
+
+    /**
+     * The default precision, the relative error is at most 1/64.
+     */
+    public static final int DEFAULT_PRECISION = 7;
+
+    private final int precision;
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create a histogram of the default precision.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Create a histogram of the precision. A higher precision takes
+     * more memory, the count of buckets is
+     * {@code 2^precision + (63 - precision) * 2^(precision - 1)}.
+     *
+     * @param precision The count of significant bits of a value (2 through 16).
+     */
+    public LatencyHistogram(int precision) {
+        if (precision < 2 || precision > 16) {
+            throw new IllegalArgumentException(String.format("The precision: %d is out of range of (2 ~ 16).", precision));
+        }
+        this.precision = precision;
+        this.counts = new AtomicLongArray(bucketCount(precision));
+    }
+
+    static int bucketCount(int precision) {
+        return (1 << precision) + (63 - precision) * (1 << (precision - 1));
+    }
+
+    /**
+     * Get the index of the bucket of the value. Values less than
+     * {@code 2^precision} have their own bucket, a greater value shares
+     * the bucket with the values of the same {@code precision} highest
+     * bits.
+     */
+    static int bucketIndex(long value, int precision) {
+        var shift = (64 - Long.numberOfLeadingZeros(value)) - precision;
+        if (shift <= 0) {
+            return (int) value;
+        }
+        var half = 1 << (precision - 1);
+        return (1 << precision) + (shift - 1) * half + (int) (value >>> shift) - half;
+    }
+
+    /**
+     * Get the smallest value of the bucket.
+     */
+    static long lowestValue(int index, int precision) {
+        var count = 1 << precision;
+        if (index < count) {
+            return index;
+        }
+        var half = count >>> 1;
+        var shift = (index - count) / half + 1;
+        var top = (index - count) % half + half;
+        return (long) top << shift;
+    }
+
+    /**
+     * Get the greatest value of the bucket.
+     */
+    static long highestValue(int index, int precision) {
+        var count = 1 << precision;
+        if (index < count) {
+            return index;
+        }
+        var shift = (index - count) / (count >>> 1) + 1;
+        return lowestValue(index, precision) + (1L << shift) - 1;
+    }
+
+    /**
+     * Record a latency, a negative value is recorded as 0.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void Record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.getAndIncrement(bucketIndex(nanos, precision));
+        var current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param ts The latency.
+     */
+    public void Record(TimeSpan ts) {
+        var ticks = ts.getTicks();
+        Record(ticks > Long.MAX_VALUE / 100L ? Long.MAX_VALUE : ticks * 100L);
+    }
+
+    /**
+     * Record the time elapsed since the start.
+     *
+     * @param startNanos The value of {@code System.nanoTime()} when the
+     *                   operation started.
+     * @return The recorded latency in nanoseconds.
+     * @see Stopwatch#GetTimestamp()
+     */
+    public long RecordSince(long startNanos) {
+        var nanos = System.nanoTime() - startNanos;
+        Record(nanos);
+        return nanos;
+    }
+
+    /**
+     * Take a snapshot of the values recorded so far.
+     *
+     * @return A snapshot.
+     */
+    public Snapshot Snapshot() {
+        var values = new long[counts.length()];
+        for (var i = 0; i < values.length; i++) {
+            values[i] = counts.get(i);
+        }
+        return new Snapshot(precision, values, max.get());
+    }
+
+    /**
+     * Take a snapshot of the values recorded so far and clear this
+     * histogram.
+     *
+     * @return A snapshot.
+     */
+    public Snapshot SnapshotAndReset() {
+        var values = new long[counts.length()];
+        for (var i = 0; i < values.length; i++) {
+            values[i] = counts.getAndSet(i, 0L);
+        }
+        return new Snapshot(precision, values, max.getAndSet(0L));
+    }
+
+    /**
+     * An immutable view of the recorded values.
+     */
+    public static final class Snapshot {
+
+        private final int precision;
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long max;
+
+        private final double mean;
+
+        Snapshot(int precision, long[] counts, long max) {
+            this.precision = precision;
+            this.counts = counts;
+
+            long count = 0, highest = -1;
+            var sum = 0.0;
+            for (var i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    count += counts[i];
+                    sum += counts[i] * (double) median(i);
+                    highest = i;
+                }
+            }
+            this.count = count;
+            this.mean = count == 0 ? 0.0 : sum / count;
+
+            // A value recorded during a reset may be counted in a bucket of
+            // this interval while the max has moved on to the next one.
+            if (highest < 0) {
+                this.max = 0L;
+            } else {
+                var index = (int) highest;
+                this.max = Math.min(Math.max(max, lowestValue(index, precision)), highestValue(index, precision));
+            }
+        }
+
+        private long median(int index) {
+            var lowest = lowestValue(index, precision);
+            return lowest + (highestValue(index, precision) - lowest) / 2;
+        }
+
+        /**
+         * Get the count of the recorded values.
+         *
+         * @return The count.
+         */
+        public long Count() {
+            return count;
+        }
+
+        /**
+         * Get the value at the percentile in nanoseconds. The value is the
+         * greatest value of the bucket, so it is never less than the real
+         * value.
+         *
+         * @param percentile The percentile (0 through 100).
+         * @return The value in nanoseconds, or 0 if nothing is recorded.
+         */
+        public long ValueAt(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException(String.format("The percentile: %s is out of range of (0 ~ 100).", percentile));
+            }
+            if (count == 0) {
+                return 0L;
+            }
+            var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            var seen = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i, precision), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Get the value at the percentile.
+         *
+         * @param percentile The percentile (0 through 100).
+         * @return The value, the part less than a tick is truncated.
+         */
+        public TimeSpan Percentile(double percentile) {
+            return TimeSpan.FromTicks(ValueAt(percentile) / 100L);
+        }
+
+        /**
+         * Get the median.
+         *
+         * @return The 50th percentile.
+         */
+        public TimeSpan P50() {
+            return Percentile(50);
+        }
+
+        /**
+         * Get the 99th percentile.
+         *
+         * @return The 99th percentile.
+         */
+        public TimeSpan P99() {
+            return Percentile(99);
+        }
+
+        /**
+         * Get the 99.9th percentile.
+         *
+         * @return The 99.9th percentile.
+         */
+        public TimeSpan P999() {
+            return Percentile(99.9);
+        }
+
+        /**
+         * Get the greatest recorded value.
+         *
+         * @return The greatest value.
+         */
+        public TimeSpan Max() {
+            return TimeSpan.FromTicks(max / 100L);
+        }
+
+        /**
+         * Get the mean of the recorded values, every value is read as the
+         * middle of its bucket.
+         *
+         * @return The mean.
+         */
+        public TimeSpan Mean() {
+            return TimeSpan.FromTicks((long) (mean / 100.0));
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", p50=" + P50() + ", p99=" + P99() + ", p999=" + P999() + ", max=" + Max();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package cn.vorbote.time;
+
+/**
+ * {@code LineParseException} is thrown by
+ * {@link DateTimeFormatter#ParseAll(java.nio.CharBuffer, long[], int)} when
+ * a line does not match the pattern. The lines before it are parsed
+ * already, so the caller can keep their timestamps, skip the invalid
+ * line and resume from the position of the buffer, which is at the start
+ * of the invalid line.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public class LineParseException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int parsed;
+
+    /**
+     * Create an exception of the invalid line.
+     *
+     * @param message The message.
+     * @param parsed  The count of timestamps stored before the line.
+     * @param cause   The failure of parsing the line.
+     */
+    public LineParseException(String message, int parsed, RuntimeException cause) {
+        super(message, cause);
+        this.parsed = parsed;
+    }
+
+    /**
+     * Get the count of timestamps stored before the invalid line.
+     *
+     * @return The count of timestamps.
+     */
+    public int Parsed() {
+        return parsed;
+    }
+}
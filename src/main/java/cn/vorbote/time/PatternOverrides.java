@@ -0,0 +1,229 @@
+package cn.vorbote.time;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@code PatternOverrides} keeps the pattern of every {@link DateTime}
+ * which does not use the default pattern, so an instance holds nothing but
+ * its timestamp. The entries are keyed by the identity of the instance,
+ * since its timestamp and with it its hash code may change, and the key is
+ * weak, so an entry goes away with its instance.
+ * <p>
+ * Until a pattern is overridden the first time, a lookup is a read of a
+ * single flag. After that it is a lookup without lock in one of the
+ * segments, and a change takes the lock of its segment.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+final class PatternOverrides {
+
+    private static final int SEGMENTS = 16;
+
+    private static final Segment[] TABLE = new Segment[SEGMENTS];
+
+    static {
+        for (var i = 0; i < SEGMENTS; i++) {
+            TABLE[i] = new Segment();
+        }
+    }
+
+    /**
+     * Whether a pattern has ever been overridden.
+     */
+    private static volatile boolean used;
+
+    private PatternOverrides() {
+    }
+
+    /**
+     * Get the pattern of the instance.
+     *
+     * @param time The instance.
+     * @return The pattern, the default pattern if it is not overridden.
+     */
+    static String get(DateTime time) {
+        if (!used) {
+            return DateTimeFormatter.DEFAULT_PATTERN;
+        }
+        var hash = System.identityHashCode(time);
+        return TABLE[hash & (SEGMENTS - 1)].get(time, hash);
+    }
+
+    /**
+     * Set the pattern of the instance, the default pattern removes the
+     * entry of the instance.
+     *
+     * @param time    The instance.
+     * @param pattern The pattern, may be {@code null}.
+     */
+    static void set(DateTime time, String pattern) {
+        var isDefault = DateTimeFormatter.DEFAULT_PATTERN.equals(pattern);
+        if (isDefault && !used) {
+            return;
+        }
+        if (!used) {
+            used = true;
+        }
+        var hash = System.identityHashCode(time);
+        var segment = TABLE[hash & (SEGMENTS - 1)];
+        if (isDefault) {
+            segment.remove(time, hash);
+        } else {
+            segment.put(time, hash, pattern);
+        }
+    }
+
+    /**
+     * Get the count of the entries, including the ones whose instance is
+     * collected but not removed yet.
+     *
+     * @return The count of the entries.
+     */
+    static int size() {
+        var size = 0;
+        for (var segment : TABLE) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static final class Entry extends WeakReference<DateTime> {
+
+        final int hash;
+
+        final Entry next;
+
+        volatile String pattern;
+
+        Entry(DateTime time, int hash, String pattern, Entry next, ReferenceQueue<DateTime> queue) {
+            super(time, queue);
+            this.hash = hash;
+            this.pattern = pattern;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A chained hash table of entries, the low bits of the hash choose the
+     * segment and the next bits choose the bucket. The chains are never
+     * changed but replaced, so a lookup takes no lock, and a change takes
+     * the lock of the segment.
+     */
+    private static final class Segment {
+
+        private final ReferenceQueue<DateTime> queue = new ReferenceQueue<>();
+
+        private volatile AtomicReferenceArray<Entry> buckets = new AtomicReferenceArray<>(16);
+
+        /**
+         * The count of entries, guarded by this segment.
+         */
+        private int size;
+
+        private static int index(int hash, int length) {
+            return (hash >>> 4) & (length - 1);
+        }
+
+        String get(DateTime time, int hash) {
+            var buckets = this.buckets;
+            for (var entry = buckets.get(index(hash, buckets.length())); entry != null; entry = entry.next) {
+                if (entry.get() == time) {
+                    return entry.pattern;
+                }
+            }
+            return DateTimeFormatter.DEFAULT_PATTERN;
+        }
+
+        synchronized void put(DateTime time, int hash, String pattern) {
+            expunge();
+            var buckets = this.buckets;
+            var index = index(hash, buckets.length());
+            var head = buckets.get(index);
+            for (var entry = head; entry != null; entry = entry.next) {
+                if (entry.get() == time) {
+                    entry.pattern = pattern;
+                    return;
+                }
+            }
+            buckets.set(index, new Entry(time, hash, pattern, head, queue));
+            if (++size > buckets.length() - (buckets.length() >>> 2)) {
+                resize();
+            }
+        }
+
+        synchronized void remove(DateTime time, int hash) {
+            expunge();
+            var buckets = this.buckets;
+            for (var entry = buckets.get(index(hash, buckets.length())); entry != null; entry = entry.next) {
+                if (entry.get() == time) {
+                    unlink(entry);
+                    return;
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Remove the entries whose instance has been collected. An entry
+         * which has been copied by {@link #unlink(Entry)} or
+         * {@link #resize()} is not in the table any more and is skipped.
+         */
+        private void expunge() {
+            for (var reference = queue.poll(); reference != null; reference = queue.poll()) {
+                unlink((Entry) reference);
+            }
+        }
+
+        /**
+         * Replace the chain of the entry by a copy without it, the entries
+         * of collected instances are left out of the copy as well.
+         */
+        private void unlink(Entry removed) {
+            var buckets = this.buckets;
+            var index = index(removed.hash, buckets.length());
+            var head = buckets.get(index);
+            var entry = head;
+            while (entry != null && entry != removed) {
+                entry = entry.next;
+            }
+            if (entry == null) {
+                return;
+            }
+
+            var rest = removed.next;
+            size--;
+            for (entry = head; entry != removed; entry = entry.next) {
+                var time = entry.get();
+                if (time == null) {
+                    size--;
+                } else {
+                    rest = new Entry(time, entry.hash, entry.pattern, rest, queue);
+                }
+            }
+            buckets.set(index, rest);
+        }
+
+        private void resize() {
+            var current = this.buckets;
+            var next = new AtomicReferenceArray<Entry>(current.length() * 2);
+            var count = 0;
+            for (var i = 0; i < current.length(); i++) {
+                for (var entry = current.get(i); entry != null; entry = entry.next) {
+                    var time = entry.get();
+                    if (time != null) {
+                        var index = index(entry.hash, next.length());
+                        next.set(index, new Entry(time, entry.hash, entry.pattern, next.get(index), queue));
+                        count++;
+                    }
+                }
+            }
+            size = count;
+            this.buckets = next;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cn.vorbote.time;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * {@code PositionSort} sorts the positions of entries held in parallel
+ * arrays, so the builders of {@link IntervalIndex} and
+ * {@link TimestampIndex} order their columns without boxing an entry.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+final class PositionSort {
+
+    private PositionSort() {
+    }
+
+    /**
+     * Sort the positions with a stable merge sort.
+     *
+     * @param size       The count of positions.
+     * @param comparator Compares the entries at 2 positions.
+     * @return The positions in order, or {@code null} if the entries are
+     * sorted already.
+     */
+    static int[] sortedOrder(int size, IntBinaryOperator comparator) {
+        var sorted = true;
+        for (var i = 1; i < size && sorted; i++) {
+            sorted = comparator.applyAsInt(i - 1, i) <= 0;
+        }
+        if (sorted) {
+            return null;
+        }
+        var order = new int[size];
+        for (var i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        var buffer = new int[size];
+        for (var width = 1; width < size; width <<= 1) {
+            for (var low = 0; low < size - width; low += width << 1) {
+                var mid = low + width;
+                var high = Math.min(mid + width, size);
+                if (comparator.applyAsInt(order[mid - 1], order[mid]) <= 0) {
+                    continue;
+                }
+                System.arraycopy(order, low, buffer, low, high - low);
+                int i = low, j = mid, k = low;
+                while (i < mid && j < high) {
+                    order[k++] = comparator.applyAsInt(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+                }
+                while (i < mid) {
+                    order[k++] = buffer[i++];
+                }
+                while (j < high) {
+                    order[k++] = buffer[j++];
+                }
+            }
+        }
+        return order;
+    }
+}
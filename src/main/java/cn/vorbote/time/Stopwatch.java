@@ -0,0 +1,147 @@
+package cn.vorbote.time;
+
+/**
+ * {@code Stopwatch} measures elapsed time by {@code System.nanoTime()},
+ * just like the {@code Stopwatch} of Dotnet. A stopwatch can be started
+ * and stopped many times, the elapsed time is accumulated until it is
+ * reset.
+ * <p>
+ * The elapsed time is returned as a {@code TimeSpan}, or as nanoseconds
+ * by {@link #ElapsedNanos()} for the hot path which should not create
+ * any object, for example to record into a {@link LatencyHistogram}.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class Stopwatch {
+
+    /**
+     * The nanoseconds accumulated by the previous runs.
+     */
+    private long elapsed;
+
+    /**
+     * The value of {@code System.nanoTime()} when the current run
+     * started.
+     */
+    private long started;
+
+    private boolean running;
+
+    /**
+     * Create a stopwatch which is not started.
+     */
+    public Stopwatch() {
+    }
+
+    /**
+     * Create a stopwatch and start it.
+     *
+     * @return A running stopwatch.
+     */
+    public static Stopwatch StartNew() {
+        return new Stopwatch().Start();
+    }
+
+    /**
+     * Get the current value of the timer used by the stopwatch.
+     *
+     * @return The current value of {@code System.nanoTime()}.
+     */
+    public static long GetTimestamp() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Start or resume measuring, nothing happens if the stopwatch is
+     * running.
+     *
+     * @return This stopwatch.
+     */
+    public Stopwatch Start() {
+        if (!running) {
+            started = System.nanoTime();
+            running = true;
+        }
+        return this;
+    }
+
+    /**
+     * Stop measuring, nothing happens if the stopwatch is not running.
+     *
+     * @return This stopwatch.
+     */
+    public Stopwatch Stop() {
+        if (running) {
+            elapsed += System.nanoTime() - started;
+            running = false;
+        }
+        return this;
+    }
+
+    /**
+     * Stop measuring and clear the elapsed time.
+     *
+     * @return This stopwatch.
+     */
+    public Stopwatch Reset() {
+        elapsed = 0L;
+        running = false;
+        return this;
+    }
+
+    /**
+     * Clear the elapsed time and start measuring.
+     *
+     * @return This stopwatch.
+     */
+    public Stopwatch Restart() {
+        elapsed = 0L;
+        started = System.nanoTime();
+        running = true;
+        return this;
+    }
+
+    /**
+     * Returns an indication whether the stopwatch is running.
+     *
+     * @return {@code true} if the stopwatch is running.
+     */
+    public boolean IsRunning() {
+        return running;
+    }
+
+    /**
+     * Get the total elapsed time in nanoseconds.
+     *
+     * @return The elapsed nanoseconds.
+     */
+    public long ElapsedNanos() {
+        return running ? elapsed + (System.nanoTime() - started) : elapsed;
+    }
+
+    /**
+     * Get the total elapsed time in milliseconds.
+     *
+     * @return The elapsed milliseconds.
+     */
+    public long ElapsedMillis() {
+        return ElapsedNanos() / 1_000_000L;
+    }
+
+    /**
+     * Get the total elapsed time, the part less than a tick of
+     * {@code TimeSpan} (100 nanoseconds) is truncated.
+     *
+     * @return The elapsed time.
+     */
+    public TimeSpan Elapsed() {
+        return TimeSpan.FromTicks(ElapsedNanos() / 100L);
+    }
+
+    @Override
+    public String toString() {
+        return Elapsed().toString();
+    }
+}
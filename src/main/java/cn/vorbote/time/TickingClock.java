@@ -0,0 +1,261 @@
+package cn.vorbote.time;
+
+import java.util.Arrays;
+
+/**
+ * {@code TickingClock} caches the current second. A service stamping
+ * many requests per second reads a shared snapshot instead of calling
+ * {@code System.currentTimeMillis()} and creating objects for every
+ * request. The snapshot holds the current second as a shared
+ * {@code ImmutableDateTime} and the formatted strings of the current
+ * second for the default pattern and every registered pattern.
+ * <p>
+ * The snapshot is either refreshed by a daemon thread at every second
+ * boundary, see {@link #Start()}, or refreshed by the first read after
+ * the second changes, see {@link #Lazy()}. Reads never lock, they read a
+ * volatile reference only.
+ * <p>
+ * Install it with {@code DateTime.Clock(TickingClock.Start())} to make
+ * {@code DateTime.Now()} and {@code ImmutableDateTime.Now()} use it.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class TickingClock implements Clock, AutoCloseable {
+
+    /**
+     * A snapshot of a second.
+     */
+    private static final class Tick {
+
+        final long millis;
+
+        final ImmutableDateTime now;
+
+        final String[] patterns;
+
+        final String[] texts;
+
+        Tick(long millis, ImmutableDateTime now, String[] patterns, String[] texts) {
+            this.millis = millis;
+            this.now = now;
+            this.patterns = patterns;
+            this.texts = texts;
+        }
+    }
+
+    /**
+     * The source of the time.
+     */
+    private final Clock source;
+
+    /**
+     * Whether the snapshot is refreshed by readers.
+     */
+    private final boolean lazy;
+
+    /**
+     * The patterns to be formatted at each second, the first one is the
+     * default pattern.
+     */
+    private volatile String[] patterns = {DateTimeFormatter.DEFAULT_PATTERN};
+
+    /**
+     * The snapshot of the current second.
+     */
+    private volatile Tick tick;
+
+    /**
+     * The daemon thread, or {@code null} for a lazy clock.
+     */
+    private final Thread ticker;
+
+    private TickingClock(Clock source, boolean lazy) {
+        this.source = source;
+        this.lazy = lazy;
+        this.tick = snapshot(source.Millis(), null);
+
+        if (lazy) {
+            this.ticker = null;
+        } else {
+            this.ticker = new Thread(this::run, "vorbote-ticking-clock");
+            this.ticker.setDaemon(true);
+            this.ticker.start();
+        }
+    }
+
+    /**
+     * Start a clock of the system time refreshed by a daemon thread.
+     *
+     * @return A started clock.
+     */
+    public static TickingClock Start() {
+        return Start(Clock.SYSTEM);
+    }
+
+    /**
+     * Start a clock of the source refreshed by a daemon thread.
+     *
+     * @param source The source of the time.
+     * @return A started clock.
+     */
+    public static TickingClock Start(Clock source) {
+        return new TickingClock(source, false);
+    }
+
+    /**
+     * Create a clock of the system time refreshed by the first read after
+     * each second.
+     *
+     * @return A lazy clock.
+     */
+    public static TickingClock Lazy() {
+        return Lazy(Clock.SYSTEM);
+    }
+
+    /**
+     * Create a clock of the source refreshed by the first read after each
+     * second. Every read still calls the source, but nothing is created
+     * until the second changes.
+     *
+     * @param source The source of the time.
+     * @return A lazy clock.
+     */
+    public static TickingClock Lazy(Clock source) {
+        return new TickingClock(source, true);
+    }
+
+    /**
+     * Get the Java timestamp of the latest refresh. It is coarse unless
+     * the clock is lazy.
+     *
+     * @return Milliseconds since 1970-01-01T00:00:00Z.
+     */
+    @Override
+    public long Millis() {
+        return current().millis;
+    }
+
+    @Override
+    public long Seconds() {
+        return current().now.Unix();
+    }
+
+    /**
+     * Get the current second, all callers in the same second share the
+     * same instance.
+     *
+     * @return The current Date and Time.
+     */
+    public ImmutableDateTime Now() {
+        return current().now;
+    }
+
+    /**
+     * Get the current second in the default pattern.
+     *
+     * @return A string time expression.
+     */
+    public String NowString() {
+        return current().texts[0];
+    }
+
+    /**
+     * Get the current second in the pattern. The string is formatted once
+     * per second if the pattern is registered, otherwise it is formatted
+     * on every call.
+     *
+     * @param pattern The pattern.
+     * @return A string time expression.
+     * @see #Register(String)
+     */
+    public String NowString(String pattern) {
+        var current = current();
+        var patterns = current.patterns;
+        for (var i = 0; i < patterns.length; i++) {
+            if (patterns[i].equals(pattern)) {
+                return current.texts[i];
+            }
+        }
+        return DateTimeFormatter.Of(pattern).Format(current.now.Unix());
+    }
+
+    /**
+     * Register a pattern to be formatted once per second.
+     *
+     * @param pattern The pattern.
+     * @return This clock.
+     */
+    public synchronized TickingClock Register(String pattern) {
+        DateTimeFormatter.Of(pattern);
+        if (!Arrays.asList(patterns).contains(pattern)) {
+            var registered = Arrays.copyOf(patterns, patterns.length + 1);
+            registered[patterns.length] = pattern;
+            patterns = registered;
+            tick = snapshot(tick.millis, null);
+        }
+        return this;
+    }
+
+    /**
+     * Stop the daemon thread. The clock keeps returning the last second
+     * after stopped.
+     */
+    @Override
+    public void close() {
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    /**
+     * Get the snapshot, refresh it first if the clock is lazy and the
+     * second has changed.
+     */
+    private Tick current() {
+        var current = tick;
+        if (lazy) {
+            var millis = source.Millis();
+            if (Math.floorDiv(millis, 1000L) != current.now.Unix()) {
+                current = snapshot(millis, current);
+                tick = current;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Build the snapshot of the time.
+     *
+     * @param millis   Java timestamp.
+     * @param previous The previous snapshot to reuse if the second and
+     *                 the patterns have not changed.
+     */
+    private Tick snapshot(long millis, Tick previous) {
+        var seconds = Math.floorDiv(millis, 1000L);
+        var patterns = this.patterns;
+        if (previous != null && previous.now.Unix() == seconds && previous.patterns == patterns) {
+            return new Tick(millis, previous.now, patterns, previous.texts);
+        }
+
+        var texts = new String[patterns.length];
+        for (var i = 0; i < patterns.length; i++) {
+            texts[i] = DateTimeFormatter.Of(patterns[i]).Format(seconds);
+        }
+        return new Tick(millis, ImmutableDateTime.Of(seconds), patterns, texts);
+    }
+
+    /**
+     * Refresh the snapshot at every second boundary.
+     */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            var millis = source.Millis();
+            tick = snapshot(millis, tick);
+            try {
+                Thread.sleep(1000L - Math.floorMod(millis, 1000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -1,46 +1,598 @@
 package cn.vorbote.time;
 
-import lombok.*;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.time.Duration;
+import java.util.Objects;
 
 /**
  * Represents a time interval. We use this class to
  * show diffs from 2 {@code DateTime} instances.
+ * <p>
+ * A {@code TimeSpan} is stored as a single {@code long} count of ticks,
+ * a tick is 100 nanoseconds just like the {@code TimeSpan} of Dotnet, so
+ * the span is always normalized and the arithmetic is one operation on
+ * a {@code long}. The days, hours, minutes and seconds are derived from
+ * the ticks, they have the same sign as the span.
+ * <p>
+ * A {@code TimeSpan} is serialized in the compact encoding of
+ * {@link DateTimeCodec}.
  *
  * @author vorbote thills@vorbote.cn
  */
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-@EqualsAndHashCode
-public class TimeSpan {
-
-    private int days;           // 日期(1-根据情况而定)
-    private int hours;          // 小时(0-23)
-    private int minutes;        // 分钟(0-59)
-    private int seconds;        // 秒数(0-59)
+public class TimeSpan implements Comparable<TimeSpan>, Externalizable {
 
-    @Override
-    public String toString() {
-        return String.format("%d.%02d:%02d:%02d",
-                days, hours, minutes, seconds);
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ticks in a millisecond.
+     */
+    public static final long TICKS_PER_MILLISECOND = 10_000L;
+
+    /**
+     * Ticks in a second.
+     */
+    public static final long TICKS_PER_SECOND = TICKS_PER_MILLISECOND * 1000L;
+
+    /**
+     * Ticks in a minute.
+     */
+    public static final long TICKS_PER_MINUTE = TICKS_PER_SECOND * 60L;
+
+    /**
+     * Ticks in an hour.
+     */
+    public static final long TICKS_PER_HOUR = TICKS_PER_MINUTE * 60L;
+
+    /**
+     * Ticks in a day.
+     */
+    public static final long TICKS_PER_DAY = TICKS_PER_HOUR * 24L;
+
+    private long ticks;
+
+    /**
+     * Create an empty time span.
+     */
+    public TimeSpan() {
+    }
+
+    /**
+     * Create a time span of the ticks.
+     *
+     * @param ticks A number of 100-nanosecond ticks.
+     */
+    public TimeSpan(long ticks) {
+        this.ticks = ticks;
+    }
+
+    /**
+     * Create a time span of the days, hours, minutes and seconds. The
+     * parts are not required to be in range, for example 36 hours is the
+     * same as 1 day and 12 hours.
+     *
+     * @param days    The days.
+     * @param hours   The hours.
+     * @param minutes The minutes.
+     * @param seconds The seconds.
+     */
+    public TimeSpan(int days, int hours, int minutes, int seconds) {
+        this.ticks = ticks(days, hours, minutes, seconds, 0);
+    }
+
+    private static long ticks(long days, long hours, long minutes, long seconds, long millis) {
+        var total = days * 86400_000L + hours * 3600_000L + minutes * 60_000L + seconds * 1000L + millis;
+        return Math.multiplyExact(total, TICKS_PER_MILLISECOND);
+    }
+
+    /**
+     * Get a time span of the ticks.
+     *
+     * @param ticks A number of 100-nanosecond ticks.
+     * @return A {@code TimeSpan} instance.
+     */
+    public static TimeSpan FromTicks(long ticks) {
+        return new TimeSpan(ticks);
+    }
+
+    /**
+     * Get a time span of the milliseconds.
+     *
+     * @param millis A number of milliseconds.
+     * @return A {@code TimeSpan} instance.
+     */
+    public static TimeSpan FromMillis(long millis) {
+        return new TimeSpan(Math.multiplyExact(millis, TICKS_PER_MILLISECOND));
+    }
+
+    /**
+     * Get a time span of the seconds.
+     *
+     * @param seconds A number of seconds.
+     * @return A {@code TimeSpan} instance.
+     */
+    public static TimeSpan FromSeconds(long seconds) {
+        return new TimeSpan(Math.multiplyExact(seconds, TICKS_PER_SECOND));
+    }
+
+    /**
+     * Get a time span of the seconds, the fraction is rounded to the
+     * nearest tick.
+     *
+     * @param seconds A number of whole and fractional seconds.
+     * @return A {@code TimeSpan} instance.
+     */
+    public static TimeSpan FromSeconds(double seconds) {
+        var ticks = seconds * TICKS_PER_SECOND;
+        if (Double.isNaN(ticks) || ticks >= 0x1p63 || ticks < -0x1p63) {
+            throw new ArithmeticException("The time span is too long: " + seconds + " seconds");
+        }
+        return new TimeSpan(Math.round(ticks));
+    }
+
+    /**
+     * Get a time span of the {@code Duration}, the part less than a tick
+     * is truncated.
+     *
+     * @param duration The duration.
+     * @return A {@code TimeSpan} instance.
+     * @throws ArithmeticException If the duration is too long.
+     */
+    public static TimeSpan FromDuration(Duration duration) {
+        var seconds = duration.getSeconds();
+        var nanos = duration.getNano();
+        if (seconds < 0 && nanos > 0) {
+            // Truncate towards zero like the other conversions.
+            seconds++;
+            nanos -= 1_000_000_000;
+        }
+        return new TimeSpan(Math.addExact(Math.multiplyExact(seconds, TICKS_PER_SECOND), nanos / 100));
+    }
+
+    /**
+     * Compare 2 time spans.
+     *
+     * @param a A time span.
+     * @param b Another time span.
+     * @return A negative number, zero or a positive number if {@code a}
+     * is shorter than, equal to or longer than {@code b}.
+     */
+    public static int Compare(TimeSpan a, TimeSpan b) {
+        return Long.compare(a.ticks, b.ticks);
+    }
+
+    /**
+     * Get a builder of {@code TimeSpan}.
+     *
+     * @return A new builder.
+     */
+    public static TimeSpanBuilder builder() {
+        return new TimeSpanBuilder();
+    }
+
+    /**
+     * The builder of {@code TimeSpan}, the parts are added up when the
+     * span is built.
+     */
+    public static class TimeSpanBuilder {
+
+        private int days;
+
+        private int hours;
+
+        private int minutes;
+
+        private int seconds;
+
+        private long millis;
+
+        TimeSpanBuilder() {
+        }
+
+        public TimeSpanBuilder days(int days) {
+            this.days = days;
+            return this;
+        }
+
+        public TimeSpanBuilder hours(int hours) {
+            this.hours = hours;
+            return this;
+        }
+
+        public TimeSpanBuilder minutes(int minutes) {
+            this.minutes = minutes;
+            return this;
+        }
+
+        public TimeSpanBuilder seconds(int seconds) {
+            this.seconds = seconds;
+            return this;
+        }
+
+        public TimeSpanBuilder millis(long millis) {
+            this.millis = millis;
+            return this;
+        }
+
+        public TimeSpan build() {
+            return new TimeSpan(ticks(days, hours, minutes, seconds, millis));
+        }
+
+        @Override
+        public String toString() {
+            return "TimeSpan.TimeSpanBuilder(days=" + days + ", hours=" + hours + ", minutes=" + minutes
+                    + ", seconds=" + seconds + ", millis=" + millis + ")";
+        }
+    }
+
+    /**
+     * Get the ticks of this time span.
+     *
+     * @return The number of 100-nanosecond ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Get the days part of this time span.
+     *
+     * @return The whole days.
+     */
+    public int getDays() {
+        return (int) (ticks / TICKS_PER_DAY);
+    }
+
+    /**
+     * Get the hours part of this time span.
+     *
+     * @return The hours (-23 through 23).
+     */
+    public int getHours() {
+        return (int) (ticks / TICKS_PER_HOUR % 24);
+    }
+
+    /**
+     * Get the minutes part of this time span.
+     *
+     * @return The minutes (-59 through 59).
+     */
+    public int getMinutes() {
+        return (int) (ticks / TICKS_PER_MINUTE % 60);
+    }
+
+    /**
+     * Get the seconds part of this time span.
+     *
+     * @return The seconds (-59 through 59).
+     */
+    public int getSeconds() {
+        return (int) (ticks / TICKS_PER_SECOND % 60);
+    }
+
+    /**
+     * Get the milliseconds part of this time span.
+     *
+     * @return The milliseconds (-999 through 999).
+     */
+    public int getMilliseconds() {
+        return (int) (ticks / TICKS_PER_MILLISECOND % 1000);
+    }
+
+    /**
+     * Replace the days part of this time span.
+     *
+     * @param days The days.
+     * @deprecated A time span is normalized, use the factories or the
+     * arithmetic methods instead.
+     */
+    @Deprecated
+    public void setDays(int days) {
+        ticks += ((long) days - getDays()) * TICKS_PER_DAY;
     }
 
     /**
-     * Get the total seconds in this {@code TimeSpan}.
+     * Replace the hours part of this time span.
+     *
+     * @param hours The hours.
+     * @deprecated A time span is normalized, use the factories or the
+     * arithmetic methods instead.
+     */
+    @Deprecated
+    public void setHours(int hours) {
+        ticks += ((long) hours - getHours()) * TICKS_PER_HOUR;
+    }
+
+    /**
+     * Replace the minutes part of this time span.
+     *
+     * @param minutes The minutes.
+     * @deprecated A time span is normalized, use the factories or the
+     * arithmetic methods instead.
+     */
+    @Deprecated
+    public void setMinutes(int minutes) {
+        ticks += ((long) minutes - getMinutes()) * TICKS_PER_MINUTE;
+    }
+
+    /**
+     * Replace the seconds part of this time span.
+     *
+     * @param seconds The seconds.
+     * @deprecated A time span is normalized, use the factories or the
+     * arithmetic methods instead.
+     */
+    @Deprecated
+    public void setSeconds(int seconds) {
+        ticks += ((long) seconds - getSeconds()) * TICKS_PER_SECOND;
+    }
+
+    /**
+     * Returns a new time span of the sum of this span and another span.
+     *
+     * @param ts Another time span.
+     * @return The sum.
+     * @throws ArithmeticException If the result overflows.
+     */
+    public TimeSpan Add(TimeSpan ts) {
+        return new TimeSpan(Math.addExact(ticks, ts.ticks));
+    }
+
+    /**
+     * Returns a new time span of the difference of this span and another
+     * span.
+     *
+     * @param ts Another time span.
+     * @return The difference.
+     * @throws ArithmeticException If the result overflows.
+     */
+    public TimeSpan Subtract(TimeSpan ts) {
+        return new TimeSpan(Math.subtractExact(ticks, ts.ticks));
+    }
+
+    /**
+     * Returns a new time span of the opposite sign.
+     *
+     * @return The negated span.
+     * @throws ArithmeticException If the span is the minimum value.
+     */
+    public TimeSpan Negate() {
+        return new TimeSpan(Math.negateExact(ticks));
+    }
+
+    /**
+     * Returns a new time span which is this span times the factor.
+     *
+     * @param factor The factor.
+     * @return The product.
+     * @throws ArithmeticException If the result overflows.
+     */
+    public TimeSpan Multiply(long factor) {
+        return new TimeSpan(Math.multiplyExact(ticks, factor));
+    }
+
+    /**
+     * Returns a new time span which is this span times the factor, the
+     * result is rounded to the nearest tick.
+     *
+     * @param factor The factor.
+     * @return The product.
+     * @throws ArithmeticException If the result overflows.
+     */
+    public TimeSpan Multiply(double factor) {
+        var product = ticks * factor;
+        if (Double.isNaN(product) || product >= 0x1p63 || product < -0x1p63) {
+            throw new ArithmeticException("The time span is too long: " + this + " * " + factor);
+        }
+        return new TimeSpan(Math.round(product));
+    }
+
+    /**
+     * Get the total milliseconds in this {@code TimeSpan}, the sub
+     * millisecond part is truncated.
+     *
+     * @return The total milliseconds in this {@code TimeSpan}.
+     */
+    public long TotalMillis() {
+        return ticks / TICKS_PER_MILLISECOND;
+    }
+
+    /**
+     * Get the total seconds in this {@code TimeSpan}, the sub second
+     * part is truncated.
      *
      * @return The total seconds in this {@code TimeSpan}.
      */
     public long TotalSeconds() {
-        return days * 86400L + hours * 3600L + minutes * 60L + seconds;
+        return ticks / TICKS_PER_SECOND;
+    }
+
+    /**
+     * Convert this {@code TimeSpan} to a {@code Duration}.
+     *
+     * @return A {@code Duration} of the same length.
+     */
+    public Duration ToDuration() {
+        return Duration.ofSeconds(ticks / TICKS_PER_SECOND, ticks % TICKS_PER_SECOND * 100);
     }
 
     /**
      * Get the total hours in this {@code TimeSpan}.
      *
-     * @return The total milliseconds in this {@code TimeSpan}.
+     * @return The total hours in this {@code TimeSpan}.
      */
     public double TotalHours() {
-        return TotalSeconds() / 60. / 60.;
+        return (double) ticks / TICKS_PER_HOUR;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        DateTimeCodec.write(this, out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        ticks = DateTimeCodec.readTicks(in);
+    }
+
+    @Override
+    public int compareTo(TimeSpan o) {
+        return Long.compare(ticks, o.ticks);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeSpan timeSpan = (TimeSpan) o;
+        return ticks == timeSpan.ticks;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(ticks);
+    }
+
+    /**
+     * Converts the text of a time span to {@code TimeSpan}, the text is in
+     * any of the formats of {@link #ToString(String)}, or a count of days.
+     *
+     * @param text The text, such as {@code 1.02:03:04.5}.
+     * @return A {@code TimeSpan} instance.
+     * @throws IllegalArgumentException If the text is not a time span.
+     * @throws cn.vorbote.commons.except.TimeOutRangeException If a part is out of range.
+     */
+    public static TimeSpan Parse(CharSequence text) {
+        return TimeSpanFormat.parse(text, 0, text.length(), true);
+    }
+
+    /**
+     * Converts a region of the text to {@code TimeSpan}, no substring is
+     * created.
+     *
+     * @param text  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return A {@code TimeSpan} instance.
+     * @throws IllegalArgumentException If the region is not a time span.
+     * @throws cn.vorbote.commons.except.TimeOutRangeException If a part is out of range.
+     * @see #Parse(CharSequence)
+     */
+    public static TimeSpan Parse(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        return TimeSpanFormat.parse(text, start, end, true);
+    }
+
+    /**
+     * Converts the text of a time span to {@code TimeSpan}.
+     *
+     * @param text The text.
+     * @return A {@code TimeSpan} instance, or {@code null} if the text is
+     * invalid.
+     * @see #Parse(CharSequence)
+     */
+    public static TimeSpan TryParse(CharSequence text) {
+        return text == null ? null : TimeSpanFormat.parse(text, 0, text.length(), false);
+    }
+
+    /**
+     * Converts a region of the text to {@code TimeSpan}, no substring is
+     * created.
+     *
+     * @param text  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return A {@code TimeSpan} instance, or {@code null} if the region
+     * is invalid.
+     * @see #Parse(CharSequence)
+     */
+    public static TimeSpan TryParse(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        return TimeSpanFormat.parse(text, start, end, false);
+    }
+
+    /**
+     * Format this time span in a standard format of the {@code TimeSpan}
+     * of Dotnet, with the invariant separators:
+     * <ul>
+     *     <li>{@code "c"}: {@code [-][d.]hh:mm:ss[.fffffff]};</li>
+     *     <li>{@code "g"}: {@code [-][d:]h:mm:ss[.FFFFFFF]}, the trailing
+     *     zeros of the fraction are left out;</li>
+     *     <li>{@code "G"}: {@code [-]d:hh:mm:ss.fffffff}.</li>
+     * </ul>
+     *
+     * @param format The format, {@code "c"}, {@code "g"} or {@code "G"}.
+     * @return The text.
+     * @throws IllegalArgumentException If the format is unknown.
+     */
+    public String ToString(String format) {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.style(format), new StringBuilder(26)).toString();
+    }
+
+    /**
+     * Append the text of {@link #toString()} to the builder.
+     *
+     * @param out The builder.
+     * @return The builder.
+     */
+    public StringBuilder FormatTo(StringBuilder out) {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.DEFAULT, out);
+    }
+
+    /**
+     * Append the text in the format to the builder.
+     *
+     * @param out    The builder.
+     * @param format The format, {@code "c"}, {@code "g"} or {@code "G"}.
+     * @return The builder.
+     * @throws IllegalArgumentException If the format is unknown.
+     * @see #ToString(String)
+     */
+    public StringBuilder FormatTo(StringBuilder out, String format) {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.style(format), out);
+    }
+
+    /**
+     * Write the text of {@link #toString()} to the array as US-ASCII.
+     *
+     * @param dst    The byte array.
+     * @param offset The index to start writing at.
+     * @return The count of bytes written.
+     * @throws IndexOutOfBoundsException If the array has no room for the
+     *                                   text, nothing is written then.
+     */
+    public int FormatTo(byte[] dst, int offset) {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.DEFAULT, dst, offset);
+    }
+
+    /**
+     * Write the text in the format to the array as US-ASCII.
+     *
+     * @param dst    The byte array.
+     * @param offset The index to start writing at.
+     * @param format The format, {@code "c"}, {@code "g"} or {@code "G"}.
+     * @return The count of bytes written.
+     * @throws IllegalArgumentException  If the format is unknown.
+     * @throws IndexOutOfBoundsException If the array has no room for the
+     *                                   text, nothing is written then.
+     * @see #ToString(String)
+     */
+    public int FormatTo(byte[] dst, int offset, String format) {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.style(format), dst, offset);
+    }
+
+    /**
+     * Get the text of this time span, which is
+     * {@code [-]d.hh:mm:ss[.fffffff]}. It is the {@code "c"} format with
+     * the days always written, and is read back by
+     * {@link #Parse(CharSequence)}.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        return TimeSpanFormat.format(ticks, TimeSpanFormat.DEFAULT, new StringBuilder(26)).toString();
     }
 }
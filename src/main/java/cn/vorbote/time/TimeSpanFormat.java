@@ -0,0 +1,398 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+
+import java.util.Objects;
+
+import static cn.vorbote.time.TimeSpan.*;
+
+/**
+ * {@code TimeSpanFormat} writes and reads the text of a {@code TimeSpan}
+ * in the standard formats of the {@code TimeSpan} of Dotnet, with the
+ * invariant separators:
+ * <ul>
+ *     <li>{@code "c"}: {@code [-][d.]hh:mm:ss[.fffffff]}, the fraction is
+ *     written if it is not zero, {@code "t"} and {@code "T"} are the
+ *     same;</li>
+ *     <li>{@code "g"}: {@code [-][d:]h:mm:ss[.FFFFFFF]}, the trailing
+ *     zeros of the fraction are left out;</li>
+ *     <li>{@code "G"}: {@code [-]d:hh:mm:ss.fffffff}, all parts are
+ *     always written.</li>
+ * </ul>
+ * {@code TimeSpan.toString()} is {@code "c"} with the days always
+ * written. The numbers are written digit by digit, nothing is boxed and
+ * no format String is parsed.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+final class TimeSpanFormat {
+
+    /**
+     * The style of {@code TimeSpan.toString()}.
+     */
+    static final int DEFAULT = 0;
+
+    /**
+     * The style of {@code "c"}.
+     */
+    static final int CONSTANT = 1;
+
+    /**
+     * The style of {@code "g"}.
+     */
+    static final int SHORT = 2;
+
+    /**
+     * The style of {@code "G"}.
+     */
+    static final int LONG = 3;
+
+    /**
+     * The greatest count of whole days of a {@code TimeSpan}.
+     */
+    private static final long MAX_DAYS = Long.MAX_VALUE / TICKS_PER_DAY;
+
+    private static final int FRACTION_DIGITS = 7;
+
+    private TimeSpanFormat() {
+    }
+
+    /**
+     * Get the style of the standard format.
+     *
+     * @param format The format, {@code "c"}, {@code "g"} or {@code "G"}.
+     * @return The style.
+     * @throws IllegalArgumentException If the format is unknown.
+     */
+    static int style(String format) {
+        switch (Objects.requireNonNull(format)) {
+            case "c":
+            case "t":
+            case "T":
+                return CONSTANT;
+            case "g":
+                return SHORT;
+            case "G":
+                return LONG;
+            default:
+                throw new IllegalArgumentException("Unknown format of TimeSpan: \"" + format
+                        + "\", the format should be one of c, g or G.");
+        }
+    }
+
+    private static boolean days(int style, long days) {
+        return style == DEFAULT || style == LONG || days != 0;
+    }
+
+    private static int fractionDigits(int style, int fraction) {
+        if (style == LONG) {
+            return FRACTION_DIGITS;
+        }
+        if (fraction == 0) {
+            return 0;
+        }
+        if (style != SHORT) {
+            return FRACTION_DIGITS;
+        }
+        var digits = FRACTION_DIGITS;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        return digits;
+    }
+
+    /**
+     * Append the text of the ticks to the builder.
+     *
+     * @param ticks The ticks.
+     * @param style The style.
+     * @param out   The builder.
+     * @return The builder.
+     */
+    static StringBuilder format(long ticks, int style, StringBuilder out) {
+        // The parts are taken from the magnitude, so they have no sign.
+        var days = Math.abs(ticks / TICKS_PER_DAY);
+        var rest = Math.abs(ticks % TICKS_PER_DAY);
+        var hours = (int) (rest / TICKS_PER_HOUR);
+        var minutes = (int) (rest / TICKS_PER_MINUTE % 60);
+        var seconds = (int) (rest / TICKS_PER_SECOND % 60);
+        var fraction = (int) (rest % TICKS_PER_SECOND);
+
+        if (ticks < 0) {
+            out.append('-');
+        }
+        if (days(style, days)) {
+            out.append(days).append(style == SHORT || style == LONG ? ':' : '.');
+        }
+        if (style == SHORT && hours < 10) {
+            out.append((char) ('0' + hours));
+        } else {
+            appendTwoDigits(out, hours);
+        }
+        out.append(':');
+        appendTwoDigits(out, minutes).append(':');
+        appendTwoDigits(out, seconds);
+        var digits = fractionDigits(style, fraction);
+        if (digits > 0) {
+            out.append('.');
+            var unit = (int) (TICKS_PER_SECOND / 10);
+            for (var i = 0; i < digits; i++, unit /= 10) {
+                out.append((char) ('0' + fraction / unit % 10));
+            }
+        }
+        return out;
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * Write the text of the ticks to the array as US-ASCII.
+     *
+     * @param ticks  The ticks.
+     * @param style  The style.
+     * @param dst    The byte array.
+     * @param offset The index to start writing at.
+     * @return The count of bytes written.
+     * @throws IndexOutOfBoundsException If the array has no room for the
+     *                                   text, nothing is written then.
+     */
+    static int format(long ticks, int style, byte[] dst, int offset) {
+        var days = Math.abs(ticks / TICKS_PER_DAY);
+        var rest = Math.abs(ticks % TICKS_PER_DAY);
+        var hours = (int) (rest / TICKS_PER_HOUR);
+        var minutes = (int) (rest / TICKS_PER_MINUTE % 60);
+        var seconds = (int) (rest / TICKS_PER_SECOND % 60);
+        var fraction = (int) (rest % TICKS_PER_SECOND);
+
+        var withDays = days(style, days);
+        var dayDigits = withDays ? digits(days) : 0;
+        var hourDigits = style == SHORT && hours < 10 ? 1 : 2;
+        var digits = fractionDigits(style, fraction);
+        var length = (ticks < 0 ? 1 : 0) + (withDays ? dayDigits + 1 : 0) + hourDigits + 6
+                + (digits > 0 ? digits + 1 : 0);
+        Objects.checkFromIndexSize(offset, length, dst.length);
+
+        var position = offset;
+        if (ticks < 0) {
+            dst[position++] = '-';
+        }
+        if (withDays) {
+            for (var i = dayDigits - 1; i >= 0; i--, days /= 10) {
+                dst[position + i] = (byte) ('0' + days % 10);
+            }
+            position += dayDigits;
+            dst[position++] = (byte) (style == SHORT || style == LONG ? ':' : '.');
+        }
+        if (hourDigits == 2) {
+            dst[position++] = (byte) ('0' + hours / 10);
+        }
+        dst[position++] = (byte) ('0' + hours % 10);
+        dst[position++] = ':';
+        dst[position++] = (byte) ('0' + minutes / 10);
+        dst[position++] = (byte) ('0' + minutes % 10);
+        dst[position++] = ':';
+        dst[position++] = (byte) ('0' + seconds / 10);
+        dst[position++] = (byte) ('0' + seconds % 10);
+        if (digits > 0) {
+            dst[position++] = '.';
+            var unit = (int) (TICKS_PER_SECOND / 10);
+            for (var i = 0; i < digits; i++, unit /= 10) {
+                dst[position++] = (byte) ('0' + fraction / unit % 10);
+            }
+        }
+        return length;
+    }
+
+    private static int digits(long value) {
+        var digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Parse a region of the text. Any of the formats is accepted, which is
+     * {@code [-]d}, {@code [-][d.]h:m[:s[.f]]} or {@code [-]d:h:m:s[.f]},
+     * where the hours, minutes and seconds have 1 or 2 digits and the
+     * fraction has 1 to 7 digits.
+     *
+     * @param text   The text.
+     * @param start  The index of the first character.
+     * @param end    The index after the last character.
+     * @param strict Whether to throw an exception for an invalid text.
+     * @return The time span, or {@code null} if the text is invalid and
+     * {@code strict} is {@code false}.
+     * @throws IllegalArgumentException If the text is invalid.
+     * @throws TimeOutRangeException    If a part is out of range.
+     */
+    static TimeSpan parse(CharSequence text, int start, int end, boolean strict) {
+        var position = start;
+        var negative = position < end && text.charAt(position) == '-';
+        if (negative) {
+            position++;
+        }
+        var count = digitCount(text, position, end, 8);
+        if (count == 0) {
+            return fail(text, start, end, position, strict);
+        }
+        var first = number(text, position, count);
+        var firstDigits = count;
+        position += count;
+        if (position == end) {
+            return ticks(negative, first, 0, 0, 0, 0, strict);
+        }
+
+        // The days followed by a '.', the clock follows then.
+        var days = 0L;
+        var dotted = text.charAt(position) == '.';
+        if (dotted) {
+            days = first;
+            position++;
+            count = digitCount(text, position, end, 2);
+            if (count == 0) {
+                return fail(text, start, end, position, strict);
+            }
+            first = number(text, position, count);
+            firstDigits = count;
+            position += count;
+        }
+        if (position == end || text.charAt(position) != ':') {
+            return fail(text, start, end, position, strict);
+        }
+
+        // 2 to 4 numbers separated by ':', 4 numbers start with the days.
+        long second, third = -1, fourth = -1;
+        position++;
+        count = digitCount(text, position, end, 2);
+        if (count == 0) {
+            return fail(text, start, end, position, strict);
+        }
+        second = number(text, position, count);
+        position += count;
+        if (position < end && text.charAt(position) == ':') {
+            position++;
+            count = digitCount(text, position, end, 2);
+            if (count == 0) {
+                return fail(text, start, end, position, strict);
+            }
+            third = number(text, position, count);
+            position += count;
+            if (!dotted && position < end && text.charAt(position) == ':') {
+                position++;
+                count = digitCount(text, position, end, 2);
+                if (count == 0) {
+                    return fail(text, start, end, position, strict);
+                }
+                fourth = number(text, position, count);
+                position += count;
+            }
+        }
+
+        long hours, minutes, seconds;
+        if (fourth >= 0) {
+            days = first;
+            hours = second;
+            minutes = third;
+            seconds = fourth;
+        } else {
+            if (firstDigits > 2) {
+                return fail(text, start, end, negative ? start + 1 : start, strict);
+            }
+            hours = first;
+            minutes = second;
+            seconds = Math.max(third, 0);
+        }
+
+        // The fraction follows the seconds only.
+        var fraction = 0L;
+        if (third >= 0 && position < end && text.charAt(position) == '.') {
+            position++;
+            count = digitCount(text, position, end, FRACTION_DIGITS);
+            if (count == 0) {
+                return fail(text, start, end, position, strict);
+            }
+            fraction = number(text, position, count);
+            for (var i = count; i < FRACTION_DIGITS; i++) {
+                fraction *= 10;
+            }
+            position += count;
+        }
+        if (position != end) {
+            return fail(text, start, end, position, strict);
+        }
+        return ticks(negative, days, hours, minutes, seconds, fraction, strict);
+    }
+
+    /**
+     * Count the digits at the position, at most the limit. A digit after
+     * the limit makes the count 0, so the text is rejected.
+     */
+    private static int digitCount(CharSequence text, int position, int end, int limit) {
+        var count = 0;
+        while (position + count < end) {
+            var c = text.charAt(position + count);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            if (++count > limit) {
+                return 0;
+            }
+        }
+        return count;
+    }
+
+    private static long number(CharSequence text, int position, int count) {
+        var value = 0L;
+        for (var i = 0; i < count; i++) {
+            value = value * 10 + (text.charAt(position + i) - '0');
+        }
+        return value;
+    }
+
+    private static TimeSpan ticks(boolean negative, long days, long hours, long minutes, long seconds, long fraction,
+                              boolean strict) {
+        if (hours > 23 || minutes > 59 || seconds > 59 || days > MAX_DAYS) {
+            if (!strict) {
+                return null;
+            }
+            if (days > MAX_DAYS) {
+                throw new TimeOutRangeException(String.format("The days: %d is out of range of (0 ~ %d).",
+                        days, MAX_DAYS));
+            }
+            if (hours > 23) {
+                throw new TimeOutRangeException(String.format("The hours: %d is out of range of (0 ~ 23).", hours));
+            }
+            throw new TimeOutRangeException(String.format("The %s: %d is out of range of (0 ~ 59).",
+                    minutes > 59 ? "minutes" : "seconds", minutes > 59 ? minutes : seconds));
+        }
+
+        // Summed as a negative magnitude, which reaches Long.MIN_VALUE.
+        var magnitude = -(days * TICKS_PER_DAY);
+        var rest = hours * TICKS_PER_HOUR + minutes * TICKS_PER_MINUTE + seconds * TICKS_PER_SECOND + fraction;
+        if (magnitude < Long.MIN_VALUE + rest || !negative && magnitude - rest == Long.MIN_VALUE) {
+            if (!strict) {
+                return null;
+            }
+            throw new TimeOutRangeException("The time span is out of range of (" + TimeSpan.FromTicks(Long.MIN_VALUE)
+                    + " ~ " + TimeSpan.FromTicks(Long.MAX_VALUE) + ").");
+        }
+        magnitude -= rest;
+        return new TimeSpan(negative ? magnitude : -magnitude);
+    }
+
+    /**
+     * Report a text which is not a time span.
+     */
+    private static TimeSpan fail(CharSequence text, int start, int end, int position, boolean strict) {
+        if (!strict) {
+            return null;
+        }
+        throw new IllegalArgumentException(String.format("Unparseable time span: \"%s\" at index %d",
+                text.subSequence(start, end), position - start));
+    }
+}
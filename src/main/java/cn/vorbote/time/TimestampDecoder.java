@@ -0,0 +1,249 @@
+package cn.vorbote.time;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * {@code TimestampDecoder} reads the timestamps written by a
+ * {@link TimestampEncoder} from a buffer, one by one by
+ * {@link #nextLong()} or in bulk into a {@code long[]} by
+ * {@link #Read(long[], int, int)}. Nothing is allocated per timestamp.
+ * <p>
+ * {@link #Seek(long)} skips the blocks whose max timestamp is before the
+ * time by reading their headers only, so a range of a long stream is
+ * found without decoding the stream.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ * @see TimestampEncoder
+ */
+public final class TimestampDecoder implements PrimitiveIterator.OfLong {
+
+    private final ByteBuffer src;
+
+    /**
+     * The position of the first block.
+     */
+    private final int start;
+
+    /**
+     * The position of the next block.
+     */
+    private int next;
+
+    /**
+     * The position of the next byte of bits and the end of the current
+     * block.
+     */
+    private int position;
+
+    private int end;
+
+    /**
+     * The bits read from the block and not consumed yet, right-aligned.
+     */
+    private long bits;
+
+    private int bitCount;
+
+    /**
+     * The count of timestamps left in the current block, and whether the
+     * first one is left.
+     */
+    private int remaining;
+
+    private boolean atFirst;
+
+    private long first;
+
+    private long previous;
+
+    private long previousDelta;
+
+    /**
+     * Whether a timestamp has been decoded by {@link #Seek(long)} and not
+     * returned yet.
+     */
+    private boolean peeked;
+
+    private long peekedValue;
+
+    /**
+     * Create a decoder of the blocks from the position to the limit of
+     * the buffer, the position of the buffer is not changed.
+     *
+     * @param src The buffer.
+     */
+    public TimestampDecoder(ByteBuffer src) {
+        this.src = Objects.requireNonNull(src).duplicate();
+        this.start = src.position();
+        this.next = start;
+    }
+
+    /**
+     * Move back to the first timestamp.
+     */
+    public void Rewind() {
+        next = start;
+        remaining = 0;
+        peeked = false;
+    }
+
+    /**
+     * Get the count of timestamps left in the stream, the blocks are
+     * counted by their headers.
+     *
+     * @return The count of timestamps left.
+     */
+    public long Remaining() {
+        long count = remaining + (peeked ? 1 : 0);
+        for (var block = next; block < src.limit(); block += src.getInt(block) + 4) {
+            count += src.getInt(block + 4);
+        }
+        return count;
+    }
+
+    /**
+     * Skip the blocks whose timestamps are all before the time, and then
+     * the timestamps of the next block before the first timestamp which
+     * is not before the time. For a stream in ascending order, the next
+     * timestamp is the first one which is not before the time. The blocks
+     * are searched from the first one.
+     *
+     * @param timestamp Unix timestamp.
+     * @return {@code true} if there is a timestamp which is not before
+     * the time.
+     */
+    public boolean Seek(long timestamp) {
+        Rewind();
+        while (next < src.limit() && src.getLong(next + 4 + 4 + 8) < timestamp) {
+            next += src.getInt(next) + 4;
+        }
+        while (hasNext()) {
+            var value = nextLong();
+            if (value >= timestamp) {
+                peeked = true;
+                peekedValue = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (peeked) {
+            return true;
+        }
+        while (remaining == 0) {
+            if (next >= src.limit()) {
+                return false;
+            }
+            var length = src.getInt(next);
+            remaining = src.getInt(next + 4);
+            first = src.getLong(next + 4 + TimestampEncoder.HEADER_SIZE - 8);
+            atFirst = true;
+            position = next + 4 + TimestampEncoder.HEADER_SIZE;
+            end = next + 4 + length;
+            bits = 0L;
+            bitCount = 0;
+            next = end;
+        }
+        return true;
+    }
+
+    @Override
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (peeked) {
+            peeked = false;
+            return peekedValue;
+        }
+        remaining--;
+        if (atFirst) {
+            atFirst = false;
+            previous = first;
+            previousDelta = 0L;
+            return first;
+        }
+        previousDelta += readDeltaOfDelta();
+        previous += previousDelta;
+        return previous;
+    }
+
+    /**
+     * Read timestamps into a range of the array.
+     *
+     * @param dst    The array.
+     * @param offset The first index to write.
+     * @param length The most timestamps to read.
+     * @return The count of timestamps read, or -1 if the stream ends.
+     */
+    public int Read(long[] dst, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, dst.length);
+        if (length > 0 && !hasNext()) {
+            return -1;
+        }
+        var read = 0;
+        while (read < length && hasNext()) {
+            dst[offset + read++] = nextLong();
+        }
+        return read;
+    }
+
+    /**
+     * Get an iterator of the rest of the timestamps as {@code DateTime}.
+     * The iterator returns the same instance every time and only changes
+     * its timestamp, so copy it if it is kept.
+     *
+     * @return An iterator which shares a single {@code DateTime}.
+     */
+    public Iterator<DateTime> DateTimes() {
+        var time = new DateTime(0L);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return TimestampDecoder.this.hasNext();
+            }
+
+            @Override
+            public DateTime next() {
+                return time.Timestamp(nextLong());
+            }
+        };
+    }
+
+    private long readDeltaOfDelta() {
+        if (readBits(1) == 0) {
+            return 0L;
+        }
+        if (readBits(1) == 0) {
+            return readBits(7) - 63;
+        }
+        if (readBits(1) == 0) {
+            return readBits(9) - 255;
+        }
+        if (readBits(1) == 0) {
+            return readBits(12) - 2047;
+        }
+        return readBits(32) << 32 | readBits(32);
+    }
+
+    private long readBits(int count) {
+        while (bitCount < count) {
+            if (position >= end) {
+                throw new IllegalStateException("Truncated block of timestamps.");
+            }
+            bits = (bits << 8) | (src.get(position++) & 0xFF);
+            bitCount += 8;
+        }
+        bitCount -= count;
+        return (bits >>> bitCount) & ((1L << count) - 1);
+    }
+}
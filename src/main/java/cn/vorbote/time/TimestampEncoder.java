@@ -0,0 +1,289 @@
+package cn.vorbote.time;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@code TimestampEncoder} compresses a stream of unix timestamps by the
+ * delta-of-delta encoding of Gorilla. A timestamp which is as far from
+ * the previous one as the previous one is from its predecessor takes a
+ * single bit, so timestamps of a regular interval, such as a scrape every
+ * 10 seconds, take about 1 bit each, and a jitter of a few seconds takes
+ * 9 bits.
+ * <p>
+ * The timestamps are written in blocks, every block starts with a header
+ * of its length, its count and its min and max timestamp, so a
+ * {@link TimestampDecoder} can skip the blocks before a time without
+ * decoding them. A block is written when it is full or when
+ * {@link #Flush()} is called, the layout of a block is
+ * <pre>
+ * int  the count of bytes after this field
+ * int  the count of timestamps
+ * long the min timestamp
+ * long the max timestamp
+ * long the first timestamp
+ * bits the delta-of-delta of the other timestamps, padded to a byte
+ * </pre>
+ * in big-endian order. A delta-of-delta is written as {@code 0} if it is
+ * 0, as {@code 10} and 7 bits if it is in {@code [-63, 64]}, as
+ * {@code 110} and 9 bits if it is in {@code [-255, 256]}, as
+ * {@code 1110} and 12 bits if it is in {@code [-2047, 2048]}, and as
+ * {@code 1111} and 64 bits otherwise.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author vorbote thills@vorbote.cn
+ * @see TimestampDecoder
+ */
+public final class TimestampEncoder implements Closeable, Flushable {
+
+    /**
+     * The default count of timestamps in a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /**
+     * The bytes of a block header after the length field.
+     */
+    static final int HEADER_SIZE = 4 + 8 + 8 + 8;
+
+    private final OutputStream out;
+
+    private final ByteBuffer buffer;
+
+    private final int blockSize;
+
+    /**
+     * The encoded block, the header is filled in when the block is
+     * written.
+     */
+    private byte[] block = new byte[HEADER_SIZE + 4 + 64];
+
+    private int position;
+
+    /**
+     * The bits which are not written to the block yet, right-aligned.
+     */
+    private long bits;
+
+    private int bitCount;
+
+    private int count;
+
+    private long first;
+
+    private long min;
+
+    private long max;
+
+    private long previous;
+
+    private long previousDelta;
+
+    private long total;
+
+    private long size;
+
+    /**
+     * Create an encoder which writes the blocks to the stream.
+     *
+     * @param out The stream.
+     */
+    public TimestampEncoder(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create an encoder which writes the blocks to the stream.
+     *
+     * @param out       The stream.
+     * @param blockSize The count of timestamps in a block.
+     */
+    public TimestampEncoder(OutputStream out, int blockSize) {
+        this(Objects.requireNonNull(out), null, blockSize);
+    }
+
+    /**
+     * Create an encoder which writes the blocks to the buffer.
+     *
+     * @param buffer The buffer, a block which does not fit throws a
+     *               {@code BufferOverflowException}.
+     */
+    public TimestampEncoder(ByteBuffer buffer) {
+        this(buffer, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create an encoder which writes the blocks to the buffer.
+     *
+     * @param buffer    The buffer, a block which does not fit throws a
+     *                  {@code BufferOverflowException}.
+     * @param blockSize The count of timestamps in a block.
+     */
+    public TimestampEncoder(ByteBuffer buffer, int blockSize) {
+        this(null, Objects.requireNonNull(buffer), blockSize);
+    }
+
+    private TimestampEncoder(OutputStream out, ByteBuffer buffer, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The block size should be positive: " + blockSize);
+        }
+        this.out = out;
+        this.buffer = buffer;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Append a timestamp.
+     *
+     * @param timestamp Unix timestamp.
+     * @throws IOException If the stream fails to write a full block.
+     */
+    public void Append(long timestamp) throws IOException {
+        if (count == 0) {
+            first = min = max = previous = timestamp;
+            previousDelta = 0L;
+            position = HEADER_SIZE + 4;
+        } else {
+            var delta = timestamp - previous;
+            writeDeltaOfDelta(delta - previousDelta);
+            previous = timestamp;
+            previousDelta = delta;
+            min = Math.min(min, timestamp);
+            max = Math.max(max, timestamp);
+        }
+        total++;
+        if (++count == blockSize) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Append the timestamp of the time.
+     *
+     * @param time The time.
+     * @throws IOException If the stream fails to write a full block.
+     */
+    public void Append(DateTime time) throws IOException {
+        Append(time.Unix());
+    }
+
+    /**
+     * Append the timestamps of a range of the array.
+     *
+     * @param values The unix timestamps.
+     * @param from   The first index, inclusive.
+     * @param to     The last index, exclusive.
+     * @throws IOException If the stream fails to write a full block.
+     */
+    public void Append(long[] values, int from, int to) throws IOException {
+        Objects.checkFromToIndex(from, to, values.length);
+        for (var i = from; i < to; i++) {
+            Append(values[i]);
+        }
+    }
+
+    private void writeDeltaOfDelta(long value) {
+        if (value == 0) {
+            writeBits(0L, 1);
+        } else if (value >= -63 && value <= 64) {
+            writeBits(0b10L, 2);
+            writeBits(value + 63, 7);
+        } else if (value >= -255 && value <= 256) {
+            writeBits(0b110L, 3);
+            writeBits(value + 255, 9);
+        } else if (value >= -2047 && value <= 2048) {
+            writeBits(0b1110L, 4);
+            writeBits(value + 2047, 12);
+        } else {
+            writeBits(0b1111L, 4);
+            writeBits(value >>> 32, 32);
+            writeBits(value, 32);
+        }
+    }
+
+    private void writeBits(long value, int count) {
+        // At most 7 bits are pending, so 56 more bits fit in a long.
+        bits = (bits << count) | (value & ((1L << count) - 1));
+        bitCount += count;
+        if (position + 8 > block.length) {
+            block = Arrays.copyOf(block, block.length * 2);
+        }
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            block[position++] = (byte) (bits >>> bitCount);
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (bitCount > 0) {
+            writeBits(0L, 8 - bitCount);
+        }
+        var header = ByteBuffer.wrap(block);
+        header.putInt(position - 4).putInt(count).putLong(min).putLong(max).putLong(first);
+        if (out != null) {
+            out.write(block, 0, position);
+        } else {
+            buffer.put(block, 0, position);
+        }
+        size += position;
+        count = 0;
+        bits = 0L;
+    }
+
+    /**
+     * Get the count of timestamps appended.
+     *
+     * @return The count of timestamps.
+     */
+    public long Count() {
+        return total;
+    }
+
+    /**
+     * Get the count of bytes of the blocks written so far.
+     *
+     * @return The count of bytes.
+     */
+    public long Size() {
+        return size;
+    }
+
+    /**
+     * Write the timestamps appended since the last block as a block, even
+     * if the block is not full.
+     *
+     * @throws IOException If the stream fails to write.
+     */
+    public void Flush() throws IOException {
+        if (count > 0) {
+            writeBlock();
+        }
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        Flush();
+    }
+
+    /**
+     * Write the last block and close the stream.
+     *
+     * @throws IOException If the stream fails to write or close.
+     */
+    @Override
+    public void close() throws IOException {
+        Flush();
+        if (out != null) {
+            out.close();
+        }
+    }
+}
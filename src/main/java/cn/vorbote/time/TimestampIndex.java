@@ -0,0 +1,764 @@
+package cn.vorbote.time;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * {@code TimestampIndex} is a sorted index of unix timestamps to long
+ * payloads in a file, such as the offsets of the records of a log, which
+ * is queried by ranges of time without loading it to the heap.
+ * <p>
+ * The file is written once by a {@link Builder}, which sorts the entries
+ * in runs of a bounded size, spills every run to a temporary file and
+ * merges at most {@value #MERGE_FAN_IN} runs at a time at last, so an
+ * index of billions of entries is built in a fixed amount of memory and
+ * with a fixed count of open files. The layout of the file is
+ * <pre>
+ * int  the magic number, "VTIX"
+ * int  the version
+ * long the count of entries
+ * int  the count of entries between 2 fences
+ * int  reserved
+ * long the offset of the fences
+ * entries of a long timestamp and a long payload, sorted by timestamp
+ * fences, the timestamp of every {@value #FENCE_INTERVAL}th entry
+ * </pre>
+ * in big-endian order. The entries of the same timestamp keep the order
+ * in which they were added.
+ * <p>
+ * The index maps the entries into memory and reads the fences to the
+ * heap, 1 long for every 4 KB of entries. A query searches the fences and
+ * then a single block of entries, so it touches 1 or 2 pages of the file,
+ * and returns a {@link Cursor} which reads the entries from the mapping
+ * without copying them. An index is thread safe, a cursor is not.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class TimestampIndex implements Closeable {
+
+    /**
+     * The count of entries between 2 fences, a block of entries is a page
+     * of 4 KB.
+     */
+    public static final int FENCE_INTERVAL = 256;
+
+    /**
+     * The greatest count of runs merged at once, each of them holds an
+     * open file and a buffer of 64 KB.
+     */
+    public static final int MERGE_FAN_IN = 64;
+
+    static final int MAGIC = 0x56544958;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int ENTRY_SIZE = 16;
+
+    /**
+     * The entries of a mapped segment, a segment is 1 GB.
+     */
+    private static final int SEGMENT_SHIFT = 26;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final long count;
+
+    private final MappedByteBuffer[] segments;
+
+    private final long[] fences;
+
+    private TimestampIndex(Path path, FileChannel channel, long count, MappedByteBuffer[] segments, long[] fences) {
+        this.path = path;
+        this.channel = channel;
+        this.count = count;
+        this.segments = segments;
+        this.fences = fences;
+    }
+
+    /**
+     * Get a builder which writes an index to the file, the runs take
+     * about 24 MB of the heap.
+     *
+     * @param path The path of the file.
+     * @return A builder.
+     */
+    public static Builder builder(Path path) {
+        return new Builder(path, 1 << 20);
+    }
+
+    /**
+     * Get a builder which writes an index to the file.
+     *
+     * @param path    The path of the file.
+     * @param runSize The count of entries sorted in the heap at once, every
+     *                entry takes 24 bytes.
+     * @return A builder.
+     */
+    public static Builder builder(Path path, int runSize) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Illegal run size: " + runSize);
+        }
+        return new Builder(path, runSize);
+    }
+
+    /**
+     * Open an index file.
+     *
+     * @param path The path of the file.
+     * @return The index.
+     * @throws IOException If the file could not be read or is not an
+     *                     index.
+     */
+    public static TimestampIndex Open(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0L);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a timestamp index: " + path);
+            }
+            var version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unknown version of timestamp index: " + version);
+            }
+            var count = header.getLong();
+            var interval = header.getInt();
+            header.getInt();
+            var fencesOffset = header.getLong();
+            var fenceCount = (count + FENCE_INTERVAL - 1) / FENCE_INTERVAL;
+            if (count < 0 || interval != FENCE_INTERVAL || fencesOffset != HEADER_SIZE + count * ENTRY_SIZE
+                    || channel.size() < fencesOffset + fenceCount * 8) {
+                throw new IOException("Corrupted timestamp index: " + path);
+            }
+
+            var segments = new MappedByteBuffer[(int) ((count + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT)];
+            for (var i = 0; i < segments.length; i++) {
+                var first = (long) i << SEGMENT_SHIFT;
+                var entries = Math.min(count - first, 1L << SEGMENT_SHIFT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * ENTRY_SIZE, entries * ENTRY_SIZE);
+            }
+            var fences = new long[(int) fenceCount];
+            var buffer = ByteBuffer.allocate(8 * 8192);
+            for (var i = 0; i < fences.length; ) {
+                buffer.clear().limit(Math.min(buffer.capacity(), (fences.length - i) * 8));
+                readFully(channel, buffer, fencesOffset + i * 8L);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    fences[i++] = buffer.getLong();
+                }
+            }
+            return new TimestampIndex(path, channel, count, segments, fences);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            var read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Get the path of the file.
+     *
+     * @return The path.
+     */
+    public Path Path() {
+        return path;
+    }
+
+    /**
+     * Get the count of entries.
+     *
+     * @return The count.
+     */
+    public long Size() {
+        return count;
+    }
+
+    /**
+     * Get the timestamp of an entry.
+     *
+     * @param index The index of the entry.
+     * @return Unix timestamp.
+     */
+    public long Key(long index) {
+        return key(checkIndex(index));
+    }
+
+    /**
+     * Get the payload of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The payload.
+     */
+    public long Payload(long index) {
+        return payload(checkIndex(index));
+    }
+
+    private long checkIndex(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + count);
+        }
+        return index;
+    }
+
+    private long key(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & (1L << SEGMENT_SHIFT) - 1) * ENTRY_SIZE);
+    }
+
+    private long payload(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & (1L << SEGMENT_SHIFT) - 1) * ENTRY_SIZE + 8);
+    }
+
+    /**
+     * Get the index of the first entry at or after the time.
+     *
+     * @param timestamp Unix timestamp.
+     * @return The index, or the count of entries if every entry is before
+     * the time.
+     */
+    public long LowerBound(long timestamp) {
+        // The count of fences before the time, the entry is in the block
+        // of the last of them.
+        int low = 0, high = fences.length;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (fences[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == 0) {
+            return 0L;
+        }
+        var from = (long) (low - 1) * FENCE_INTERVAL + 1;
+        var to = Math.min((long) low * FENCE_INTERVAL, count);
+        while (from < to) {
+            var mid = (from + to) >>> 1;
+            if (key(mid) < timestamp) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Get the entries from the start to the end.
+     *
+     * @param start The start as unix timestamp, inclusive.
+     * @param end   The end as unix timestamp, exclusive.
+     * @return A cursor before the first entry.
+     */
+    public Cursor Range(long start, long end) {
+        var from = LowerBound(start);
+        return new Cursor(from, end <= start ? from : LowerBound(end));
+    }
+
+    /**
+     * Get the entries from the start to the end.
+     *
+     * @param start The start, inclusive.
+     * @param end   The end, exclusive.
+     * @return A cursor before the first entry.
+     */
+    public Cursor Range(DateTime start, DateTime end) {
+        return Range(start.Unix(), end.Unix());
+    }
+
+    /**
+     * Get the entries in the range.
+     *
+     * @param range The range.
+     * @return A cursor before the first entry.
+     */
+    public Cursor Range(DateTimeRange range) {
+        return Range(range.StartUnix(), range.EndUnix());
+    }
+
+    /**
+     * Count the entries in the range, without reading them.
+     *
+     * @param range The range.
+     * @return The count.
+     */
+    public long Count(DateTimeRange range) {
+        return range.IsEmpty() ? 0L : LowerBound(range.EndUnix()) - LowerBound(range.StartUnix());
+    }
+
+    /**
+     * Close the file. The mapping is released when it is collected, so
+     * the file may be locked on some platforms until then.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * {@code Cursor} reads the entries of a range one by one from the
+     * mapping of the file, like a {@code ResultSet}.
+     * <pre>{@code
+     * var cursor = index.Range(range);
+     * while (cursor.Next()) {
+     *     read(cursor.Payload());
+     * }
+     * }</pre>
+     */
+    public final class Cursor {
+
+        private final long from;
+
+        private long index;
+
+        private final long end;
+
+        private Cursor(long from, long end) {
+            this.from = from;
+            this.index = from - 1;
+            this.end = end;
+        }
+
+        /**
+         * Move to the next entry.
+         *
+         * @return {@code true} if there is an entry, {@code false} if the
+         * range is exhausted.
+         */
+        public boolean Next() {
+            if (index + 1 < end) {
+                index++;
+                return true;
+            }
+            index = end;
+            return false;
+        }
+
+        /**
+         * Get the index of the current entry in the file.
+         *
+         * @return The index.
+         */
+        public long Index() {
+            return index;
+        }
+
+        /**
+         * Get the timestamp of the current entry.
+         *
+         * @return Unix timestamp.
+         */
+        public long Key() {
+            return TimestampIndex.this.Key(checked());
+        }
+
+        /**
+         * Get the time of the current entry.
+         *
+         * @return A new {@code DateTime} instance.
+         */
+        public DateTime Time() {
+            return new DateTime(Key());
+        }
+
+        /**
+         * Get the payload of the current entry.
+         *
+         * @return The payload.
+         */
+        public long Payload() {
+            return payload(checked());
+        }
+
+        /**
+         * Get the count of the entries after the current one.
+         *
+         * @return The count.
+         */
+        public long Remaining() {
+            return Math.max(0L, end - index - 1);
+        }
+
+        private long checked() {
+            if (index < from || index >= end) {
+                throw new IllegalStateException("The cursor is not on an entry, call Next() first.");
+            }
+            return index;
+        }
+    }
+
+    /**
+     * {@code Builder} writes the entries of an index in any order. The
+     * entries are sorted in runs in the heap, a full run is spilled to a
+     * temporary file next to the index and the runs are merged by
+     * {@link #Build()}. More than {@value #MERGE_FAN_IN} runs are merged in
+     * passes, every pass merges groups of adjacent runs into longer
+     * runs. Close a builder which is not built to remove the
+     * temporary files.
+     * <p>
+     * This class is not thread safe.
+     */
+    public static final class Builder implements Closeable {
+
+        private final Path path;
+
+        private final long[] keys;
+
+        private final long[] payloads;
+
+        private int size;
+
+        private long count;
+
+        private final List<Path> runs = new ArrayList<>();
+
+        private final List<Long> runSizes = new ArrayList<>();
+
+        private Builder(Path path, int runSize) {
+            this.path = Objects.requireNonNull(path);
+            this.keys = new long[runSize];
+            this.payloads = new long[runSize];
+        }
+
+        /**
+         * Add an entry.
+         *
+         * @param timestamp Unix timestamp.
+         * @param payload   The payload.
+         * @return This builder.
+         * @throws IOException If a run could not be spilled.
+         */
+        public Builder Add(long timestamp, long payload) throws IOException {
+            if (size == keys.length) {
+                spill();
+            }
+            keys[size] = timestamp;
+            payloads[size++] = payload;
+            count++;
+            return this;
+        }
+
+        /**
+         * Add an entry.
+         *
+         * @param time    The time.
+         * @param payload The payload.
+         * @return This builder.
+         * @throws IOException If a run could not be spilled.
+         */
+        public Builder Add(DateTime time, long payload) throws IOException {
+            return Add(time.Unix(), payload);
+        }
+
+        /**
+         * Get the count of the added entries.
+         *
+         * @return The count.
+         */
+        public long Size() {
+            return count;
+        }
+
+        /**
+         * Sort the positions by key, the entries of the same key keep the
+         * order they are added in.
+         *
+         * @return The positions in order, or {@code null} if the keys are
+         * sorted already.
+         */
+        private int[] sortedOrder() {
+            var keys = this.keys;
+            return PositionSort.sortedOrder(size, (a, b) -> Long.compare(keys[a], keys[b]));
+        }
+
+        private void spill() throws IOException {
+            var order = sortedOrder();
+            var parent = path.toAbsolutePath().getParent();
+            var run = Files.createTempFile(parent, path.getFileName().toString(), ".run");
+            runs.add(run);
+            runSizes.add((long) size);
+            try (var channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+                var buffer = ByteBuffer.allocate(ENTRY_SIZE * 4096);
+                for (var i = 0; i < size; i++) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer);
+                    }
+                    var j = order == null ? i : order[i];
+                    buffer.putLong(keys[j]).putLong(payloads[j]);
+                }
+                drain(channel, buffer);
+            }
+            size = 0;
+        }
+
+        /**
+         * Merge groups of {@value #MERGE_FAN_IN} adjacent runs into one run
+         * each, the groups keep the order of the runs so the merge stays
+         * stable.
+         */
+        private void mergePass() throws IOException {
+            var parent = path.toAbsolutePath().getParent();
+            var merged = new ArrayList<Path>();
+            var mergedSizes = new ArrayList<Long>();
+            try {
+                for (var from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+                    var to = Math.min(from + MERGE_FAN_IN, runs.size());
+                    var run = Files.createTempFile(parent, path.getFileName().toString(), ".run");
+                    merged.add(run);
+                    var entries = 0L;
+                    for (var i = from; i < to; i++) {
+                        entries += runSizes.get(i);
+                    }
+                    mergedSizes.add(entries);
+                    try (var merger = new Merger(runs.subList(from, to), runSizes.subList(from, to));
+                         var channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+                        var buffer = ByteBuffer.allocate(ENTRY_SIZE * 4096);
+                        while (merger.next()) {
+                            if (!buffer.hasRemaining()) {
+                                drain(channel, buffer);
+                            }
+                            buffer.putLong(merger.key()).putLong(merger.payload());
+                        }
+                        drain(channel, buffer);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                for (var run : merged) {
+                    Files.deleteIfExists(run);
+                }
+                throw e;
+            }
+            close();
+            runs.addAll(merged);
+            runSizes.addAll(mergedSizes);
+        }
+
+        /**
+         * Write the index file and open it, the builder is closed.
+         *
+         * @return The index.
+         * @throws IOException If an I/O error occurs.
+         */
+        public TimestampIndex Build() throws IOException {
+            try {
+                if (runs.isEmpty()) {
+                    var order = sortedOrder();
+                    write(new Source() {
+                        private int i = -1;
+
+                        @Override
+                        public boolean next() {
+                            return ++i < size;
+                        }
+
+                        @Override
+                        public long key() {
+                            return keys[order == null ? i : order[i]];
+                        }
+
+                        @Override
+                        public long payload() {
+                            return payloads[order == null ? i : order[i]];
+                        }
+                    });
+                } else {
+                    if (size > 0) {
+                        spill();
+                    }
+                    while (runs.size() > MERGE_FAN_IN) {
+                        mergePass();
+                    }
+                    try (var merger = new Merger(runs, runSizes)) {
+                        write(merger);
+                    }
+                }
+            } finally {
+                close();
+            }
+            return Open(path);
+        }
+
+        private void write(Source source) throws IOException {
+            var fences = new long[(int) ((count + FENCE_INTERVAL - 1) / FENCE_INTERVAL)];
+            try (var channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                var buffer = ByteBuffer.allocate(ENTRY_SIZE * 4096);
+                buffer.position(HEADER_SIZE);
+                for (var i = 0L; source.next(); i++) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer);
+                    }
+                    var key = source.key();
+                    if (i % FENCE_INTERVAL == 0) {
+                        fences[(int) (i / FENCE_INTERVAL)] = key;
+                    }
+                    buffer.putLong(key).putLong(source.payload());
+                }
+                for (var fence : fences) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer);
+                    }
+                    buffer.putLong(fence);
+                }
+                drain(channel, buffer);
+
+                // The header goes last, so a broken build is not an index.
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(count).putInt(FENCE_INTERVAL).putInt(0)
+                        .putLong(HEADER_SIZE + count * ENTRY_SIZE).flip();
+                channel.write(buffer, 0L);
+                channel.force(false);
+            }
+        }
+
+        private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Remove the temporary files of the runs.
+         *
+         * @throws IOException If a file could not be removed.
+         */
+        @Override
+        public void close() throws IOException {
+            for (var run : runs) {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+            runSizes.clear();
+        }
+    }
+
+    /**
+     * The sorted entries to write.
+     */
+    private interface Source {
+
+        boolean next() throws IOException;
+
+        long key();
+
+        long payload();
+    }
+
+    /**
+     * {@code Merger} merges the sorted runs by a heap of their heads, the
+     * entries of the same key come in the order of the runs.
+     */
+    private static final class Merger implements Source, Closeable {
+
+        private static final class Run {
+
+            private final int order;
+
+            private final DataInputStream in;
+
+            private long remaining;
+
+            private long key;
+
+            private long payload;
+
+            private Run(int order, DataInputStream in, long remaining) {
+                this.order = order;
+                this.in = in;
+                this.remaining = remaining;
+            }
+
+            private boolean advance() throws IOException {
+                if (remaining == 0) {
+                    return false;
+                }
+                remaining--;
+                key = in.readLong();
+                payload = in.readLong();
+                return true;
+            }
+        }
+
+        private final List<Run> runs = new ArrayList<>();
+
+        private final PriorityQueue<Run> heap = new PriorityQueue<>((a, b) -> {
+            var result = Long.compare(a.key, b.key);
+            return result != 0 ? result : Integer.compare(a.order, b.order);
+        });
+
+        private Run current;
+
+        private Merger(List<Path> paths, List<Long> sizes) throws IOException {
+            try {
+                for (var i = 0; i < paths.size(); i++) {
+                    var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(paths.get(i)), 1 << 16));
+                    var run = new Run(i, in, sizes.get(i));
+                    runs.add(run);
+                    if (run.advance()) {
+                        heap.add(run);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (current != null && current.advance()) {
+                heap.add(current);
+            }
+            current = heap.poll();
+            return current != null;
+        }
+
+        @Override
+        public long key() {
+            return current.key;
+        }
+
+        @Override
+        public long payload() {
+            return current.payload;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (var run : runs) {
+                run.in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package cn.vorbote.time;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@code TimingWheel} runs tasks at a {@code DateTime} deadline or after
+ * a {@code TimeSpan} delay, like a {@code ScheduledExecutorService}, but
+ * it is built for millions of timeouts which are mostly cancelled before
+ * they expire, such as session TTLs and retry deadlines.
+ * <p>
+ * Time is cut into ticks of a fixed resolution, and the timeouts are
+ * kept in a hierarchy of wheels of 64 slots, the wheel of level
+ * {@code k} has slots of {@code 64^k} ticks. Scheduling and cancelling
+ * are O(1), a timeout is linked into the slot of its deadline and moved
+ * down a level when its slot comes around, so a timeout is moved at most
+ * once per level.
+ * <p>
+ * The wheels are owned by a single daemon thread. Other threads submit
+ * timeouts and cancellations by pushing them to a lock-free stack, which
+ * the thread drains at every tick, so submission never locks and never
+ * allocates anything but the timeout itself. A task runs at the first
+ * tick after its deadline, so it runs late by up to a tick and never
+ * early. Tasks run on the thread of the wheel unless an executor is
+ * given, a slow task delays the following ticks.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    /**
+     * The default resolution.
+     */
+    public static final TimeSpan DEFAULT_TICK = TimeSpan.FromMillis(10L);
+
+    /**
+     * The bits of a slot index in a wheel.
+     */
+    private static final int WHEEL_BITS = 6;
+
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * The count of levels, enough for any distance in ticks.
+     */
+    private static final int LEVELS = (63 + WHEEL_BITS - 1) / WHEEL_BITS;
+
+    private final long tickNanos;
+
+    private final Executor executor;
+
+    /**
+     * The value of {@code System.nanoTime()} at tick 0.
+     */
+    private final long startNanos;
+
+    /**
+     * The heads of the slots, indexed by {@code level * WHEEL_SIZE + slot}.
+     */
+    private final Timeout[] slots = new Timeout[LEVELS * WHEEL_SIZE];
+
+    /**
+     * The submitted and the cancelled timeouts which are not seen by the
+     * thread of the wheel yet, linked by {@code Timeout.link}.
+     */
+    private final AtomicReference<Timeout> inbox = new AtomicReference<>();
+
+    private final LongAdder pending = new LongAdder();
+
+    /**
+     * The last tick processed, only read and written by the thread of the
+     * wheel.
+     */
+    private long current;
+
+    private volatile boolean closed;
+
+    private final Thread worker;
+
+    /**
+     * Create a wheel of the default resolution which runs the tasks on
+     * its own thread.
+     */
+    public TimingWheel() {
+        this(DEFAULT_TICK, null);
+    }
+
+    /**
+     * Create a wheel of the resolution which runs the tasks on its own
+     * thread.
+     *
+     * @param tick The resolution, 1 millisecond at least.
+     */
+    public TimingWheel(TimeSpan tick) {
+        this(tick, null);
+    }
+
+    /**
+     * Create a wheel of the resolution which runs the tasks by the
+     * executor.
+     *
+     * @param tick     The resolution, 1 millisecond at least.
+     * @param executor The executor of the expired tasks, or {@code null}
+     *                 to run them on the thread of the wheel.
+     * @see #VirtualThreadExecutor()
+     */
+    public TimingWheel(TimeSpan tick, Executor executor) {
+        this(tick, executor, true);
+    }
+
+    /**
+     * Create a wheel, a wheel which is not started is advanced by
+     * {@link #advance(long)} only.
+     */
+    TimingWheel(TimeSpan tick, Executor executor, boolean start) {
+        if (tick.getTicks() < TimeSpan.TICKS_PER_MILLISECOND) {
+            throw new IllegalArgumentException("The tick should be 1 millisecond at least: " + tick);
+        }
+        this.tickNanos = Math.multiplyExact(tick.getTicks(), 100L);
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        if (start) {
+            this.worker = new Thread(this::run, "vorbote-timing-wheel");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        } else {
+            this.worker = null;
+        }
+    }
+
+    /**
+     * Get an executor which runs every task on a new virtual thread. The
+     * executor is looked up by reflection, so this library still runs on
+     * Java versions without virtual threads.
+     *
+     * @return An executor of virtual threads.
+     * @throws UnsupportedOperationException If the Java version has no
+     *                                       virtual thread.
+     */
+    public static Executor VirtualThreadExecutor() {
+        try {
+            var method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this Java version.", e);
+        }
+    }
+
+    /**
+     * Run the task after the delay.
+     *
+     * @param task  The task.
+     * @param delay The delay, a negative delay is the same as 0.
+     * @return The timeout of the task, which cancels it.
+     */
+    public Timeout Schedule(Runnable task, TimeSpan delay) {
+        var ticks = Math.max(0L, delay.getTicks());
+        var nanos = ticks > Long.MAX_VALUE / 100L ? Long.MAX_VALUE : ticks * 100L;
+        return schedule(task, System.nanoTime(), nanos);
+    }
+
+    /**
+     * Run the task at the deadline, the deadline is read by the clock of
+     * {@code DateTime}, see {@link DateTime#Clock()}.
+     *
+     * @param task     The task.
+     * @param deadline The deadline, a deadline in the past runs the task
+     *                 at the next tick.
+     * @return The timeout of the task, which cancels it.
+     */
+    public Timeout Schedule(Runnable task, DateTime deadline) {
+        var now = System.nanoTime();
+        var millis = Math.max(0L, deadline.Java() - DateTime.Clock().Millis());
+        var nanos = millis > Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : millis * 1_000_000L;
+        return schedule(task, now, nanos);
+    }
+
+    private Timeout schedule(Runnable task, long now, long nanos) {
+        Objects.requireNonNull(task);
+        if (closed) {
+            throw new IllegalStateException("The timing wheel is closed.");
+        }
+        // Round up, a task never runs before its deadline.
+        var elapsed = now - startNanos;
+        var tick = nanos >= Long.MAX_VALUE - elapsed - tickNanos
+                ? Long.MAX_VALUE
+                : Math.floorDiv(elapsed + nanos + tickNanos - 1, tickNanos);
+        return schedule(task, tick);
+    }
+
+    /**
+     * Run the task at the tick.
+     */
+    Timeout schedule(Runnable task, long tick) {
+        var timeout = new Timeout(this, task, tick);
+        pending.increment();
+        push(timeout);
+        return timeout;
+    }
+
+    /**
+     * Get the count of the timeouts which are neither expired nor
+     * cancelled.
+     *
+     * @return The count of pending timeouts.
+     */
+    public long Pending() {
+        return pending.sum();
+    }
+
+    /**
+     * Stop the thread of the wheel, the pending tasks never run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void push(Timeout timeout) {
+        Timeout head;
+        do {
+            head = inbox.get();
+            timeout.link = head;
+        } while (!inbox.compareAndSet(head, timeout));
+    }
+
+    private void run() {
+        var tick = 0L;
+        while (!closed) {
+            var sleep = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                Thread.interrupted();
+                continue;
+            }
+            advance(++tick);
+        }
+    }
+
+    /**
+     * Process the tick, the ticks before it must have been processed.
+     */
+    void advance(long tick) {
+        current = tick;
+        drain();
+        for (var level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                cascade(level * WHEEL_SIZE + ((int) (tick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+            }
+        }
+        expire((int) tick & WHEEL_MASK);
+    }
+
+    /**
+     * Take the submitted and the cancelled timeouts, in the order they are
+     * pushed.
+     */
+    private void drain() {
+        var timeout = inbox.getAndSet(null);
+        Timeout reversed = null;
+        while (timeout != null) {
+            var next = timeout.link;
+            timeout.link = reversed;
+            reversed = timeout;
+            timeout = next;
+        }
+        while (reversed != null) {
+            var next = reversed.link;
+            reversed.link = null;
+            if (reversed.slot >= 0) {
+                // Cancelled after it is linked into a slot.
+                unlink(reversed);
+            } else if (Timeout.STATE.compareAndSet(reversed, Timeout.NEW, Timeout.SCHEDULED)) {
+                link(reversed);
+            }
+            reversed = next;
+        }
+    }
+
+    private void link(Timeout timeout) {
+        var distance = timeout.tick - current;
+        int slot;
+        if (distance < WHEEL_SIZE) {
+            // A deadline in the past expires at the current tick.
+            slot = (int) Math.max(timeout.tick, current) & WHEEL_MASK;
+        } else {
+            var level = (63 - Long.numberOfLeadingZeros(distance)) / WHEEL_BITS;
+            slot = level * WHEEL_SIZE + ((int) (timeout.tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        }
+        var head = slots[slot];
+        timeout.slot = slot;
+        timeout.next = head;
+        timeout.previous = null;
+        if (head != null) {
+            head.previous = timeout;
+        }
+        slots[slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.slot = -1;
+        timeout.next = null;
+        timeout.previous = null;
+    }
+
+    /**
+     * Move the timeouts of a slot of a higher level down.
+     */
+    private void cascade(int slot) {
+        var timeout = slots[slot];
+        slots[slot] = null;
+        while (timeout != null) {
+            var next = timeout.next;
+            timeout.slot = -1;
+            link(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(int slot) {
+        var timeout = slots[slot];
+        slots[slot] = null;
+        while (timeout != null) {
+            var next = timeout.next;
+            timeout.slot = -1;
+            timeout.next = null;
+            timeout.previous = null;
+            if (Timeout.STATE.compareAndSet(timeout, Timeout.SCHEDULED, Timeout.EXPIRED)) {
+                pending.decrement();
+                run(timeout.task);
+            }
+            timeout = next;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            if (executor == null) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+        } catch (Throwable e) {
+            var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * A scheduled task, which can be cancelled before it runs.
+     */
+    public static final class Timeout {
+
+        static final int NEW = 0;
+
+        static final int SCHEDULED = 1;
+
+        static final int EXPIRED = 2;
+
+        static final int CANCELLED = 3;
+
+        static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+
+        private final Runnable task;
+
+        /**
+         * The tick of the deadline.
+         */
+        final long tick;
+
+        private volatile int state;
+
+        /**
+         * The next timeout in the inbox of the wheel.
+         */
+        Timeout link;
+
+        /**
+         * The slot and the neighbours in the slot, only touched by the
+         * thread of the wheel. The slot is -1 if the timeout is not in a
+         * slot.
+         */
+        int slot = -1;
+
+        Timeout next;
+
+        Timeout previous;
+
+        Timeout(TimingWheel wheel, Runnable task, long tick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.tick = tick;
+        }
+
+        /**
+         * Cancel the task if it has not run.
+         *
+         * @return {@code true} if the task is cancelled by this call.
+         */
+        public boolean Cancel() {
+            if (STATE.compareAndSet(this, NEW, CANCELLED)) {
+                // The wheel drops it when the submission is drained.
+                wheel.pending.decrement();
+                return true;
+            }
+            if (STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+                // The wheel unlinks it from its slot.
+                wheel.pending.decrement();
+                wheel.push(this);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns an indication whether the task is cancelled.
+         *
+         * @return {@code true} if the task is cancelled.
+         */
+        public boolean IsCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Returns an indication whether the task has been started.
+         *
+         * @return {@code true} if the deadline has passed and the task has
+         * been run or handed to the executor.
+         */
+        public boolean IsExpired() {
+            return state == EXPIRED;
+        }
+    }
+}
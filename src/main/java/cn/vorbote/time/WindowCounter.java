@@ -0,0 +1,346 @@
+package cn.vorbote.time;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code WindowCounter} counts the events of a sliding window of time,
+ * such as the requests of an endpoint in the last 5 minutes.
+ * <p>
+ * The window is split into buckets of a resolution, which are kept in a
+ * ring indexed by the count of resolutions since the epoch. A bucket is a
+ * {@link LongAdder} stamped with its index, so counting an event is
+ * lock free and does not contend with the other threads. A bucket which
+ * is left over from an earlier lap of the ring is replaced at the first
+ * event of its new index and skipped by the reads until then, so nothing
+ * sweeps the ring in the background.
+ * <p>
+ * The reads sum the buckets without any lock, so an event counted during
+ * a read may be missed by it. The current bucket is partly elapsed, so
+ * the window of a read is from 1 resolution less than the window to 1
+ * window ago.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public final class WindowCounter {
+
+    private static final class Bucket extends LongAdder {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long index;
+
+        private Bucket(long index) {
+            this.index = index;
+        }
+    }
+
+    private final long resolution;
+
+    private final int length;
+
+    private final Clock clock;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * Create a counter of the system clock.
+     *
+     * @param window     The window, a multiple of the resolution.
+     * @param resolution The resolution, a positive count of milliseconds.
+     */
+    public WindowCounter(TimeSpan window, TimeSpan resolution) {
+        this(window, resolution, Clock.SYSTEM);
+    }
+
+    /**
+     * Create a counter of the clock, such as a {@link TickingClock} which
+     * is cheaper to read than the system clock.
+     *
+     * @param window     The window, a multiple of the resolution.
+     * @param resolution The resolution, a positive count of milliseconds.
+     * @param clock      The clock.
+     */
+    public WindowCounter(TimeSpan window, TimeSpan resolution, Clock clock) {
+        var millis = resolution.TotalMillis();
+        if (millis <= 0 || resolution.getTicks() % 10000L != 0) {
+            throw new IllegalArgumentException("The resolution should be a positive count of milliseconds: "
+                    + resolution);
+        }
+        if (window.getTicks() <= 0 || window.getTicks() % resolution.getTicks() != 0) {
+            throw new IllegalArgumentException(String.format("The window: %s is not a multiple of the resolution: %s.",
+                    window, resolution));
+        }
+        var length = window.getTicks() / resolution.getTicks();
+        if (length > 1 << 20) {
+            throw new IllegalArgumentException(String.format("The count of buckets: %d is out of range of (1 ~ %d).",
+                    length, 1 << 20));
+        }
+        this.resolution = millis;
+        this.length = (int) length;
+        this.clock = Objects.requireNonNull(clock);
+        this.buckets = new AtomicReferenceArray<>(this.length);
+    }
+
+    /**
+     * Get the window.
+     *
+     * @return The window.
+     */
+    public TimeSpan Window() {
+        return TimeSpan.FromMillis(resolution * length);
+    }
+
+    /**
+     * Get the resolution.
+     *
+     * @return The length of a bucket.
+     */
+    public TimeSpan Resolution() {
+        return TimeSpan.FromMillis(resolution);
+    }
+
+    /**
+     * Count an event now. The event is dropped if a later time has taken
+     * the bucket of now, such as after the clock steps back by a window
+     * or a count at a future time.
+     */
+    public void Increment() {
+        var bucket = bucket(Math.floorDiv(clock.Millis(), resolution));
+        if (bucket != null) {
+            bucket.increment();
+        }
+    }
+
+    /**
+     * Count events now. The events are dropped if a later time has taken
+     * the bucket of now, see {@link #Increment()}.
+     *
+     * @param count The count of events.
+     */
+    public void Add(long count) {
+        var bucket = bucket(Math.floorDiv(clock.Millis(), resolution));
+        if (bucket != null) {
+            bucket.add(count);
+        }
+    }
+
+    /**
+     * Count events at the time, the events before the window of the
+     * latest counted time are dropped.
+     *
+     * @param time  The time of the events.
+     * @param count The count of events.
+     */
+    public void Add(DateTime time, long count) {
+        var bucket = bucket(Math.floorDiv(Math.multiplyExact(time.Unix(), 1000L), resolution));
+        if (bucket != null) {
+            bucket.add(count);
+        }
+    }
+
+    /**
+     * Get the bucket of the index, or {@code null} if a later index of the
+     * ring has taken its slot.
+     */
+    private Bucket bucket(long index) {
+        var slot = (int) Math.floorMod(index, (long) length);
+        var bucket = buckets.get(slot);
+        while (bucket == null || bucket.index < index) {
+            var next = new Bucket(index);
+            if (buckets.compareAndSet(slot, bucket, next)) {
+                return next;
+            }
+            bucket = buckets.get(slot);
+        }
+        return bucket.index == index ? bucket : null;
+    }
+
+    /**
+     * Get the count of the events in the window.
+     *
+     * @return The count.
+     */
+    public long Sum() {
+        return sum(length);
+    }
+
+    /**
+     * Get the count of the events in the last part of the window.
+     *
+     * @param window The part of the window, which is rounded up to the
+     *               resolution and at most the window.
+     * @return The count.
+     */
+    public long Sum(TimeSpan window) {
+        return sum(buckets(window));
+    }
+
+    private long sum(int count) {
+        var current = Math.floorDiv(clock.Millis(), resolution);
+        var sum = 0L;
+        for (var index = current - count + 1; index <= current; index++) {
+            var bucket = buckets.get((int) Math.floorMod(index, (long) length));
+            if (bucket != null && bucket.index == index) {
+                sum += bucket.sum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Get the rate of the events in the window.
+     *
+     * @return The count of events per second.
+     */
+    public double Rate() {
+        return Sum() * 1000.0 / (resolution * length);
+    }
+
+    /**
+     * Get the rate of the events in the last part of the window.
+     *
+     * @param window The part of the window, which is rounded up to the
+     *               resolution and at most the window.
+     * @return The count of events per second.
+     */
+    public double Rate(TimeSpan window) {
+        var count = buckets(window);
+        return sum(count) * 1000.0 / (resolution * count);
+    }
+
+    /**
+     * Take the counts of the buckets in the window.
+     *
+     * @return A snapshot.
+     */
+    public Snapshot Snapshot() {
+        return snapshot(length);
+    }
+
+    /**
+     * Take the counts of the buckets in the last part of the window.
+     *
+     * @param window The part of the window, which is rounded up to the
+     *               resolution and at most the window.
+     * @return A snapshot.
+     */
+    public Snapshot Snapshot(TimeSpan window) {
+        return snapshot(buckets(window));
+    }
+
+    private Snapshot snapshot(int count) {
+        var first = Math.floorDiv(clock.Millis(), resolution) - count + 1;
+        var counts = new long[count];
+        for (var i = 0; i < count; i++) {
+            var bucket = buckets.get((int) Math.floorMod(first + i, (long) length));
+            if (bucket != null && bucket.index == first + i) {
+                counts[i] = bucket.sum();
+            }
+        }
+        return new Snapshot(first * resolution, resolution, counts);
+    }
+
+    private int buckets(TimeSpan window) {
+        var ticks = window.getTicks();
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("The window should be positive: " + window);
+        }
+        var step = resolution * 10000L;
+        return (int) Math.min(length, (ticks + step - 1) / step);
+    }
+
+    /**
+     * Clear the counts.
+     */
+    public void Reset() {
+        for (var i = 0; i < length; i++) {
+            buckets.set(i, null);
+        }
+    }
+
+    /**
+     * {@code Snapshot} holds the counts of the buckets of a window, from
+     * the oldest to the current one.
+     */
+    public static final class Snapshot {
+
+        private final long start;
+
+        private final long resolution;
+
+        private final long[] counts;
+
+        Snapshot(long start, long resolution, long[] counts) {
+            this.start = start;
+            this.resolution = resolution;
+            this.counts = counts;
+        }
+
+        /**
+         * Get the count of buckets.
+         *
+         * @return The count of buckets.
+         */
+        public int Size() {
+            return counts.length;
+        }
+
+        /**
+         * Get the count of the events of a bucket.
+         *
+         * @param index The index of the bucket, 0 for the oldest.
+         * @return The count.
+         */
+        public long Count(int index) {
+            return counts[index];
+        }
+
+        /**
+         * Get the start of a bucket.
+         *
+         * @param index The index of the bucket, 0 for the oldest.
+         * @return The start as unix timestamp in milliseconds.
+         */
+        public long StartMillis(int index) {
+            return start + Objects.checkIndex(index, counts.length) * resolution;
+        }
+
+        /**
+         * Get the counts of the buckets.
+         *
+         * @return A copy of the counts, from the oldest bucket.
+         */
+        public long[] Counts() {
+            return counts.clone();
+        }
+
+        /**
+         * Get the count of the events in the buckets.
+         *
+         * @return The count.
+         */
+        public long Sum() {
+            var sum = 0L;
+            for (var count : counts) {
+                sum += count;
+            }
+            return sum;
+        }
+
+        /**
+         * Get the rate of the events in the buckets.
+         *
+         * @return The count of events per second.
+         */
+        public double Rate() {
+            return Sum() * 1000.0 / (resolution * counts.length);
+        }
+
+        @Override
+        public String toString() {
+            return "sum=" + Sum() + ", rate=" + Rate() + "/s, buckets=" + counts.length;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BucketerTest {
+
+    private static final String[] ZONES = {
+            "UTC", "America/New_York", "Europe/London", "America/Sao_Paulo",
+            "Australia/Lord_Howe", "Asia/Kolkata"
+    };
+
+    private static long floor(long timestamp, ZoneId zone, DateTimeUnit unit) {
+        var time = ZonedDateTime.ofInstant(Instant.ofEpochSecond(timestamp), zone);
+        switch (unit) {
+            case MINUTE:
+                return time.truncatedTo(ChronoUnit.MINUTES).toEpochSecond();
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS).toEpochSecond();
+            case DAY:
+                return time.truncatedTo(ChronoUnit.DAYS).toEpochSecond();
+            case WEEK:
+                return time.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                        .truncatedTo(ChronoUnit.DAYS).toEpochSecond();
+            case MONTH:
+                return time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).toEpochSecond();
+            case YEAR:
+                return time.withDayOfYear(1).truncatedTo(ChronoUnit.DAYS).toEpochSecond();
+            default:
+                throw new IllegalArgumentException(unit.name());
+        }
+    }
+
+    @Test
+    public void testFloor() {
+        var random = new Random(20220301L);
+        var units = new DateTimeUnit[]{
+                DateTimeUnit.MINUTE, DateTimeUnit.HOUR, DateTimeUnit.DAY,
+                DateTimeUnit.WEEK, DateTimeUnit.MONTH, DateTimeUnit.YEAR
+        };
+        for (var id : ZONES) {
+            var zone = ZoneId.of(id);
+            for (var unit : units) {
+                var bucketer = Bucketer.Of(unit, DateTimeZone.Of(id));
+                for (var i = 0; i < 5000; i++) {
+                    // 1950 through 2050.
+                    var timestamp = -631152000L + (long) (random.nextDouble() * 3155760000L);
+                    var floor = bucketer.Floor(timestamp);
+                    Assert.assertEquals(floor(timestamp, zone, unit), floor);
+                    Assert.assertEquals(bucketer.Bucket(timestamp), bucketer.Bucket(floor));
+                    var ceil = bucketer.Ceil(timestamp);
+                    Assert.assertTrue(ceil >= timestamp);
+                    Assert.assertEquals(ceil, bucketer.Floor(ceil));
+                    Assert.assertTrue(ceil == timestamp || bucketer.Bucket(ceil) > bucketer.Bucket(timestamp));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBulk() {
+        var random = new Random(20220302L);
+        for (var id : ZONES) {
+            for (var unit : DateTimeUnit.values()) {
+                var bucketer = Bucketer.Of(unit, DateTimeZone.Of(id));
+                var values = new long[10000];
+                var timestamp = 1600000000L;
+                for (var i = 0; i < values.length; i++) {
+                    // Mostly ascending, with a jump back now and then.
+                    timestamp += random.nextInt(20000) - (i % 100 == 0 ? 1000000 : 0);
+                    values[i] = timestamp;
+                }
+
+                var buckets = Arrays.copyOf(values, values.length);
+                bucketer.Bucket(buckets);
+                var floors = Arrays.copyOf(values, values.length);
+                bucketer.Floor(floors);
+                for (var i = 0; i < values.length; i++) {
+                    Assert.assertEquals(bucketer.Bucket(values[i]), buckets[i]);
+                    Assert.assertEquals(bucketer.Floor(values[i]), floors[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFallBack() {
+        // 01:00 through 02:00 occurs twice in New York on 2021-11-07.
+        var zone = DateTimeZone.Of("America/New_York");
+        var first = 1636261200L;
+        var second = 1636264800L;
+        var hours = Bucketer.Of(DateTimeUnit.HOUR, zone);
+        Assert.assertEquals(hours.Bucket(first) + 1, hours.Bucket(second));
+        Assert.assertEquals(first, hours.Start(hours.Bucket(first)));
+        Assert.assertEquals(second, hours.Start(hours.Bucket(second)));
+        Assert.assertEquals(second, hours.Floor(second + 1800L));
+        Assert.assertEquals(second, hours.Ceil(first + 1800L));
+
+        var minutes = Bucketer.Of(TimeSpan.FromSeconds(300L), zone);
+        Assert.assertEquals(minutes.Bucket(first) + 12, minutes.Bucket(second));
+        Assert.assertEquals(second + 300L, minutes.Floor(second + 400L));
+        var buckets = new long[]{first, first + 400L, second, second + 400L};
+        minutes.Bucket(buckets);
+        for (var i = 1; i < buckets.length; i++) {
+            Assert.assertTrue(buckets[i] > buckets[i - 1]);
+        }
+
+        // The buckets of a zone with a half hour offset start at the half hour.
+        var kolkata = Bucketer.Of(DateTimeUnit.HOUR, DateTimeZone.Of("Asia/Kolkata"));
+        var time = new DateTime(2021, 6, 15, 10, 20, 0, DateTimeZone.Of("Asia/Kolkata")).Unix();
+        Assert.assertEquals(time - 1200L, kolkata.Floor(time));
+        Assert.assertEquals(time - 1200L, kolkata.Start(kolkata.Bucket(time)));
+    }
+
+    @Test
+    public void testRound() {
+        var zone = DateTimeZone.Of("Asia/Shanghai");
+        var minutes = Bucketer.Of(TimeSpan.FromSeconds(300L), zone);
+        var time = new DateTime(2021, 6, 15, 10, 32, 30, zone).Unix();
+        Assert.assertEquals(new DateTime(2021, 6, 15, 10, 30, 0, zone).Unix(), minutes.Floor(time));
+        Assert.assertEquals(new DateTime(2021, 6, 15, 10, 35, 0, zone).Unix(), minutes.Ceil(time));
+        Assert.assertEquals(new DateTime(2021, 6, 15, 10, 35, 0, zone).Unix(), minutes.Round(time));
+        Assert.assertEquals(new DateTime(2021, 6, 15, 10, 30, 0, zone).Unix(), minutes.Round(time - 1));
+
+        var months = Bucketer.Of(DateTimeUnit.MONTH, zone);
+        Assert.assertEquals(new DateTime(2021, 6, 1, zone).Unix(), months.Round(time));
+        Assert.assertEquals(new DateTime(2021, 7, 1, zone).Unix(), months.Round(time + 86400L));
+        Assert.assertEquals(new DateTime(2021, 7, 1, zone).Unix(), months.Start(months.Bucket(time) + 1));
+        Assert.assertEquals(2021 * 12 + 5, months.Bucket(time));
+
+        var date = new DateTime(2021, 6, 15, 10, 32, 30);
+        Assert.assertEquals(new DateTime(2021, 6, 14), date.Floor(DateTimeUnit.WEEK));
+        Assert.assertEquals(new DateTime(2021, 7, 1), date.Ceil(DateTimeUnit.QUARTER));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> Bucketer.Of(TimeSpan.FromMillis(1500L)));
+    }
+}
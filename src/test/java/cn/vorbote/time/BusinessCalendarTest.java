@@ -0,0 +1,106 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Random;
+
+public class BusinessCalendarTest {
+
+    @Test
+    public void testAgainstScan() {
+        var random = new Random(20220801L);
+        var zone = DateTimeZone.Of("Asia/Shanghai");
+        var builder = BusinessCalendar.builder(2020, 2025).Zone(zone).Weekend(Calendar.FRIDAY, Calendar.SATURDAY);
+        var holidays = new HashSet<Long>();
+        var workdays = new HashSet<Long>();
+        for (var i = 0; i < 300; i++) {
+            var day = new DateTime(CivilCalendar.plusDays(zone, new DateTime(2020, 1, 1, zone).Unix(),
+                    random.nextInt(6 * 365)));
+            if (i % 10 == 0) {
+                builder.Workday(day.Year(zone), day.Month(zone), day.Day(zone));
+                workdays.add(day.Unix());
+            } else {
+                builder.Holiday(day);
+                holidays.add(day.Unix());
+            }
+        }
+        var calendar = builder.Build();
+        var base = new DateTime(2022, 6, 15, 10, 30, 0, zone);
+        var days = new boolean[6 * 365];
+        var start = new DateTime(2020, 1, 1, zone);
+        for (var i = 0; i < days.length; i++) {
+            var day = new DateTime(CivilCalendar.plusDays(zone, start.Unix(), i));
+            var dayOfWeek = DateTimeFormatter.dayOfWeek(CivilCalendar.toEpochDay(2020, 1, 1) + i);
+            days[i] = workdays.contains(day.Unix()) || !holidays.contains(day.Unix())
+                    && dayOfWeek != Calendar.FRIDAY && dayOfWeek != Calendar.SATURDAY;
+            Assert.assertEquals(days[i], calendar.IsBusinessDay(day));
+        }
+
+        var origin = (int) ((base.Unix() - start.Unix()) / 86400);
+        for (var n = -400; n <= 400; n++) {
+            // Walk day by day.
+            var i = origin;
+            for (var left = Math.abs(n); left > 0; ) {
+                i += n > 0 ? 1 : -1;
+                if (days[i]) {
+                    left--;
+                }
+            }
+            var result = calendar.AddBusinessDays(base, n);
+            Assert.assertEquals(base.Unix() + (i - origin) * 86400L, result.Unix());
+            if (days[origin]) {
+                Assert.assertEquals(n, calendar.BusinessDaysBetween(base, result));
+            }
+        }
+        for (var i = 0; i < days.length; i += 7) {
+            var count = 0;
+            for (var j = Math.min(i, origin) + 1; j <= Math.max(i, origin); j++) {
+                count += days[j] ? 1 : 0;
+            }
+            var day = new DateTime(CivilCalendar.plusDays(zone, start.Unix(), i));
+            Assert.assertEquals(i >= origin ? count : -count, calendar.BusinessDaysBetween(base, day));
+        }
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        var text = "# Test market\n"
+                + "years 2022 2023\n"
+                + "zone Asia/Shanghai\n"
+                + "weekend SAT sun  # the usual\n"
+                + "\n"
+                + "holiday 2022-01-31 2022-02-04\n"
+                + "workday 2022-01-29\n";
+        var calendar = BusinessCalendar.Load(new StringReader(text));
+        Assert.assertEquals("Asia/Shanghai", calendar.Zone().Id());
+        Assert.assertTrue(calendar.IsBusinessDay(2022, 1, 28));
+        Assert.assertTrue(calendar.IsBusinessDay(2022, 1, 29));
+        Assert.assertFalse(calendar.IsBusinessDay(2022, 1, 30));
+        Assert.assertFalse(calendar.IsBusinessDay(2022, 2, 4));
+        Assert.assertTrue(calendar.IsBusinessDay(2022, 2, 7));
+        var friday = new DateTime(2022, 1, 28, 15, 0, 0, calendar.Zone());
+        Assert.assertEquals(new DateTime(2022, 2, 7, 15, 0, 0, calendar.Zone()).Unix(),
+                calendar.AddBusinessDays(friday, 2).Unix());
+
+        var other = BusinessCalendar.builder(2023, 2030).Zone(calendar.Zone()).Weekend()
+                .Holiday(2023, 1, 2).Build();
+        var union = calendar.Union(other);
+        var intersection = calendar.Intersect(other);
+        Assert.assertTrue(union.IsBusinessDay(2023, 1, 1));
+        Assert.assertFalse(intersection.IsBusinessDay(2023, 1, 1));
+        Assert.assertFalse(union.IsBusinessDay(2023, 1, 2) && intersection.IsBusinessDay(2023, 1, 2));
+        Assert.assertTrue(intersection.IsBusinessDay(2023, 12, 29));
+        Assert.assertThrows(TimeOutRangeException.class, () -> union.IsBusinessDay(2022, 12, 30));
+        Assert.assertThrows(TimeOutRangeException.class, () -> intersection.AddBusinessDays(
+                new DateTime(2023, 12, 29, calendar.Zone()), 2));
+
+        var error = Assert.assertThrows(IllegalArgumentException.class,
+                () -> BusinessCalendar.Load(new StringReader("years 2022 2022\nholiday 2022-02-30\n")));
+        Assert.assertTrue(error.getMessage().endsWith("in the line 2"));
+    }
+}
@@ -0,0 +1,68 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class DateTimeArrayTest {
+
+    private static long[] random(int count) {
+        var random = new Random(20211212L);
+        var values = new long[count];
+        for (var i = 0; i < count; i++) {
+            values[i] = 946684800L + (random.nextLong() >>> 1) % (86400L * 365 * 30);
+        }
+        return values;
+    }
+
+    @Test
+    public void testAddAndTruncate() {
+        var values = random(1000);
+        var array = DateTimeArray.Of(values);
+        var span = new TimeSpan(3, 4, 5, 6);
+        array.Add(span);
+        for (var i = 0; i < values.length; i++) {
+            Assert.assertEquals(new DateTime(values[i]).Add(span).Unix(), array.Unix(i));
+        }
+
+        array.Minus(span).Truncate(new TimeSpan(1, 0, 0, 0));
+        for (var i = 0; i < values.length; i++) {
+            var date = new DateTime(values[i]).Pattern("yyyy-MM-dd").ToString();
+            Assert.assertEquals(DateTime.Parse(date, "yyyy-MM-dd").Unix(), array.Unix(i));
+        }
+    }
+
+    @Test
+    public void testSortAndRange() {
+        var values = random(DateTimeArray.PARALLEL_THRESHOLD * 2);
+        var array = DateTimeArray.Of(values).Parallel(true);
+        Assert.assertFalse(array.IsSorted());
+        var min = array.Min();
+        var max = array.Max();
+
+        array.Sort();
+        Arrays.sort(values);
+        Assert.assertArrayEquals(values, array.ToArray());
+        Assert.assertEquals(values[0], min);
+        Assert.assertEquals(values[values.length - 1], max);
+
+        var from = values[100];
+        var to = values[200];
+        var range = array.Range(from, to);
+        Assert.assertEquals(100, range.Size());
+        Assert.assertEquals(from, range.Min());
+        Assert.assertTrue(range.Max() < to);
+        Assert.assertEquals(0, array.Range(to, from).Size());
+
+        array.Parallel(false).AddSeconds(60);
+        Assert.assertEquals(values[0] + 60, array.Unix(0));
+        Assert.assertEquals(values[0] + 60, array.ToList().get(0).Unix());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRangeUnsorted() {
+        DateTimeArray.Of(3L, 1L, 2L).Range(0L, 2L);
+    }
+}
@@ -0,0 +1,98 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class DateTimeCodecTest {
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T value) throws IOException, ClassNotFoundException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    public void testBuffer() {
+        var random = new Random(20220401L);
+        var patterns = new String[]{DateTimeFormatter.DEFAULT_PATTERN, "yyyy-MM-dd", "dd.MM.yyyy HH:mm", "yyyy\u5e74MM\u6708dd\u65e5", null};
+        var buffer = ByteBuffer.allocate(64);
+        for (var i = 0; i < 10000; i++) {
+            var timestamp = i < 3 ? new long[]{0L, Long.MIN_VALUE, Long.MAX_VALUE}[i] : random.nextLong() >> random.nextInt(64);
+            var time = new DateTime(timestamp).Pattern(patterns[i % patterns.length]);
+            buffer.clear();
+            DateTimeCodec.Encode(time, buffer);
+            Assert.assertEquals(DateTimeCodec.Size(time), buffer.position());
+            buffer.flip();
+            var decoded = DateTimeCodec.DecodeDateTime(buffer);
+            Assert.assertEquals(timestamp, decoded.Unix());
+            Assert.assertEquals(time.Pattern(), decoded.Pattern());
+            Assert.assertFalse(buffer.hasRemaining());
+
+            var ts = TimeSpan.FromTicks(timestamp);
+            buffer.clear();
+            DateTimeCodec.Encode(ts, buffer);
+            Assert.assertEquals(DateTimeCodec.Size(ts), buffer.position());
+            buffer.flip();
+            Assert.assertEquals(ts, DateTimeCodec.DecodeTimeSpan(buffer));
+        }
+
+        // A current time in the default pattern is a header and 5 bytes.
+        Assert.assertEquals(6, DateTimeCodec.Size(new DateTime(2022, 4, 1)));
+        Assert.assertEquals(2, DateTimeCodec.Size(TimeSpan.FromTicks(-1L)));
+
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> DateTimeCodec.DecodeDateTime(ByteBuffer.wrap(new byte[]{0x20, 0})));
+
+        // A hostile length of an inline pattern is rejected before it is allocated.
+        Assert.assertThrows(IllegalArgumentException.class, () -> DateTimeCodec.DecodeDateTime(
+                ByteBuffer.wrap(new byte[]{0x1F, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07})));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> DateTimeCodec.DecodeDateTime(ByteBuffer.wrap(new byte[]{0x1F, 0, 10, 'y', 'y'})));
+        var longPattern = new DateTime(0L).Pattern("y".repeat(DateTimeCodec.MAX_PATTERN_LENGTH + 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> DateTimeCodec.Size(longPattern));
+    }
+
+    @Test
+    public void testSerializable() throws Exception {
+        var time = new DateTime(2022, 4, 1, 8, 30, 0);
+        var copy = copy(time);
+        Assert.assertEquals(time, copy);
+        Assert.assertEquals(time.Pattern(), copy.Pattern());
+        Assert.assertEquals(8, copy.Hour());
+
+        var custom = copy(new DateTime(-62135596800L).Pattern("yyyy/M/d"));
+        Assert.assertEquals(-62135596800L, custom.Unix());
+        Assert.assertEquals("yyyy/M/d", custom.Pattern());
+
+        var ts = new TimeSpan(1, 2, 3, 4).Add(TimeSpan.FromTicks(5L));
+        Assert.assertEquals(ts, copy(ts));
+    }
+
+    @Test
+    public void testManyPatterns() {
+        // Any count of distinct inline patterns is decoded.
+        var buffer = ByteBuffer.allocate(64);
+        for (var i = 0; i < 5000; i++) {
+            var pattern = "yyyy-MM-dd '" + i + "'";
+            buffer.clear();
+            DateTimeCodec.Encode(new DateTime((long) i).Pattern(pattern), buffer);
+            buffer.flip();
+            Assert.assertEquals(pattern, DateTimeCodec.DecodeDateTime(buffer).Pattern());
+        }
+        Assert.assertSame(DateTimeFormatter.DEFAULT_PATTERN,
+                DateTimeCodec.DecodeDateTime(ByteBuffer.wrap(new byte[]{0x10, 0})).Pattern());
+    }
+}
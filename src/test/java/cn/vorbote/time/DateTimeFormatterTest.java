@@ -0,0 +1,221 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+public class DateTimeFormatterTest {
+
+    private static final String[] PATTERNS = {
+            DateTimeFormatter.DEFAULT_PATTERN,
+            "y yy yyy yyyyy G",
+            "M MM MMM MMMM d dd D F",
+            "E EEEE u a h hh K k H",
+            "S SSS m s Z X XX XXX",
+            "'at' HH 'o''clock'",
+            "w W Y z"
+    };
+
+    @Test
+    public void testSameAsSimpleDateFormat() {
+        var random = new Random(1582L);
+        for (var pattern : PATTERNS) {
+            var formatter = DateTimeFormatter.Of(pattern);
+            var expected = new SimpleDateFormat(pattern);
+            for (var i = 0; i < 2000; i++) {
+                // From 0001-01-01 to 9999-12-31.
+                var timestamp = (long) (random.nextDouble() * 315537897600L) - 62135596800L;
+                Assert.assertEquals(expected.format(new Date(timestamp * 1000L)), formatter.Format(timestamp));
+            }
+        }
+    }
+
+    @Test
+    public void testCache() {
+        Assert.assertSame(DateTimeFormatter.Of("yyyy/MM/dd"), DateTimeFormatter.Of("yyyy/MM/dd"));
+        Assert.assertEquals("2021-12-11 10:20:30", new DateTime(2021, 12, 11, 10, 20, 30).toString());
+    }
+
+    @Test
+    public void testFollowsLocale() {
+        var original = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            var timestamp = 1639218030L;
+            for (var locale : new Locale[]{Locale.US, Locale.GERMANY, new Locale("pl", "PL")}) {
+                Locale.setDefault(Locale.Category.FORMAT, locale);
+                for (var pattern : new String[]{"EEE, d MMM yyyy", "MMM", "MMMM", "'in' MMM", "LLL yyyy", "LLLL"}) {
+                    var expected = new SimpleDateFormat(pattern).format(new Date(timestamp * 1000L));
+                    Assert.assertEquals(locale + " " + pattern, expected, DateTimeFormatter.Of(pattern).Format(timestamp));
+                }
+            }
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            Assert.assertEquals("Dez", DateTimeFormatter.Of("MMM", DateTimeZone.UTC).Format(timestamp));
+            Assert.assertEquals("Dez. 2021", DateTimeFormatter.Of("MMM yyyy", DateTimeZone.UTC).Format(timestamp));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, original);
+        }
+    }
+
+    @Test
+    public void testIsoInAnyLocale() {
+        var original = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            var timestamp = 1639189230L;
+            for (var tag : new String[]{"th-TH", "ar-EG", "ja-JP-u-ca-japanese", "hi-IN-u-nu-deva", "en-US"}) {
+                Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag(tag));
+                var text = DateTimeFormatter.Iso().WithZone(DateTimeZone.UTC).Format(timestamp);
+                Assert.assertEquals(tag, "2021-12-11T02:20:30Z", text);
+                Assert.assertEquals(tag, timestamp, DateTime.ParseIso(text).Unix());
+                Assert.assertEquals(tag, timestamp, DateTime.ParseIso("2021-12-11T10:20:30+08:00").Unix());
+            }
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, original);
+        }
+    }
+
+    @Test
+    public void testFormatTo() throws Exception {
+        var time = new DateTime(2021, 12, 11, 10, 20, 30);
+        var expected = time.toString();
+
+        Assert.assertEquals("at " + expected, time.FormatTo(new StringBuilder("at ")).toString());
+        Assert.assertEquals(expected, time.FormatTo(new StringWriter()).toString());
+
+        var bytes = new byte[32];
+        var length = time.FormatTo(bytes, 4);
+        Assert.assertEquals(expected, new String(bytes, 4, length, StandardCharsets.US_ASCII));
+
+        for (var buffer : new ByteBuffer[]{ByteBuffer.allocate(32), ByteBuffer.allocateDirect(32)}) {
+            buffer.put((byte) '[');
+            time.FormatTo(buffer).put((byte) ']').flip();
+            var text = new byte[buffer.remaining()];
+            buffer.get(text);
+            Assert.assertEquals("[" + expected + "]", new String(text, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFormatToSmallArray() {
+        new DateTime(2021, 12, 11).FormatTo(new byte[8], 0);
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        var random = new Random(2021L);
+        for (var pattern : new String[]{DateTimeFormatter.DEFAULT_PATTERN, "yyyyMMddHHmmss", "dd MMM yyyy hh:mm:ss a Z"}) {
+            var formatter = DateTimeFormatter.Of(pattern);
+            var expected = new SimpleDateFormat(pattern);
+            for (var i = 0; i < 2000; i++) {
+                var text = formatter.Format((long) (random.nextDouble() * 4e9) - 1000000000L);
+                Assert.assertEquals(expected.parse(text).getTime() / 1000L, formatter.Parse(text));
+            }
+        }
+
+        var time = DateTime.Parse("11/12/2021 10:20", "dd/MM/yyyy HH:mm");
+        Assert.assertEquals(new DateTime(2021, 12, 11, 10, 20, 0), time);
+        Assert.assertEquals("dd/MM/yyyy HH:mm", time.Pattern());
+
+        Assert.assertEquals(1639189230L, DateTime.ParseIso("2021-12-11T10:20:30.123+08:00").Unix());
+        Assert.assertEquals(1639218030L, DateTime.ParseIso("2021-12-11T10:20:30Z").Unix());
+        Assert.assertEquals(new DateTime(2021, 12, 11), DateTime.ParseIso("2021-12-11"));
+
+        Assert.assertNull(DateTime.TryParse("2021-02-29 00:00:00"));
+        Assert.assertNull(DateTime.TryParse("2021-12-11 10:20:30 "));
+        Assert.assertNull(DateTime.TryParse("2021-12-11"));
+    }
+
+    @Test(expected = TimeOutRangeException.class)
+    public void testParseOutOfRange() {
+        DateTime.Parse("2021-12-11 24:00:00");
+    }
+
+    @Test
+    public void testParseAll() {
+        var formatter = DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN);
+        var expected = new long[100];
+        var text = new StringBuilder();
+        for (var i = 0; i < expected.length; i++) {
+            expected[i] = 1639189230L + i * 3607L;
+            formatter.FormatTo(expected[i], text).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+
+        var chars = CharBuffer.wrap(text);
+        var timestamps = new long[expected.length];
+        Assert.assertEquals(expected.length, formatter.ParseAll(chars, timestamps, 0));
+        Assert.assertArrayEquals(expected, timestamps);
+        Assert.assertFalse(chars.hasRemaining());
+
+        var bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+        var half = new long[expected.length / 2];
+        Assert.assertEquals(half.length, formatter.ParseAll(bytes, half, 0));
+        Assert.assertEquals(half.length, formatter.ParseAll(bytes, timestamps, 0));
+        Assert.assertEquals(expected[half.length], timestamps[0]);
+    }
+
+    @Test
+    public void testParseAllInvalidLine() {
+        var formatter = DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN);
+        var text = "2021-12-11 10:20:30\n2021-12-11 10:20:31\nnot a time\n2021-12-11 10:20:32\n"
+                + "2021-13-11 10:20:33\n2021-12-11 10:20:34\n";
+        for (var buffer : new Buffer[]{CharBuffer.wrap(text),
+                ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII))}) {
+            var timestamps = new long[8];
+            var e = Assert.assertThrows(LineParseException.class, () -> parseAll(formatter, buffer, timestamps, 0));
+            Assert.assertEquals(2, e.Parsed());
+            Assert.assertEquals(40, buffer.position());
+            Assert.assertEquals(formatter.Parse("2021-12-11 10:20:31"), timestamps[1]);
+
+            // Skip the invalid line and resume, a field out of range fails the same way.
+            buffer.position(51);
+            e = Assert.assertThrows(LineParseException.class, () -> parseAll(formatter, buffer, timestamps, 2));
+            Assert.assertEquals(1, e.Parsed());
+            Assert.assertTrue(e.getCause() instanceof TimeOutRangeException);
+            Assert.assertEquals(71, buffer.position());
+            buffer.position(91);
+            Assert.assertEquals(1, parseAll(formatter, buffer, timestamps, 3));
+            Assert.assertEquals(formatter.Parse("2021-12-11 10:20:34"), timestamps[3]);
+        }
+    }
+
+    private static int parseAll(DateTimeFormatter formatter, Buffer buffer, long[] dst, int offset) {
+        return buffer instanceof CharBuffer
+                ? formatter.ParseAll((CharBuffer) buffer, dst, offset)
+                : formatter.ParseAll((ByteBuffer) buffer, dst, offset);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalPattern() {
+        DateTimeFormatter.Of("yyyy-MM-dd bb");
+    }
+
+    @Test
+    public void testLocaleData() {
+        var locales = new ArrayList<>(Arrays.asList(Locale.getAvailableLocales()));
+        for (var tag : new String[]{"th-TH-u-ca-gregory", "ja-JP-u-ca-japanese", "en-US-u-ca-buddhist",
+                "th-TH-u-ca-islamic", "en-US-u-nu-arab", "zh-CN-u-nu-hanidec", "ar-EG", "fa-IR"}) {
+            locales.add(Locale.forLanguageTag(tag));
+        }
+        locales.add(new Locale("th", "TH", "TH"));
+        locales.add(new Locale("ja", "JP", "JP"));
+        for (var locale : locales) {
+            Assert.assertEquals(locale.toLanguageTag(), "gregory".equals(Calendar.getInstance(locale).getCalendarType()),
+                    DateTimeFormatter.isGregorian(locale));
+            Assert.assertEquals(locale.toLanguageTag(), DecimalFormatSymbols.getInstance(locale).getZeroDigit(),
+                    DateTimeFormatter.zeroDigit(locale));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class DateTimeLayoutTest {
+
+    /**
+     * The layout of a time with its own pattern, as it was before.
+     */
+    @SuppressWarnings("unused")
+    private static final class WithPattern {
+        long timestamp;
+        String pattern;
+    }
+
+    /**
+     * The layout of a bare timestamp.
+     */
+    @SuppressWarnings("unused")
+    private static final class OnlyTimestamp {
+        long timestamp;
+    }
+
+    @Test
+    public void testLayout() {
+        // Only the timestamp.
+        var fields = new HashSet<String>();
+        for (var field : DateTime.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field.getName());
+            }
+        }
+        Assert.assertEquals(Set.of("timestamp"), fields);
+
+        var layout = ClassLayout.parseClass(DateTime.class);
+        var size = layout.instanceSize();
+        Assert.assertEquals(layout.toPrintable(), ClassLayout.parseClass(OnlyTimestamp.class).instanceSize(), size);
+
+        var vm = VM.current();
+        var withPattern = ClassLayout.parseClass(WithPattern.class).instanceSize();
+        if (vm.objectHeaderSize() == 12 && vm.sizeOfField("java.lang.String") == 4) {
+            // A compressed reference took the gap after a 12-byte header,
+            // so the instance is as large as a time with its own pattern.
+            Assert.assertEquals(layout.toPrintable(), 24L, size);
+        } else {
+            // With compact object headers, 16-byte headers or 8-byte
+            // references, the pattern took 8 more bytes.
+            Assert.assertEquals(layout.toPrintable(), withPattern - 8L, size);
+            if (vm.objectHeaderSize() <= 8) {
+                Assert.assertEquals(layout.toPrintable(), 16L, size);
+            }
+        }
+    }
+
+    @Test
+    public void testPattern() {
+        var time = new DateTime(1639216800L);
+        Assert.assertEquals(DateTimeFormatter.DEFAULT_PATTERN, time.Pattern());
+        Assert.assertEquals("11/12/2021", time.Pattern("dd/MM/yyyy").Timestamp(1639216800L).ToString(DateTimeZone.UTC));
+        Assert.assertSame(DateTimeFormatter.DEFAULT_PATTERN, time.Pattern(DateTimeFormatter.DEFAULT_PATTERN).Pattern());
+
+        // The pattern belongs to the instance, not to an equal time.
+        var times = new DateTime[1000];
+        for (var i = 0; i < times.length; i++) {
+            times[i] = new DateTime(1639216800L).Pattern(i % 2 == 0 ? null : "HH:mm:ss " + i);
+        }
+        for (var i = 0; i < times.length; i++) {
+            Assert.assertEquals(i % 2 == 0 ? null : "HH:mm:ss " + i, times[i].AddSeconds(i).Pattern());
+        }
+        Assert.assertEquals(DateTimeFormatter.DEFAULT_PATTERN, new DateTime(1639216800L).Pattern());
+        Assert.assertEquals("2021/12/11", time.Pattern("yyyy/MM/dd").ToString(DateTimeZone.UTC));
+        Assert.assertEquals("yyyy/MM/dd", new DateTime(0L).Pattern("yyyy/MM/dd").Pattern());
+        Assert.assertNull(time.Pattern(null).Pattern());
+        Assert.assertEquals("yyyy/MM/dd", time.Pattern("yyyy/MM/dd").ToImmutable().Pattern());
+
+        // The fields of 2 times read in turn are still right.
+        var random = new Random(20221101L);
+        for (var i = 0; i < 1000; i++) {
+            var a = new DateTime(random.nextInt());
+            var b = new DateTime(random.nextInt());
+            var year = a.Year();
+            Assert.assertEquals(b.ToLocalDateTime().getDayOfMonth(), b.Day());
+            Assert.assertEquals(year, a.Year());
+            Assert.assertEquals(a.ToLocalDateTime().getMonthValue(), a.Month());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+public class DateTimeSequenceTest {
+
+    private static DateTime calendarAdd(DateTime time, int field, int amount) {
+        var calendar = time.ToCalendar();
+        calendar.add(field, amount);
+        return new DateTime(calendar);
+    }
+
+    @Test
+    public void testSteps() {
+        var start = new DateTime(2022, 1, 31, 9, 30, 0);
+        var end = new DateTime(2024, 3, 1, 0, 0, 0);
+        var units = new DateTimeUnit[]{DateTimeUnit.HOUR, DateTimeUnit.DAY, DateTimeUnit.WEEK,
+                DateTimeUnit.MONTH, DateTimeUnit.QUARTER, DateTimeUnit.YEAR};
+        for (var unit : units) {
+            // The same times as adding the units to the start one by one.
+            var expected = new ArrayList<Long>();
+            for (var i = 0; ; i++) {
+                var time = new DateTime(start.Unix());
+                switch (unit) {
+                    case HOUR: time.AddHours(i); break;
+                    case DAY: time = calendarAdd(time, Calendar.DATE, i); break;
+                    case WEEK: time = calendarAdd(time, Calendar.DATE, 7 * i); break;
+                    case MONTH: time.AddMonths(i); break;
+                    case QUARTER: time.AddMonths(3 * i); break;
+                    default: time.AddYears(i); break;
+                }
+                if (time.Unix() >= end.Unix()) {
+                    break;
+                }
+                expected.add(time.Unix());
+            }
+            var sequence = DateTime.Range(start, end, unit);
+            Assert.assertEquals(expected.size(), sequence.Size());
+            Assert.assertEquals(expected, sequence.Unix().boxed().collect(Collectors.toList()));
+            Assert.assertEquals(expected, sequence.Unix().parallel().boxed().collect(Collectors.toList()));
+            Assert.assertEquals(expected.get(expected.size() - 1).longValue(), sequence.Unix(sequence.Size() - 1));
+        }
+
+        var fixed = DateTime.Range(start, new DateTime(start.Unix() + 3600L), TimeSpan.FromSeconds(7L));
+        Assert.assertEquals(515L, fixed.Size());
+        Assert.assertEquals(start.Unix() + 514 * 7L, fixed.Get(514).Unix());
+        Assert.assertEquals(fixed.Unix().sum(), fixed.Unix().parallel().sum());
+        Assert.assertTrue(DateTime.Range(start, start, TimeSpan.FromSeconds(1L)).IsEmpty());
+        Assert.assertTrue(DateTime.Range(end, start, DateTimeUnit.MONTH).IsEmpty());
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> fixed.Unix(515L));
+
+        // The spliterator of the instances splits into even halves as well.
+        var spliterator = fixed.spliterator();
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        var prefix = spliterator.trySplit();
+        Assert.assertEquals(257L, prefix.estimateSize());
+        Assert.assertEquals(258L, spliterator.estimateSize());
+        Assert.assertEquals(fixed.Unix().boxed().collect(Collectors.toList()),
+                StreamSupport.stream(fixed.spliterator(), true).map(DateTime::Unix).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testCalendar() {
+        var zone = DateTimeZone.Of("Europe/Berlin");
+        var start = new DateTime(2022, 1, 31, 18, 0, 0, zone);
+        var end = new DateTime(2023, 1, 1, 0, 0, 0, zone);
+
+        var ends = DateTimeSequence.MonthEnds(start, end, zone);
+        Assert.assertEquals(12L, ends.Size());
+        for (var i = 0; i < ends.Size(); i++) {
+            var time = ends.Get(i);
+            Assert.assertEquals(i + 1, time.Month(zone));
+            Assert.assertEquals(18, time.Hour(zone));
+            Assert.assertEquals(CivilCalendar.lengthOfMonth(time.Year(zone), time.Month(zone)), time.Day(zone));
+        }
+        Assert.assertEquals(11L, DateTimeSequence.MonthEnds(new DateTime(start.Unix()).AddDays(1), end, zone).Size());
+
+        var mondays = DateTimeSequence.Weekly(start, end, Calendar.MONDAY, zone);
+        Assert.assertEquals(48L, mondays.Size());
+        var count = 0;
+        for (var monday : mondays) {
+            Assert.assertEquals(DateTimeFormatter.dayOfWeek(Math.floorDiv(monday.Unix()
+                    + zone.Offset(monday.Unix()), 86400L)), Calendar.MONDAY);
+            Assert.assertEquals(18, monday.Hour(zone));
+            count++;
+        }
+        Assert.assertEquals(48, count);
+        Assert.assertEquals(48, mondays.ToArray().Size());
+        Assert.assertEquals(6L, DateTimeSequence.Of(start, end, DateTimeUnit.MONTH, 2, zone).Stream().count());
+    }
+}
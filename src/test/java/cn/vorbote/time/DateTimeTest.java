@@ -0,0 +1,233 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class DateTimeTest {
+
+    private static long calendar(int year, int month, int date, int hour, int minute, int second) {
+        var calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month - 1, date, hour, minute, second);
+        return calendar.getTimeInMillis() / 1000L;
+    }
+
+    private static long calendarAdd(long timestamp, int field, int amount) {
+        var calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timestamp * 1000L);
+        calendar.add(field, amount);
+        return calendar.getTimeInMillis() / 1000L;
+    }
+
+    @Test
+    public void testSameAsCalendar() {
+        var random = new Random(20211211L);
+        for (var i = 0; i < 20000; i++) {
+            var year = i % 3 == 0 ? 1 + random.nextInt(9999) : 1570 + random.nextInt(500);
+            var month = 1 + random.nextInt(12);
+            var date = 1 + random.nextInt(month == 2 ? 28 : 30);
+            var hour = random.nextInt(24);
+            var minute = random.nextInt(60);
+            var second = random.nextInt(60);
+
+            var expected = calendar(year, month, date, hour, minute, second);
+            Assert.assertEquals(expected, new DateTime(year, month, date, hour, minute, second).Unix());
+            Assert.assertEquals(calendar(year, month, date, 0, 0, 0), new DateTime(year, month, date).Unix());
+
+            var months = random.nextInt(61) - 30;
+            Assert.assertEquals(calendarAdd(expected, Calendar.MONTH, months),
+                    new DateTime(expected).AddMonths(months).Unix());
+
+            var years = random.nextInt(41) - 20;
+            Assert.assertEquals(calendarAdd(expected, Calendar.YEAR, years),
+                    new DateTime(expected).AddYears(years).Unix());
+
+            var days = random.nextInt(2001) - 1000;
+            Assert.assertEquals(expected + days * 86400L,
+                    new DateTime(expected).Add(new TimeSpan(days, 0, 0, 0)).Unix());
+        }
+    }
+
+    @Test
+    public void testDaylightSaving() {
+        var original = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            // The clocks go forward in the night after the 13th of March 2021.
+            var a = new DateTime(2021, 3, 13, 12, 0, 0);
+            var b = new DateTime(a.Unix() + 86400L);
+            var span = b.Minus(a);
+            Assert.assertEquals(TimeSpan.FromSeconds(86400L), span);
+            Assert.assertEquals(b, new DateTime(a.Unix()).Add(span));
+            Assert.assertEquals(a, new DateTime(b.Unix()).Minus(span));
+            Assert.assertEquals(a.Unix() + 82800L, new DateTime(a.Unix()).Add(new TimeSpan(1, -1, 0, 0)).Unix());
+
+            var immutable = ImmutableDateTime.Of(a.Unix());
+            Assert.assertEquals(b.Unix(), immutable.Add(span).Unix());
+            Assert.assertEquals(span, immutable.Add(span).Minus(immutable));
+            Assert.assertEquals(a.Unix(), immutable.Add(span).Minus(span).Unix());
+
+            var array = DateTimeArray.Of(new long[]{a.Unix(), b.Unix()}).Add(span);
+            Assert.assertEquals(b.Unix(), array.Unix(0));
+            Assert.assertEquals(a.Unix(), array.Minus(span).Minus(span).Unix(1));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    @Test
+    public void testEndOfMonth() {
+        var time = new DateTime(2020, 1, 31, 10, 0, 0);
+        Assert.assertEquals(new DateTime(2020, 2, 29, 10, 0, 0), time.AddMonths(1));
+        Assert.assertEquals(new DateTime(2021, 2, 28, 10, 0, 0), time.AddYears(1));
+        Assert.assertEquals(new DateTime(2020, 12, 28, 10, 0, 0), time.AddMonths(-2));
+    }
+
+    @Test
+    public void testImmutable() {
+        var time = ImmutableDateTime.Of(2020, 1, 31, 10, 0, 0);
+        var next = time.AddMonths(1);
+        Assert.assertNotSame(time, next);
+        Assert.assertEquals(ImmutableDateTime.Of(2020, 1, 31, 10, 0, 0), time);
+        Assert.assertEquals(new DateTime(2020, 2, 29, 10, 0, 0), next.ToDateTime());
+        Assert.assertEquals(next, next.ToDateTime().ToImmutable());
+        Assert.assertEquals("2020/01/31", time.Pattern("yyyy/MM/dd").toString());
+        Assert.assertEquals(DateTimeFormatter.DEFAULT_PATTERN, time.Pattern());
+        Assert.assertNull(time.Pattern(null).Pattern());
+        Assert.assertNull(new DateTime(0L).Pattern(null).ToImmutable().Pattern());
+
+        Assert.assertSame(ImmutableDateTime.EPOCH, ImmutableDateTime.Of(0L));
+        Assert.assertSame(ImmutableDateTime.Today(), ImmutableDateTime.Today());
+        Assert.assertTrue(ImmutableDateTime.Today().compareTo(ImmutableDateTime.Now()) <= 0);
+    }
+
+    @Test
+    public void testTickingClock() {
+        var millis = new long[]{1639216800_000L};
+        try (var clock = TickingClock.Lazy(() -> millis[0]).Register("HH:mm")) {
+            DateTime.Clock(clock);
+            var now = ImmutableDateTime.Now();
+            Assert.assertEquals(1639216800L, now.Unix());
+            Assert.assertEquals(1639216800L, DateTime.Now().Unix());
+            Assert.assertEquals(now.toString(), clock.NowString());
+            Assert.assertEquals(new DateTime(1639216800L).Pattern("HH:mm").toString(), clock.NowString("HH:mm"));
+
+            millis[0] += 999L;
+            Assert.assertSame(now, ImmutableDateTime.Now());
+            millis[0] += 1L;
+            Assert.assertEquals(1639216801L, ImmutableDateTime.Now().Unix());
+        } finally {
+            DateTime.Clock(Clock.SYSTEM);
+        }
+    }
+
+    @Test
+    public void testFields() {
+        var random = new Random(20211215L);
+        for (var i = 0; i < 20000; i++) {
+            var timestamp = -62135596800L + (long) (random.nextDouble() * 315537897600L);
+            var calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(timestamp * 1000L);
+            var time = new DateTime(timestamp);
+            Assert.assertEquals(calendar.get(Calendar.YEAR), time.Year());
+            Assert.assertEquals(calendar.get(Calendar.MONTH) + 1, time.Month());
+            Assert.assertEquals(calendar.get(Calendar.DATE), time.Day());
+            Assert.assertEquals(calendar.get(Calendar.HOUR_OF_DAY), time.Hour());
+            Assert.assertEquals(calendar.get(Calendar.MINUTE), time.Minute());
+            Assert.assertEquals(calendar.get(Calendar.SECOND), time.Second());
+            Assert.assertEquals(calendar.get(Calendar.DAY_OF_WEEK), time.DayOfWeek());
+            Assert.assertEquals(calendar.get(Calendar.DAY_OF_YEAR), time.DayOfYear());
+            Assert.assertEquals(calendar.getActualMaximum(Calendar.DAY_OF_MONTH), time.DaysInMonth());
+
+            // The fields decomposed once are the same as the accessors.
+            var fields = time.Fields();
+            Assert.assertEquals(time.Year(), fields.Year());
+            Assert.assertEquals(time.Month(), fields.Month());
+            Assert.assertEquals(time.Day(), fields.Day());
+            Assert.assertEquals(time.Hour(), fields.Hour());
+            Assert.assertEquals(time.Minute(), fields.Minute());
+            Assert.assertEquals(time.Second(), fields.Second());
+            Assert.assertEquals(time.DayOfWeek(), fields.DayOfWeek());
+            Assert.assertEquals(time.DayOfYear(), fields.DayOfYear());
+            Assert.assertEquals(time.DaysInMonth(), fields.DaysInMonth());
+            Assert.assertEquals(time.IsLeapYear(), fields.IsLeapYear());
+            Assert.assertEquals(calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET),
+                    fields.Offset() * 1000);
+        }
+
+        var fields = new DateTime(1639189230L).Fields(DateTimeZone.Of("Asia/Tokyo"));
+        Assert.assertEquals(2021, fields.Year());
+        Assert.assertEquals(11, fields.Hour());
+        Assert.assertEquals(9 * 3600, fields.Offset());
+
+        var time = new DateTime(2020, 2, 29, 10, 20, 30);
+        Assert.assertTrue(time.IsLeapYear());
+        Assert.assertEquals(29, time.DaysInMonth());
+        time.AddYears(1);
+        Assert.assertEquals(2021, time.Year());
+        Assert.assertEquals(28, time.Day());
+        Assert.assertFalse(time.IsLeapYear());
+        time.AddSeconds(14 * 3600);
+        Assert.assertEquals(1, time.Day());
+        Assert.assertEquals(3, time.Month());
+        Assert.assertEquals(0, time.Hour());
+        Assert.assertEquals(20, time.Minute());
+    }
+
+    @Test
+    public void testJavaTime() {
+        var zone = DateTimeZone.Of("America/New_York");
+        var zoneId = ZoneId.of("America/New_York");
+        var random = new Random(20221001L);
+        for (var i = 0; i < 20000; i++) {
+            var timestamp = -2208988800L + (long) (random.nextDouble() * 6311433600L);
+            var time = new DateTime(timestamp);
+            var zoned = ZonedDateTime.ofInstant(Instant.ofEpochSecond(timestamp), zoneId);
+            Assert.assertEquals(zoned, time.ToZonedDateTime(zone));
+            Assert.assertEquals(zoned.toOffsetDateTime(), time.ToOffsetDateTime(zone));
+            Assert.assertEquals(zoned.toLocalDateTime(), time.ToLocalDateTime(zone));
+            Assert.assertEquals(timestamp, new DateTime(zoned).Unix());
+            Assert.assertEquals(timestamp, new DateTime(zoned.toOffsetDateTime()).Unix());
+            Assert.assertEquals(timestamp, new DateTime(time.ToInstant()).Unix());
+        }
+
+        // The gap and the overlap of 2022 in New York.
+        var gap = LocalDateTime.of(2022, 3, 13, 2, 30);
+        Assert.assertEquals(gap.atZone(zoneId).toEpochSecond(), new DateTime(gap, zone).Unix());
+        var overlap = LocalDateTime.of(2022, 11, 6, 1, 30);
+        Assert.assertEquals(overlap.atZone(zoneId).withLaterOffsetAtOverlap().toEpochSecond(),
+                new DateTime(overlap, zone).Unix());
+
+        Assert.assertEquals(-1L, new DateTime(Instant.ofEpochMilli(-1L)).Unix());
+        Assert.assertEquals(zoneId, zone.ToZoneId());
+        Assert.assertSame(zone, DateTimeZone.Of(zoneId));
+        Assert.assertSame(DateTimeZone.UTC, DateTimeZone.Of(ZoneOffset.UTC));
+        Assert.assertEquals(8 * 3600, DateTimeZone.Of(ZoneOffset.ofHours(8)).Offset(0L));
+        Assert.assertEquals(OffsetDateTime.of(2022, 10, 1, 8, 0, 0, 0, ZoneOffset.ofHours(8)),
+                new DateTime(1664582400L).ToOffsetDateTime(DateTimeZone.Of(ZoneOffset.ofHours(8))));
+        Assert.assertEquals(8 * 3600, DateTimeZone.Of(ZoneId.of("UTC+08:00")).Offset(0L));
+        Assert.assertSame(DateTimeZone.UTC, DateTimeZone.Of(ZoneId.of("UT")));
+        var seconds = DateTimeZone.Of(ZoneOffset.ofTotalSeconds(19815));
+        Assert.assertEquals(19815, seconds.Offset(0L));
+        Assert.assertEquals(ZoneOffset.ofTotalSeconds(19815), seconds.ToZoneId());
+        Assert.assertEquals(OffsetDateTime.of(1970, 1, 1, 5, 30, 15, 0, ZoneOffset.ofTotalSeconds(19815)),
+                new DateTime(0L).ToOffsetDateTime(seconds));
+
+        var instants = new Instant[]{Instant.ofEpochSecond(30L), Instant.ofEpochSecond(10L, 999_999_999)};
+        var array = DateTimeArray.Of(instants);
+        Assert.assertArrayEquals(new long[]{30L, 10L}, array.ToArray());
+        Assert.assertFalse(array.IsSorted());
+        Assert.assertEquals(Instant.ofEpochSecond(10L), array.ToInstants()[1]);
+        Assert.assertEquals(Instant.ofEpochSecond(30L), ImmutableDateTime.Of(instants[0]).ToInstant());
+    }
+}
@@ -0,0 +1,116 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+public class DateTimeZoneTest {
+
+    @Test
+    public void testSameAsTimeZone() {
+        var random = new Random(20211214L);
+        for (var id : TimeZone.getAvailableIDs()) {
+            var timeZone = TimeZone.getTimeZone(id);
+            var zone = DateTimeZone.Of(id);
+            for (var i = 0; i < 500; i++) {
+                // Years 1 through 9999, and 1900 through 2100 more often.
+                var timestamp = i % 2 == 0
+                        ? -62135596800L + (long) (random.nextDouble() * 315537897600L)
+                        : -2208988800L + (long) (random.nextDouble() * 6342969600L);
+                Assert.assertEquals(id + " " + timestamp,
+                        timeZone.getOffset(timestamp * 1000L) / 1000, zone.Offset(timestamp));
+            }
+        }
+    }
+
+    @Test
+    public void testTransitions() {
+        var timeZone = TimeZone.getTimeZone("America/New_York");
+        var zone = DateTimeZone.Of("America/New_York");
+        Assert.assertSame(zone, DateTimeZone.Of(timeZone));
+        for (var timestamp = 0L; timestamp < 4200000000L; timestamp += 1799L) {
+            Assert.assertEquals(timeZone.getOffset(timestamp * 1000L) / 1000, zone.Offset(timestamp));
+        }
+
+        var custom = new SimpleTimeZone(3600000, "Custom",
+                Calendar.MARCH, 1, 0, 0, Calendar.OCTOBER, 1, 0, 0);
+        var customZone = DateTimeZone.Of(custom);
+        for (var timestamp = 0L; timestamp < 2000000000L; timestamp += 86399L) {
+            Assert.assertEquals(custom.getOffset(timestamp * 1000L) / 1000, customZone.Offset(timestamp));
+        }
+    }
+
+    @Test
+    public void testZonedDateTime() {
+        var tokyo = DateTimeZone.Of("Asia/Tokyo");
+        var time = new DateTime(2021, 12, 11, 10, 20, 30, tokyo);
+        Assert.assertEquals(1639185630L, time.Unix());
+        Assert.assertEquals("2021-12-11 10:20:30", time.ToString(tokyo));
+        Assert.assertEquals("2021-12-11 01:20:30", time.ToString(DateTimeZone.UTC));
+        Assert.assertEquals(2021, time.Year(tokyo));
+        Assert.assertEquals(12, time.Month(tokyo));
+        Assert.assertEquals(11, time.Day(tokyo));
+        Assert.assertEquals(10, time.Hour(tokyo));
+        Assert.assertEquals(1, time.Hour(DateTimeZone.UTC));
+        Assert.assertEquals(20, time.Minute(tokyo));
+        Assert.assertEquals(30, time.Second(tokyo));
+
+        var formatter = DateTimeFormatter.Of("yyyy-MM-dd HH:mm:ss z", tokyo);
+        var expected = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z");
+        expected.setTimeZone(tokyo.ToTimeZone());
+        Assert.assertEquals(expected.format(new Date(time.Java())), formatter.Format(time));
+        Assert.assertSame(formatter, DateTimeFormatter.Of("yyyy-MM-dd HH:mm:ss z").WithZone(tokyo));
+        Assert.assertEquals(time.Unix(), DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN, tokyo)
+                .Parse("2021-12-11 10:20:30"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownZone() {
+        DateTimeZone.Of("Mars/Olympus_Mons");
+    }
+
+    @Test
+    public void testUtcAliases() {
+        for (var id : new String[]{"UTC", "GMT", "UCT", "Etc/UTC", "Etc/GMT", "Etc/UCT", "Etc/Universal",
+                "Etc/Zulu", "Universal", "Zulu"}) {
+            var zone = DateTimeZone.Of(id);
+            Assert.assertTrue(id, zone.isFixed());
+            Assert.assertEquals(0, zone.Offset(Long.MAX_VALUE));
+            Assert.assertEquals(id, zone.ToTimeZone().getID());
+            Assert.assertEquals(TimeZone.getTimeZone(id).toZoneId(), zone.ToZoneId());
+            Assert.assertSame(zone, DateTimeZone.Of(TimeZone.getTimeZone(id)));
+        }
+        Assert.assertEquals(DateTimeZone.UTC, DateTimeZone.Of(new SimpleTimeZone(0, "UTC")));
+    }
+
+    @Test
+    public void testFollowsDefault() {
+        var original = TimeZone.getDefault();
+        try {
+            var time = new DateTime(1639189230L);
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Shanghai"));
+            Assert.assertEquals("Asia/Shanghai", DateTimeZone.Default().Id());
+            Assert.assertSame(DateTimeZone.Default(), DateTimeZone.Default());
+            Assert.assertEquals("1970-01-01 08:00:00", new DateTime(0L).toString());
+            Assert.assertEquals(10, time.Hour());
+            Assert.assertEquals("2021-12-11 10:20:30", time.toString());
+
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            Assert.assertEquals(11, time.Hour());
+            Assert.assertEquals("2021-12-11 11:20:30", time.toString());
+            Assert.assertEquals(1639189230L, new DateTime(2021, 12, 11, 11, 20, 30).Unix());
+            Assert.assertEquals(1639148400L, new DateTime(2021, 12, 11).Unix());
+
+            TimeZone.setDefault(new SimpleTimeZone(3600 * 1000, "Asia/Tokyo"));
+            Assert.assertEquals(3, time.Hour());
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class IntervalIndexTest {
+
+    private static List<Integer> scan(List<DateTimeRange> ranges, Predicate<DateTimeRange> filter) {
+        var result = new ArrayList<Integer>();
+        for (var i = 0; i < ranges.size(); i++) {
+            if (filter.test(ranges.get(i))) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static List<Integer> sorted(List<Integer> values) {
+        return values.stream().sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testQueries() {
+        var random = new Random(20220701L);
+        for (var size : new int[]{0, 1, 2, 3, 7, 8, 9, 100, 1000, 5000}) {
+            var ranges = new ArrayList<DateTimeRange>();
+            var builder = IntervalIndex.<Integer>builder();
+            for (var i = 0; i < size; i++) {
+                var start = (long) random.nextInt(100000);
+                var length = random.nextInt(10) == 0 ? random.nextInt(20000) : random.nextInt(200);
+                var range = DateTimeRange.Of(start, start + length);
+                ranges.add(range);
+                builder.Add(range, i);
+            }
+            var index = builder.Build();
+            Assert.assertEquals(size, index.Size());
+            for (var i = 1; i < size; i++) {
+                Assert.assertTrue(index.Range(i - 1).compareTo(index.Range(i)) <= 0);
+            }
+
+            for (var q = 0; q < 300; q++) {
+                var start = (long) random.nextInt(110000) - 5000;
+                var query = DateTimeRange.Of(start, start + random.nextInt(q % 3 == 0 ? 1 : 3000));
+                Assert.assertEquals(scan(ranges, query::Overlaps),
+                        sorted(index.Overlapping(query).collect(Collectors.toList())));
+                Assert.assertEquals(scan(ranges, query::Overlaps).size(),
+                        index.CountOverlapping(query.StartUnix(), query.EndUnix()));
+                Assert.assertEquals(scan(ranges, range -> range.Contains(start)),
+                        sorted(index.Containing(new DateTime(start)).collect(Collectors.toList())));
+                Assert.assertEquals(scan(ranges, range -> range.Contains(query) && range.Contains(start)),
+                        sorted(index.Covering(query).collect(Collectors.toList())));
+                Assert.assertEquals(scan(ranges, range -> query.Contains(range) && !range.IsEmpty()),
+                        sorted(index.Within(query).collect(Collectors.toList())));
+
+                // The positions come in ascending order.
+                var positions = index.OverlappingIndexes(query.StartUnix(), query.EndUnix()).toArray();
+                for (var i = 1; i < positions.length; i++) {
+                    Assert.assertTrue(positions[i - 1] < positions[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRange() {
+        var start = new DateTime(2022, 7, 1, 9, 0, 0);
+        var morning = DateTimeRange.Of(start, TimeSpan.FromSeconds(3 * 3600L));
+        var noon = DateTimeRange.Of(new DateTime(2022, 7, 1, 11, 0, 0), new DateTime(2022, 7, 1, 13, 0, 0));
+        var evening = DateTimeRange.Of(new DateTime(2022, 7, 1, 18, 0, 0), TimeSpan.FromSeconds(3600L));
+
+        Assert.assertEquals(TimeSpan.FromSeconds(3 * 3600L), morning.Length());
+        Assert.assertTrue(morning.Contains(start));
+        Assert.assertFalse(morning.Contains(morning.End()));
+        Assert.assertTrue(morning.Overlaps(noon));
+        Assert.assertEquals(DateTimeRange.Of(noon.StartUnix(), morning.EndUnix()), morning.Intersect(noon));
+        Assert.assertEquals(DateTimeRange.Of(morning.StartUnix(), noon.EndUnix()), morning.Union(noon));
+        Assert.assertNull(morning.Intersect(evening));
+        Assert.assertNull(morning.Union(evening));
+        Assert.assertNull(morning.Gap(noon));
+        Assert.assertEquals(DateTimeRange.Of(noon.EndUnix(), evening.StartUnix()), evening.Gap(noon));
+        Assert.assertEquals("[2022-07-01 09:00:00, 2022-07-01 12:00:00)", morning.toString());
+        Assert.assertThrows(IllegalArgumentException.class, () -> DateTimeRange.Of(start, TimeSpan.FromSeconds(-1L)));
+    }
+
+    @Test
+    public void testConcurrent() {
+        var index = new ConcurrentIntervalIndex<String>();
+        index.Add(DateTimeRange.Of(0L, 100L), "a").Add(DateTimeRange.Of(50L, 150L), "b");
+        Assert.assertEquals(0, index.Snapshot().Size());
+
+        var snapshot = index.Publish();
+        Assert.assertEquals(List.of("a", "b"), index.Containing(new DateTime(60L)).collect(Collectors.toList()));
+
+        index.Add(DateTimeRange.Of(55L, 56L), "c");
+        Assert.assertEquals(1, index.Remove("a"));
+        Assert.assertEquals(0, index.Remove("x"));
+        Assert.assertSame(snapshot, index.Snapshot());
+        index.Publish();
+        Assert.assertEquals(List.of("b", "c"), index.Overlapping(DateTimeRange.Of(0L, 60L))
+                .sorted(Comparator.naturalOrder()).collect(Collectors.toList()));
+        Assert.assertEquals(2, snapshot.Overlapping(DateTimeRange.Of(0L, 60L)).count());
+    }
+}
@@ -0,0 +1,62 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        var random = new Random(20211213L);
+        for (var precision = 2; precision <= 16; precision++) {
+            var count = LatencyHistogram.bucketCount(precision);
+            Assert.assertEquals(count - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE, precision));
+            for (var i = 0; i < 10000; i++) {
+                var value = random.nextLong() >>> random.nextInt(64);
+                var index = LatencyHistogram.bucketIndex(value, precision);
+                Assert.assertTrue(LatencyHistogram.lowestValue(index, precision) <= value);
+                Assert.assertTrue(LatencyHistogram.highestValue(index, precision) >= value);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() throws InterruptedException {
+        var histogram = new LatencyHistogram();
+        var threads = new Thread[4];
+        for (var t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (var i = 1; i <= 10000; i++) {
+                    histogram.Record(i * 1000L);
+                }
+            });
+            threads[t].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        var snapshot = histogram.SnapshotAndReset();
+        Assert.assertEquals(40000, snapshot.Count());
+        Assert.assertEquals(5_000_000, snapshot.ValueAt(50), 5_000_000 / 64);
+        Assert.assertEquals(9_900_000, snapshot.ValueAt(99), 9_900_000 / 64);
+        Assert.assertEquals(TimeSpan.FromMillis(10L), snapshot.Max());
+        Assert.assertEquals(5.0, snapshot.P50().TotalMillis(), 5.0 / 64);
+        Assert.assertEquals(0, histogram.Snapshot().Count());
+    }
+
+    @Test
+    public void testStopwatch() throws InterruptedException {
+        var stopwatch = Stopwatch.StartNew();
+        Thread.sleep(20L);
+        stopwatch.Stop();
+        var elapsed = stopwatch.ElapsedNanos();
+        Assert.assertTrue(elapsed >= 20_000_000L);
+        Assert.assertFalse(stopwatch.IsRunning());
+        Assert.assertEquals(elapsed, stopwatch.ElapsedNanos());
+        Assert.assertEquals(elapsed / 100L, stopwatch.Elapsed().getTicks());
+        Assert.assertEquals(0L, stopwatch.Reset().ElapsedNanos());
+    }
+}
@@ -0,0 +1,112 @@
+package cn.vorbote.time;
+
+import cn.vorbote.commons.except.TimeOutRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+
+public class TimeSpanTest {
+
+    @Test
+    public void testNormalized() {
+        var span = new TimeSpan(0, 49, 61, 3661);
+        Assert.assertEquals(2, span.getDays());
+        Assert.assertEquals(3, span.getHours());
+        Assert.assertEquals(2, span.getMinutes());
+        Assert.assertEquals(1, span.getSeconds());
+        Assert.assertEquals("2.03:02:01", span.toString());
+        Assert.assertEquals(span, TimeSpan.builder().days(2).hours(3).minutes(2).seconds(1).build());
+
+        var difference = new DateTime(2021, 12, 11, 10, 0, 0).Minus(new DateTime(2021, 12, 9, 8, 30, 15));
+        Assert.assertEquals(new TimeSpan(2, 1, 29, 45), difference);
+        Assert.assertEquals(new TimeSpan(-2, -1, -29, -45), difference.Negate());
+        Assert.assertEquals("-2.01:29:45", difference.Negate().toString());
+
+        var years = new DateTime(9999, 1, 1).Minus(new DateTime(1, 1, 1));
+        Assert.assertTrue(years.getDays() > 3_600_000);
+    }
+
+    @Test
+    public void testArithmetic() {
+        var second = TimeSpan.FromSeconds(1L);
+        Assert.assertEquals(TimeSpan.FromMillis(1500L), second.Add(TimeSpan.FromMillis(500L)));
+        Assert.assertEquals(TimeSpan.FromMillis(500L), second.Subtract(TimeSpan.FromMillis(500L)));
+        Assert.assertEquals(TimeSpan.FromSeconds(1.5), second.Multiply(1.5));
+        Assert.assertEquals(new TimeSpan(1, 0, 0, 0), TimeSpan.FromSeconds(3600L).Multiply(24L));
+        Assert.assertEquals(1500L, TimeSpan.FromSeconds(1.5).TotalMillis());
+        Assert.assertEquals("0.00:00:01.5000000", TimeSpan.FromSeconds(1.5).toString());
+        Assert.assertTrue(TimeSpan.Compare(second, TimeSpan.FromMillis(999L)) > 0);
+        Assert.assertEquals(1.5, TimeSpan.FromSeconds(5400L).TotalHours(), 0.0);
+
+        Assert.assertEquals(Duration.ofMillis(-1500L), TimeSpan.FromMillis(-1500L).ToDuration());
+        Assert.assertEquals(TimeSpan.FromMillis(-1500L), TimeSpan.FromDuration(Duration.ofMillis(-1500L)));
+        Assert.assertEquals(TimeSpan.FromTicks(-1L), TimeSpan.FromDuration(Duration.ofNanos(-199L)));
+        Assert.assertEquals(TimeSpan.FromTicks(Long.MIN_VALUE),
+                TimeSpan.FromDuration(TimeSpan.FromTicks(Long.MIN_VALUE).ToDuration()));
+    }
+
+    @Test
+    public void testFormat() {
+        var span = new TimeSpan(1, 2, 3, 4).Add(TimeSpan.FromMillis(500L));
+        Assert.assertEquals("1.02:03:04.5000000", span.ToString("c"));
+        Assert.assertEquals("1:2:03:04.5", span.ToString("g"));
+        Assert.assertEquals("1:02:03:04.5000000", span.ToString("G"));
+        Assert.assertEquals("00:00:05", TimeSpan.FromSeconds(5L).ToString("c"));
+        Assert.assertEquals("-0:00:05", TimeSpan.FromSeconds(-5L).ToString("g"));
+        Assert.assertEquals("-0:00:00:05.0000000", TimeSpan.FromSeconds(-5L).ToString("G"));
+        Assert.assertEquals("-10675199.02:48:05.4775808", TimeSpan.FromTicks(Long.MIN_VALUE).toString());
+        Assert.assertEquals("10675199:2:48:05.4775807", TimeSpan.FromTicks(Long.MAX_VALUE).ToString("g"));
+
+        var bytes = new byte[40];
+        var length = span.FormatTo(bytes, 3, "g");
+        Assert.assertEquals("1:2:03:04.5", new String(bytes, 3, length, StandardCharsets.US_ASCII));
+        Assert.assertEquals("x1.02:03:04.5000000", span.FormatTo(new StringBuilder("x")).toString());
+        Assert.assertThrows(IndexOutOfBoundsException.class, () -> span.FormatTo(new byte[10], 0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> span.ToString("hh:mm"));
+
+        var random = new Random(20211215L);
+        for (var i = 0; i < 10000; i++) {
+            var ticks = i < 2 ? (i == 0 ? Long.MIN_VALUE : Long.MAX_VALUE) : random.nextLong() >> random.nextInt(64);
+            var expected = TimeSpan.FromTicks(ticks);
+            for (var format : new String[]{"c", "g", "G"}) {
+                var text = expected.ToString(format);
+                Assert.assertEquals(text, expected, TimeSpan.Parse(text));
+                var written = expected.FormatTo(bytes, 0, format);
+                Assert.assertEquals(text, new String(bytes, 0, written, StandardCharsets.US_ASCII));
+            }
+            Assert.assertEquals(expected, TimeSpan.Parse(expected.toString()));
+        }
+    }
+
+    @Test
+    public void testParse() {
+        Assert.assertEquals(new TimeSpan(3, 0, 0, 0), TimeSpan.Parse("3"));
+        Assert.assertEquals(new TimeSpan(0, 6, 12, 0), TimeSpan.Parse("6:12"));
+        Assert.assertEquals(new TimeSpan(0, 6, 12, 14), TimeSpan.Parse("06:12:14"));
+        Assert.assertEquals(new TimeSpan(6, 12, 32, 0), TimeSpan.Parse("6.12:32"));
+        Assert.assertEquals(new TimeSpan(-6, -12, -32, -7), TimeSpan.Parse("-6:12:32:07"));
+        Assert.assertEquals(TimeSpan.FromMillis(1500L), TimeSpan.Parse("0:0:1.5"));
+        Assert.assertEquals(TimeSpan.FromTicks(1L), TimeSpan.Parse("00:00:00.0000001"));
+        Assert.assertEquals(new TimeSpan(0, 1, 2, 3), TimeSpan.Parse("[01:02:03]", 1, 9));
+        Assert.assertEquals(new TimeSpan(0, 1, 2, 3), TimeSpan.TryParse("[01:02:03]", 1, 9));
+
+        for (var text : new String[]{"", "-", "1.", "1:", "1:2:", "123:00", "1.2", "1.2:3:4:5", "00:00:00.",
+                "00:00:00.12345678", "00:00.5", "1:2:3:4:5", " 1:00", "1:00 ", "+1:00", "10675200"}) {
+            Assert.assertNull(text, TimeSpan.TryParse(text));
+        }
+        Assert.assertNull(TimeSpan.TryParse("24:00"));
+        Assert.assertNull(TimeSpan.TryParse("10675199.02:48:05.4775808"));
+        Assert.assertNull(TimeSpan.TryParse(null));
+        Assert.assertThrows(IllegalArgumentException.class, () -> TimeSpan.Parse("1:2:x"));
+        Assert.assertThrows(TimeOutRangeException.class, () -> TimeSpan.Parse("00:60"));
+        Assert.assertThrows(TimeOutRangeException.class, () -> TimeSpan.Parse("10675199.02:48:05.4775808"));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflow() {
+        TimeSpan.FromTicks(Long.MAX_VALUE).Add(TimeSpan.FromTicks(1L));
+    }
+}
@@ -0,0 +1,101 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class TimestampEncoderTest {
+
+    private static long[] scrapes(int count, long seed) {
+        var random = new Random(seed);
+        var values = new long[count];
+        var timestamp = 1640995200L;
+        for (var i = 0; i < count; i++) {
+            // Every 10 seconds, with a jitter now and then and a gap
+            // once in a while.
+            timestamp += 10 + (i % 17 == 0 ? random.nextInt(5) - 2 : 0) + (i % 1000 == 999 ? 3600 : 0);
+            values[i] = timestamp;
+        }
+        return values;
+    }
+
+    private static ByteBuffer encode(long[] values, int blockSize) throws Exception {
+        var bytes = new ByteArrayOutputStream();
+        try (var encoder = new TimestampEncoder(bytes, blockSize)) {
+            encoder.Append(values, 0, values.length);
+            Assert.assertEquals(values.length, encoder.Count());
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        var random = new Random(20220501L);
+        var cases = new long[][]{
+                {},
+                {42L},
+                {Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE},
+                random.longs(5000).toArray(),
+                random.longs(5000, -100000L, 100000L).toArray(),
+                scrapes(20000, 1L),
+        };
+        for (var values : cases) {
+            for (var blockSize : new int[]{1, 7, TimestampEncoder.DEFAULT_BLOCK_SIZE}) {
+                var buffer = encode(values, blockSize);
+                var decoder = new TimestampDecoder(buffer);
+                Assert.assertEquals(values.length, decoder.Remaining());
+                var decoded = new long[values.length];
+                var read = 0;
+                while (read < decoded.length) {
+                    read += decoder.Read(decoded, read, Math.min(333, decoded.length - read));
+                }
+                Assert.assertArrayEquals(values, decoded);
+                Assert.assertFalse(decoder.hasNext());
+                Assert.assertEquals(-1, decoder.Read(new long[1], 0, 1));
+
+                // The buffer sink writes the same bytes.
+                var direct = ByteBuffer.allocate(buffer.capacity());
+                var encoder = new TimestampEncoder(direct, blockSize);
+                for (var value : values) {
+                    encoder.Append(value);
+                }
+                encoder.Flush();
+                Assert.assertEquals(buffer, direct.flip());
+            }
+        }
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+        var values = scrapes(100000, 2L);
+        var size = encode(values, TimestampEncoder.DEFAULT_BLOCK_SIZE).remaining();
+        // Far less than 1 byte per timestamp, against 8 bytes raw.
+        Assert.assertTrue("size: " + size, size < values.length / 2);
+    }
+
+    @Test
+    public void testSeek() throws Exception {
+        var values = scrapes(10000, 3L);
+        var decoder = new TimestampDecoder(encode(values, 100));
+        for (var i = 0; i < values.length; i += 97) {
+            Assert.assertTrue(decoder.Seek(values[i]));
+            Assert.assertEquals(values[i], decoder.nextLong());
+            Assert.assertTrue(decoder.Seek(values[i] + 1));
+            Assert.assertEquals(values[i + 1], decoder.nextLong());
+            Assert.assertEquals(values.length - i - 2, decoder.Remaining());
+        }
+        Assert.assertTrue(decoder.Seek(Long.MIN_VALUE));
+        Assert.assertEquals(values[0], decoder.nextLong());
+        Assert.assertFalse(decoder.Seek(values[values.length - 1] + 1));
+
+        Assert.assertTrue(decoder.Seek(values[500]));
+        var times = decoder.DateTimes();
+        var time = times.next();
+        Assert.assertEquals(values[500], time.Unix());
+        Assert.assertSame(time, times.next());
+        Assert.assertEquals(values[501], time.Unix());
+    }
+}
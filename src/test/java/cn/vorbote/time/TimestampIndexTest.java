@@ -0,0 +1,112 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class TimestampIndexTest {
+
+    private static void delete(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static void check(Path directory, int count, int runSize, Random random) throws IOException {
+        var path = directory.resolve("index-" + count + "-" + runSize);
+        var entries = new long[count][];
+        var index = (TimestampIndex) null;
+        try (var builder = TimestampIndex.builder(path, runSize)) {
+            for (var i = 0; i < count; i++) {
+                entries[i] = new long[]{1_650_000_000L + random.nextInt(count / 4 + 1), i};
+                builder.Add(entries[i][0], entries[i][1]);
+            }
+            index = builder.Build();
+        }
+        try (var files = Files.list(directory)) {
+            Assert.assertEquals(0L, files.filter(file -> file.toString().endsWith(".run")).count());
+        }
+
+        try (var opened = index) {
+            // Stable, so the payloads of the same key ascend.
+            Arrays.sort(entries, Comparator.comparingLong((long[] entry) -> entry[0]));
+            Assert.assertEquals(count, opened.Size());
+            for (var i = 0; i < count; i++) {
+                Assert.assertEquals(entries[i][0], opened.Key(i));
+                Assert.assertEquals(entries[i][1], opened.Payload(i));
+            }
+            for (var q = 0; q < 200; q++) {
+                var start = 1_650_000_000L - 2 + random.nextInt(count / 4 + 5);
+                var range = DateTimeRange.Of(start, start + random.nextInt(q % 2 == 0 ? 3 : count / 8 + 1));
+                var cursor = opened.Range(range);
+                var expected = 0;
+                for (var entry : entries) {
+                    if (range.Contains(entry[0])) {
+                        Assert.assertTrue(cursor.Next());
+                        Assert.assertEquals(entry[0], cursor.Key());
+                        Assert.assertEquals(entry[1], cursor.Payload());
+                        expected++;
+                    }
+                }
+                Assert.assertFalse(cursor.Next());
+                Assert.assertEquals(expected, opened.Count(range));
+            }
+        }
+    }
+
+    @Test
+    public void testBuild() throws IOException {
+        var directory = Files.createTempDirectory("timestamp-index");
+        try {
+            var random = new Random(20220901L);
+            check(directory, 0, 16, random);
+            check(directory, 1, 16, random);
+            check(directory, 1000, 4096, random);
+            check(directory, 30000, 1000, random);
+            check(directory, 30000, 256, random);
+            check(directory, 30000, 100, random);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testCursor() throws IOException {
+        var directory = Files.createTempDirectory("timestamp-index");
+        try {
+            var path = directory.resolve("audit.idx");
+            var start = new DateTime(2022, 9, 1, 0, 0, 0);
+            try (var builder = TimestampIndex.builder(path)) {
+                for (var i = 0; i < 1000; i++) {
+                    builder.Add(new DateTime(start.Unix()).AddSeconds(i * 60), i * 128L);
+                }
+                builder.Build().close();
+            }
+            try (var index = TimestampIndex.Open(path)) {
+                var cursor = index.Range(new DateTime(start.Unix()).AddHours(1), new DateTime(start.Unix()).AddHours(2));
+                Assert.assertEquals(60L, cursor.Remaining());
+                Assert.assertThrows(IllegalStateException.class, cursor::Payload);
+                Assert.assertTrue(cursor.Next());
+                Assert.assertEquals(60 * 128L, cursor.Payload());
+                Assert.assertEquals(start.Unix() + 3600L, cursor.Time().Unix());
+                Assert.assertEquals(0L, index.Range(start.Unix() + 60000L, start.Unix() + 70000L).Remaining());
+                Assert.assertEquals(0L, index.LowerBound(Long.MIN_VALUE));
+                Assert.assertEquals(1000L, index.LowerBound(Long.MAX_VALUE));
+            }
+            Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+                    21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+            Assert.assertThrows(IOException.class, () -> TimestampIndex.Open(path));
+        } finally {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TimingWheelTest {
+
+    @Test
+    public void testTicks() {
+        var random = new Random(20220601L);
+        var wheel = new TimingWheel(TimeSpan.FromMillis(1L), null, false);
+        var now = new AtomicLong();
+        var late = new AtomicInteger();
+        var runs = new AtomicInteger();
+        var timeouts = new ArrayList<TimingWheel.Timeout>();
+        var cancelled = 0;
+        for (var i = 0; i < 20000; i++) {
+            // Up to level 3 of the wheels.
+            var tick = (long) Math.pow(300000, random.nextDouble());
+            timeouts.add(wheel.schedule(() -> {
+                runs.incrementAndGet();
+                if (now.get() != tick) {
+                    late.incrementAndGet();
+                }
+            }, tick));
+        }
+        for (var tick = 1L; tick <= 300000L; tick++) {
+            now.set(tick);
+            wheel.advance(tick);
+            if (tick % 1000 == 0) {
+                // Cancel some of the timeouts, both linked and not yet.
+                for (var j = 0; j < 10; j++) {
+                    if (timeouts.get(random.nextInt(timeouts.size())).Cancel()) {
+                        cancelled++;
+                    }
+                }
+                wheel.schedule(runs::incrementAndGet, tick - 5);
+                cancelled--;
+            }
+        }
+        wheel.advance(300001L);
+        Assert.assertEquals(0, late.get());
+        Assert.assertEquals(20000 - cancelled, runs.get());
+        Assert.assertEquals(0L, wheel.Pending());
+        Assert.assertFalse(timeouts.get(0).Cancel());
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        try (var wheel = new TimingWheel(TimeSpan.FromMillis(1L))) {
+            var threads = 4;
+            var count = 5000;
+            var latch = new CountDownLatch(threads * count / 2);
+            var early = new AtomicInteger();
+            var failure = new AtomicReference<Throwable>();
+            var workers = new Thread[threads];
+            for (var t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    var random = new Random();
+                    for (var i = 0; i < count; i++) {
+                        // The half to cancel is far enough out to still be pending.
+                        var delay = TimeSpan.FromMillis((i % 2 == 1 ? 1000 : 0) + random.nextInt(50));
+                        var deadline = System.nanoTime() + delay.getTicks() * 100L;
+                        var timeout = wheel.Schedule(() -> {
+                            if (System.nanoTime() < deadline) {
+                                early.incrementAndGet();
+                            }
+                            latch.countDown();
+                        }, delay);
+                        if (i % 2 == 1) {
+                            Assert.assertTrue(timeout.Cancel());
+                            Assert.assertTrue(timeout.IsCancelled());
+                        }
+                    }
+                });
+                workers[t].setUncaughtExceptionHandler((thread, e) -> failure.compareAndSet(null, e));
+                workers[t].start();
+            }
+            for (var worker : workers) {
+                worker.join();
+            }
+            if (failure.get() != null) {
+                throw new AssertionError("A worker failed", failure.get());
+            }
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, early.get());
+
+            var done = new CountDownLatch(1);
+            var timeout = wheel.Schedule(done::countDown, new DateTime().AddSeconds(1));
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(timeout.IsExpired());
+            Assert.assertEquals(0L, wheel.Pending());
+        }
+    }
+}
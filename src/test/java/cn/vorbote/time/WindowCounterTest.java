@@ -0,0 +1,91 @@
+package cn.vorbote.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WindowCounterTest {
+
+    @Test
+    public void testWindow() {
+        var now = new AtomicLong(1_650_000_000_000L);
+        var counter = new WindowCounter(TimeSpan.FromSeconds(60L), TimeSpan.FromSeconds(10L), now::get);
+        Assert.assertEquals(TimeSpan.FromSeconds(60L), counter.Window());
+
+        // 1 event per second for 2 minutes.
+        for (var i = 0; i < 120; i++) {
+            counter.Increment();
+            now.addAndGet(1000L);
+        }
+        // Stay in the bucket of the last event.
+        now.addAndGet(-1L);
+        Assert.assertEquals(60L, counter.Sum());
+        Assert.assertEquals(1.0, counter.Rate(), 1e-9);
+        Assert.assertEquals(10L, counter.Sum(TimeSpan.FromSeconds(10L)));
+        Assert.assertEquals(20L, counter.Sum(TimeSpan.FromSeconds(11L)));
+        Assert.assertEquals(60L, counter.Sum(TimeSpan.FromSeconds(3600L)));
+
+        var snapshot = counter.Snapshot(TimeSpan.FromSeconds(30L));
+        Assert.assertEquals(3, snapshot.Size());
+        Assert.assertArrayEquals(new long[]{10L, 10L, 10L}, snapshot.Counts());
+        Assert.assertEquals(now.get() + 1L - 30_000L, snapshot.StartMillis(0));
+
+        // A quiet period leaves stale buckets behind, which are skipped.
+        now.addAndGet(45_000L);
+        Assert.assertEquals(10L, counter.Sum());
+        counter.Add(5L);
+        counter.Add(new DateTime(now.get() / 1000L - 20L), 2L);
+        counter.Add(new DateTime(now.get() / 1000L - 3600L), 100L);
+        Assert.assertArrayEquals(new long[]{10L, 0L, 0L, 2L, 0L, 5L}, counter.Snapshot().Counts());
+        now.addAndGet(600_000L);
+        Assert.assertEquals(0L, counter.Sum());
+    }
+
+    @Test
+    public void testLaterTimeTakesBucket() {
+        var now = new AtomicLong(1_650_000_000_000L);
+        var counter = new WindowCounter(TimeSpan.FromSeconds(60L), TimeSpan.FromSeconds(1L), now::get);
+
+        // A count a window ahead takes the bucket of now, counting now is dropped.
+        counter.Add(new DateTime(now.get() / 1000L + 60L), 1L);
+        counter.Increment();
+        counter.Add(3L);
+        Assert.assertEquals(0L, counter.Sum());
+
+        // The clock steps back by a window.
+        now.addAndGet(60_000L);
+        Assert.assertEquals(1L, counter.Sum());
+        counter.Increment();
+        now.addAndGet(-60_000L);
+        counter.Increment();
+        counter.Add(2L);
+        now.addAndGet(60_000L);
+        Assert.assertEquals(2L, counter.Sum());
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        var now = new AtomicLong();
+        var counter = new WindowCounter(TimeSpan.FromSeconds(1L), TimeSpan.FromMillis(100L), now::get);
+        var threads = new Thread[8];
+        for (var t = 0; t < threads.length; t++) {
+            var offset = t;
+            threads[t] = new Thread(() -> {
+                for (var i = 0; i < 100000; i++) {
+                    counter.Increment();
+                    if (offset == 0 && i % 10000 == 0) {
+                        now.addAndGet(50L);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(800000L, counter.Sum());
+        counter.Reset();
+        Assert.assertEquals(0L, counter.Sum());
+    }
+}
@@ -0,0 +1,43 @@
+package cn.vorbote.time.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks once for every thread count with the GC profiler,
+ * so the allocation rate is reported next to the throughput. The result
+ * of every run is written as JSON to the {@code results} directory.
+ * <p>
+ * Usage: {@code java -jar target/benchmarks.jar [regex] [threads]}, for
+ * example {@code java -jar target/benchmarks.jar DateTimeFormat 1,4,8}.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        var include = args.length > 0 ? args[0] : "cn.vorbote.time.benchmarks";
+        var threads = args.length > 1 ? args[1] : "1,2,4,8";
+
+        var results = new File("results");
+        if (!results.isDirectory() && !results.mkdirs()) {
+            throw new IllegalStateException("Cannot create the directory: " + results.getAbsolutePath());
+        }
+
+        for (var count : threads.split(",")) {
+            var options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(count.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "jmh-threads-" + count.trim() + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
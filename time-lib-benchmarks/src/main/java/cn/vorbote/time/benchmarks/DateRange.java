@@ -0,0 +1,81 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+
+import java.util.Random;
+
+/**
+ * The ranges of dates the benchmarks run over. The cost of the civil
+ * arithmetic depends on the calendar and on the transitions of the time
+ * zone, so the modern dates, the dates around the Gregorian cutover and
+ * the whole supported range are measured separately.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+public enum DateRange {
+
+    /**
+     * 1970 through 2037.
+     */
+    MODERN(1970, 2037),
+
+    /**
+     * 1570 through 1600, around the switch to the Gregorian calendar.
+     */
+    CUTOVER(1570, 1600),
+
+    /**
+     * 1 through 9999.
+     */
+    FULL(1, 9999);
+
+    /**
+     * The count of samples, a power of 2 so the index can be masked.
+     */
+    public static final int SAMPLES = 1024;
+
+    private final int from;
+
+    private final int to;
+
+    DateRange(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Get the random dates of this range in the fields of year, month,
+     * day, hour, minute and second.
+     *
+     * @param seed The seed of the random numbers.
+     * @return {@code SAMPLES} rows of 6 fields.
+     */
+    public int[][] Fields(long seed) {
+        var random = new Random(seed);
+        var fields = new int[SAMPLES][];
+        for (var i = 0; i < SAMPLES; i++) {
+            var month = 1 + random.nextInt(12);
+            fields[i] = new int[]{
+                    from + random.nextInt(to - from + 1), month, 1 + random.nextInt(month == 2 ? 28 : 30),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60)
+            };
+        }
+        return fields;
+    }
+
+    /**
+     * Get the unix timestamps of the random dates of this range.
+     *
+     * @param seed The seed of the random numbers.
+     * @return {@code SAMPLES} timestamps.
+     */
+    public long[] Timestamps(long seed) {
+        var fields = Fields(seed);
+        var timestamps = new long[SAMPLES];
+        for (var i = 0; i < SAMPLES; i++) {
+            var f = fields[i];
+            timestamps[i] = new DateTime(f[0], f[1], f[2], f[3], f[4], f[5]).Unix();
+        }
+        return timestamps;
+    }
+}
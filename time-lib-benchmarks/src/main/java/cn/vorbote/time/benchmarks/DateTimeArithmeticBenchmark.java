@@ -0,0 +1,89 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+import cn.vorbote.time.TimeSpan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@code Add*} and {@code Minus} methods of
+ * {@code DateTime}. Every invocation works on a fresh copy, because the
+ * methods change the instance.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeArithmeticBenchmark {
+
+    @Param({"MODERN", "CUTOVER", "FULL"})
+    public DateRange range;
+
+    private long[] timestamps;
+
+    private int index;
+
+    private final TimeSpan span = new TimeSpan(3, 4, 5, 6);
+
+    private final DateTime other = new DateTime(1639216800L);
+
+    @Setup
+    public void setup() {
+        timestamps = range.Timestamps(20211211L);
+    }
+
+    private DateTime next() {
+        index = (index + 1) & (DateRange.SAMPLES - 1);
+        return new DateTime(timestamps[index]);
+    }
+
+    @Benchmark
+    public DateTime addTimeSpan() {
+        return next().Add(span);
+    }
+
+    @Benchmark
+    public DateTime minusTimeSpan() {
+        return next().Minus(span);
+    }
+
+    @Benchmark
+    public TimeSpan minusDateTime() {
+        return next().Minus(other);
+    }
+
+    @Benchmark
+    public DateTime addDays() {
+        return next().AddDays(3.5);
+    }
+
+    @Benchmark
+    public DateTime addHours() {
+        return next().AddHours(5);
+    }
+
+    @Benchmark
+    public DateTime addMinutes() {
+        return next().AddMinutes(30);
+    }
+
+    @Benchmark
+    public DateTime addSeconds() {
+        return next().AddSeconds(90);
+    }
+
+    @Benchmark
+    public DateTime addMonths() {
+        return next().AddMonths(7);
+    }
+
+    @Benchmark
+    public DateTime addYears() {
+        return next().AddYears(-3);
+    }
+}
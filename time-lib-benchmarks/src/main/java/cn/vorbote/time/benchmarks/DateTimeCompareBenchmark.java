@@ -0,0 +1,68 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code compareTo}, {@code hashCode} and {@code equals}
+ * of {@code DateTime}, and of the calendar helpers.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeCompareBenchmark {
+
+    @Param({"MODERN", "CUTOVER", "FULL"})
+    public DateRange range;
+
+    private DateTime[] times;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        var timestamps = range.Timestamps(20211211L);
+        times = new DateTime[timestamps.length];
+        for (var i = 0; i < timestamps.length; i++) {
+            times[i] = new DateTime(timestamps[i]);
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (DateRange.SAMPLES - 1);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        var i = next();
+        return times[i].compareTo(times[(i + 1) & (DateRange.SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public boolean equals() {
+        var i = next();
+        return times[i].equals(times[(i + 1) & (DateRange.SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public int hashCodes() {
+        return times[next()].hashCode();
+    }
+
+    @Benchmark
+    public boolean isLeapYear() {
+        return times[next()].IsLeapYear();
+    }
+
+    @Benchmark
+    public Object toCalendar() {
+        return times[next()].ToCalendar();
+    }
+}
@@ -0,0 +1,61 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the constructors of {@code DateTime}.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeConstructBenchmark {
+
+    @Param({"MODERN", "CUTOVER", "FULL"})
+    public DateRange range;
+
+    private int[][] fields;
+
+    private long[] timestamps;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        fields = range.Fields(20211211L);
+        timestamps = range.Timestamps(20211211L);
+    }
+
+    private int next() {
+        return index = (index + 1) & (DateRange.SAMPLES - 1);
+    }
+
+    @Benchmark
+    public DateTime now() {
+        return new DateTime();
+    }
+
+    @Benchmark
+    public DateTime timestamp() {
+        return new DateTime(timestamps[next()]);
+    }
+
+    @Benchmark
+    public DateTime date() {
+        var f = fields[next()];
+        return new DateTime(f[0], f[1], f[2]);
+    }
+
+    @Benchmark
+    public DateTime dateTime() {
+        var f = fields[next()];
+        return new DateTime(f[0], f[1], f[2], f[3], f[4], f[5]);
+    }
+}
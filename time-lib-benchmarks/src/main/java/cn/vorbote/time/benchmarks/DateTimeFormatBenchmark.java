@@ -0,0 +1,66 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code DateTime.toString()} with the default pattern
+ * and custom patterns.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateTimeFormatBenchmark {
+
+    @Param({"MODERN", "CUTOVER", "FULL"})
+    public DateRange range;
+
+    @Param({"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ssXXX", "EEE, d MMM yyyy HH:mm:ss Z"})
+    public String pattern;
+
+    private DateTime[] times;
+
+    private DateTime[] customs;
+
+    private final StringBuilder builder = new StringBuilder(64);
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        var timestamps = range.Timestamps(20211211L);
+        times = new DateTime[timestamps.length];
+        customs = new DateTime[timestamps.length];
+        for (var i = 0; i < timestamps.length; i++) {
+            times[i] = new DateTime(timestamps[i]);
+            customs[i] = new DateTime(timestamps[i]).Pattern(pattern);
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (DateRange.SAMPLES - 1);
+    }
+
+    @Benchmark
+    public String toStringDefault() {
+        return times[next()].toString();
+    }
+
+    @Benchmark
+    public String toStringCustom() {
+        return customs[next()].toString();
+    }
+
+    @Benchmark
+    public StringBuilder formatTo() {
+        builder.setLength(0);
+        return customs[next()].FormatTo(builder);
+    }
+}
@@ -0,0 +1,46 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.DateTime;
+import cn.vorbote.time.DateTimeFormatter;
+import cn.vorbote.time.DateTimeZone;
+import cn.vorbote.time.TimeSpan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the time to the first call of a fresh JVM, which is the
+ * class loading and initialization of the library and the JDK classes it
+ * needs. Every benchmark runs once in each of many forks, and none of the
+ * classes of the library is touched before the measured call.
+ * <p>
+ * Run with {@code -Xshare:off} as a JVM argument to leave the shared
+ * class archive out, or with {@code -XX:SharedArchiveFile} to measure an
+ * AppCDS archive of the library.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    @Benchmark
+    public String firstToString() {
+        return new DateTime(1639187730L).toString();
+    }
+
+    @Benchmark
+    public String firstUtcFormat() {
+        return DateTimeFormatter.Of(DateTimeFormatter.DEFAULT_PATTERN, DateTimeZone.UTC)
+                .Format(new DateTime(1639187730L));
+    }
+
+    @Benchmark
+    public String firstTimeSpanToString() {
+        return TimeSpan.FromSeconds(1639187730L).toString();
+    }
+}
@@ -0,0 +1,86 @@
+package cn.vorbote.time.benchmarks;
+
+import cn.vorbote.time.TimeSpan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@code TimeSpan}.
+ *
+ * @author vorbote thills@vorbote.cn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeSpanBenchmark {
+
+    /**
+     * The greatest count of days of the spans.
+     */
+    @Param({"1", "365", "3650000"})
+    public int days;
+
+    private TimeSpan[] spans;
+
+    private String[] texts;
+
+    private final StringBuilder builder = new StringBuilder(32);
+
+    private final byte[] bytes = new byte[32];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        var random = new Random(20211211L);
+        spans = new TimeSpan[DateRange.SAMPLES];
+        for (var i = 0; i < spans.length; i++) {
+            spans[i] = TimeSpan.FromMillis((long) (random.nextDouble() * days * 86400_000L));
+        }
+        texts = new String[spans.length];
+        for (var i = 0; i < spans.length; i++) {
+            texts[i] = spans[i].ToString("g");
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (DateRange.SAMPLES - 1);
+    }
+
+    @Benchmark
+    public long totalSeconds() {
+        return spans[next()].TotalSeconds();
+    }
+
+    @Benchmark
+    public String toStrings() {
+        return spans[next()].toString();
+    }
+
+    @Benchmark
+    public StringBuilder formatToBuilder() {
+        builder.setLength(0);
+        return spans[next()].FormatTo(builder, "c");
+    }
+
+    @Benchmark
+    public int formatToBytes() {
+        return spans[next()].FormatTo(bytes, 0);
+    }
+
+    @Benchmark
+    public TimeSpan parse() {
+        return TimeSpan.Parse(texts[next()]);
+    }
+
+    @Benchmark
+    public TimeSpan add() {
+        var i = next();
+        return spans[i].Add(spans[(i + 1) & (DateRange.SAMPLES - 1)]);
+    }
+}